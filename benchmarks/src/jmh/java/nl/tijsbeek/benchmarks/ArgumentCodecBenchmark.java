@@ -0,0 +1,77 @@
+package nl.tijsbeek.benchmarks;
+
+import nl.tijsbeek.database.databases.ArgumentCodec;
+import nl.tijsbeek.database.databases.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ArgumentCodec} with the CSV format the arguments used to be stored in.
+ * <br/>
+ * The arguments look like the ones of components, IDs and short words, with the occasional quote and comma that CSV has to escape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ArgumentCodecBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int argumentCount;
+
+    private List<String> arguments;
+    private String csv;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        arguments = new ArrayList<>(argumentCount);
+
+        for (int i = 0; i < argumentCount; i++) {
+            arguments.add(switch (i % 4) {
+                case 0 -> Long.toString(283_958_125_678_362_624L + i);
+                case 1 -> "next";
+                case 2 -> "a \"quoted\", reason";
+                default -> "pagina " + i;
+            });
+        }
+
+        csv = Database.argumentsToCsvString(arguments);
+        binary = ArgumentCodec.encode(arguments);
+    }
+
+    @Benchmark
+    public String csvEncode() {
+        return Database.argumentsToCsvString(arguments);
+    }
+
+    @Benchmark
+    public List<String> csvDecode() {
+        return Database.csvStringToArguments(csv);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return ArgumentCodec.encode(arguments);
+    }
+
+    @Benchmark
+    public List<String> binaryDecode() {
+        return ArgumentCodec.decode(binary);
+    }
+}
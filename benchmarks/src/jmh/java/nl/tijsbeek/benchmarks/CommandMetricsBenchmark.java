@@ -0,0 +1,69 @@
+package nl.tijsbeek.benchmarks;
+
+import io.prometheus.client.Histogram;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import nl.tijsbeek.prometheus.CommandMetrics;
+import nl.tijsbeek.prometheus.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the metrics recorded for every command, looking up the labels on every invocation against the children cached in {@link CommandMetrics}.
+ * <br/>
+ * Only the collectors are used, so no Prometheus server is started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CommandMetricsBenchmark {
+    private static final String COMMAND_NAME = "history";
+
+    private CommandMetrics metrics;
+
+    @Setup
+    public void setup() {
+        metrics = CommandMetrics.of(Command.Type.SLASH, COMMAND_NAME);
+    }
+
+    @Benchmark
+    public void labelLookups() {
+        Metrics.Commands.GENERIC_COMMANDS.labels("slash").inc();
+        Metrics.Commands.SLASHCOMMANDS.labels(COMMAND_NAME).inc();
+
+        Histogram.Timer genericHandlingTimer = Metrics.Commands.GENERIC_COMMAND_HANDLING_DURATION.labels("slash").startTimer();
+        Histogram.Timer handlingTimer = Metrics.Commands.SLASHCOMMAND_HANDLING_DURATION.labels(COMMAND_NAME).startTimer();
+        genericHandlingTimer.observeDuration();
+        handlingTimer.observeDuration();
+
+        Histogram.Timer genericInvocationTimer = Metrics.Commands.GENERIC_COMMAND_INVOCATION_DURATION.labels("slash").startTimer();
+        Histogram.Timer invocationTimer = Metrics.Commands.SLASHCOMMAND_INVOCATION_DURATION.labels(COMMAND_NAME).startTimer();
+        genericInvocationTimer.observeDuration();
+        invocationTimer.observeDuration();
+    }
+
+    @Benchmark
+    public void cachedChildren() {
+        metrics.countInvocation();
+
+        metrics.observeHandling(System.nanoTime());
+        metrics.observeInvocation(System.nanoTime());
+    }
+
+    @Benchmark
+    public void autocomplete() {
+        metrics.getAutocompleteMetrics("user").observe(System.nanoTime());
+    }
+}
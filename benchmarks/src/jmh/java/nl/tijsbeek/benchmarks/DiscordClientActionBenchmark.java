@@ -0,0 +1,40 @@
+package nl.tijsbeek.benchmarks;
+
+import nl.tijsbeek.utils.DiscordClientAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DiscordClientAction#formatUrl(String...)} with one and with three arguments, the report commands create both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class DiscordClientActionBenchmark {
+    private final String userId = "257500867568205824";
+    private final String guildId = Long.toString(JdaMocks.GUILD_ID);
+    private final String channelId = "272761734820003842";
+    private final String messageId = "990245632846467092";
+
+    @Benchmark
+    public String singleArgument() {
+        return DiscordClientAction.General.USER.formatUrl(userId);
+    }
+
+    @Benchmark
+    public String threeArguments() {
+        return DiscordClientAction.Channels.GUILD_CHANNEL_MESSAGE.formatUrl(guildId, channelId, messageId);
+    }
+}
@@ -0,0 +1,58 @@
+package nl.tijsbeek.benchmarks;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import nl.tijsbeek.database.tables.EmbedTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link EmbedTemplate#toEmbedBuilder()}, with and without building the embed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class EmbedTemplateBenchmark {
+    private EmbedTemplate embedTemplate;
+
+    @Setup
+    public void setup() {
+        embedTemplate = new EmbedTemplate.EmbedTemplateBuilder()
+                .setTimestamp(true)
+                .setAuthorName("Tijs")
+                .setAuthorUrl("https://github.com/Tais993")
+                .setAuthorIconUrl("https://cdn.discordapp.com/embed/avatars/0.png")
+                .setColor(Color.CYAN)
+                .setImageUrl("https://cdn.discordapp.com/embed/avatars/1.png")
+                .setThumbnailUrl("https://cdn.discordapp.com/embed/avatars/2.png")
+                .setMentions(List.of("<@&272761734820003841>"))
+                .createEmbedTemplate();
+    }
+
+    @Benchmark
+    public EmbedBuilder toEmbedBuilder() {
+        return embedTemplate.toEmbedBuilder();
+    }
+
+    @Benchmark
+    public MessageEmbed toEmbed() {
+        return embedTemplate.toEmbedBuilder()
+                .setDescription("A description")
+                .build();
+    }
+}
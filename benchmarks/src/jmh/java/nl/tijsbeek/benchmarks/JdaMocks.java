@@ -0,0 +1,93 @@
+package nl.tijsbeek.benchmarks;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Creates mocked JDA objects, so the benchmarks run without connecting to Discord.
+ * <br/>
+ * All mocks are stub-only, otherwise Mockito remembers every invocation and the benchmark's memory keeps growing.
+ */
+public final class JdaMocks {
+    public static final long GUILD_ID = 272_761_734_820_003_841L;
+
+    @Contract(pure = true)
+    private JdaMocks() {}
+
+    /**
+     * Creates a stub-only mock of the given class.
+     *
+     * @param clazz the class to mock
+     * @param <T> the type to mock
+     *
+     * @return the mock
+     */
+    @NotNull
+    public static <T> T mock(@NotNull final Class<T> clazz) {
+        return Mockito.mock(clazz, Mockito.withSettings().stubOnly());
+    }
+
+    /**
+     * Creates a member owning the given guild.
+     * <br/>
+     * An owner has all permissions, this way {@link net.dv8tion.jda.api.utils.PermissionUtil} works without mocking roles and overrides.
+     *
+     * @param guild the {@link Guild} of the member
+     *
+     * @return the {@link Member}
+     */
+    @NotNull
+    public static Member owner(@NotNull final Guild guild) {
+        Member member = mock(Member.class);
+
+        when(member.getGuild()).thenReturn(guild);
+        when(member.isOwner()).thenReturn(true);
+        when(member.getEffectiveName()).thenReturn("Tijs");
+        when(member.getEffectiveAvatarUrl()).thenReturn("https://cdn.discordapp.com/embed/avatars/0.png");
+
+        return member;
+    }
+
+    /**
+     * Creates a slash-command event in a guild, the user and the bot have all permissions.
+     *
+     * @param name the name of the command
+     *
+     * @return the {@link SlashCommandInteractionEvent}, replies are accepted and ignored
+     */
+    @NotNull
+    public static SlashCommandInteractionEvent slashCommandEvent(@NonNls @NotNull final String name) {
+        Guild guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(GUILD_ID);
+
+        Member selfMember = owner(guild);
+        when(guild.getSelfMember()).thenReturn(selfMember);
+
+        GuildMessageChannel channel = mock(GuildMessageChannel.class);
+        when(channel.getGuild()).thenReturn(guild);
+
+        SlashCommandInteractionEvent event = mock(SlashCommandInteractionEvent.class);
+        when(event.getName()).thenReturn(name);
+        when(event.getCommandType()).thenReturn(Command.Type.SLASH);
+        when(event.getGuild()).thenReturn(guild);
+        when(event.getMember()).thenReturn(owner(guild));
+        when(event.getGuildChannel()).thenReturn(channel);
+
+        ReplyCallbackAction replyAction = mock(ReplyCallbackAction.class);
+        when(event.replyEmbeds(any(MessageEmbed.class))).thenReturn(replyAction);
+
+        return event;
+    }
+}
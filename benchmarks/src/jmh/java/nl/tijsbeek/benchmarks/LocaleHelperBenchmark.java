@@ -0,0 +1,70 @@
+package nl.tijsbeek.benchmarks;
+
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LocaleHelper#getBotResource(DiscordLocale)} with {@link MessageCatalog#getBotMessages(DiscordLocale)}, which every reply calls.
+ * <br/>
+ * The format benchmarks use the entry of the history command, the message with the most arguments in a loop.
+ * <br/>
+ * Dutch has its own bundle, German falls back to the default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class LocaleHelperBenchmark {
+
+    @Param({"DUTCH", "ENGLISH_US", "GERMAN"})
+    private DiscordLocale locale;
+
+    private final Object[] entryArguments = {12L, "ban", 1_656_000_000L, 283_958_125_678_362_624L, "Spamming in #general"};
+
+    @Benchmark
+    public ResourceBundle getBotResource() {
+        return LocaleHelper.getBotResource(locale);
+    }
+
+    @Benchmark
+    public String getBotResourceString() {
+        return LocaleHelper.getBotResource(locale).getString("interaction.busy");
+    }
+
+    @Benchmark
+    public String getBotResourceFormat() {
+        return LocaleHelper.getBotResource(locale).getString("command.history.entry").formatted(entryArguments);
+    }
+
+    @Benchmark
+    public Messages getBotMessages() {
+        return MessageCatalog.getBotMessages(locale);
+    }
+
+    @Benchmark
+    public String getBotMessagesString() {
+        return MessageCatalog.getBotMessages(locale).getString("interaction.busy");
+    }
+
+    @Benchmark
+    public String getBotMessagesFormat() {
+        return MessageCatalog.getBotMessages(locale).format("command.history.entry", entryArguments);
+    }
+}
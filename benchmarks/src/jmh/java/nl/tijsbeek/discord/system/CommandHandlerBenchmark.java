@@ -0,0 +1,155 @@
+package nl.tijsbeek.discord.system;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import nl.tijsbeek.benchmarks.JdaMocks;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.components.ComponentRegistry;
+import nl.tijsbeek.database.databases.Database;
+import nl.tijsbeek.database.tables.ComponentEntity;
+import nl.tijsbeek.discord.commands.InteractionCommand;
+import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
+import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
+import nl.tijsbeek.prometheus.ExecutorTelemetry;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks the {@link CommandHandler} without its executors, from the lookup of the command up to the command itself.
+ * <br/>
+ * The commands do nothing, so what's measured is the handler's own overhead; the metrics and the mocked JDA calls are part of that.
+ * This is in the package of the {@link CommandHandler}, to reach its package-private methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CommandHandlerBenchmark {
+    /**
+     * About the amount of commands the bot has, so the maps are as large as in production.
+     */
+    private static final int COMMAND_COUNT = 20;
+
+    private static final EnumSet<Permission> REQUIRED_PERMISSIONS = EnumSet.of(Permission.MESSAGE_SEND, Permission.MESSAGE_EMBED_LINKS);
+
+    private CommandHandler commandHandler;
+    private ExecutorTelemetry executorTelemetry;
+
+    private SlashCommandInteractionEvent event;
+    private ComponentEntity componentEntity;
+
+    private final long requiredPermissions = Permission.getRaw(REQUIRED_PERMISSIONS);
+    private final long grantedPermissions = Permission.getRaw(Permission.VIEW_CHANNEL, Permission.MESSAGE_SEND, Permission.MESSAGE_EMBED_LINKS);
+    private final long lackingPermissions = Permission.getRaw(Permission.VIEW_CHANNEL);
+
+    @Setup
+    public void setup() {
+        List<InteractionCommand> commands = new ArrayList<>(COMMAND_COUNT);
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            commands.add(new NoOpCommand("command-" + i));
+        }
+
+        ListenersList listenersList = JdaMocks.mock(ListenersList.class);
+        when(listenersList.getCommands()).thenReturn(commands);
+
+        Database database = JdaMocks.mock(Database.class);
+        when(database.getComponentRegistry()).thenReturn(JdaMocks.mock(ComponentRegistry.class));
+
+        Config config = JdaMocks.mock(Config.class);
+        when(config.getCommandExecutorMode()).thenReturn("pooled");
+
+        commandHandler = new CommandHandler(database, listenersList, config);
+        executorTelemetry = new ExecutorTelemetry(commandHandler);
+
+        event = JdaMocks.slashCommandEvent("command-" + (COMMAND_COUNT / 2));
+        componentEntity = new ComponentEntity("1", "1-command-" + (COMMAND_COUNT / 2), null, List.of());
+    }
+
+    @TearDown
+    public void tearDown() {
+        shutdown(commandHandler.getExecutor());
+        shutdown(commandHandler.getLowLatencyExecutor());
+    }
+
+    private static void shutdown(@NotNull final Object executor) {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * The lookup of a command by a component's listener ID.
+     */
+    @Benchmark
+    public InteractionCommand componentLookup() {
+        return commandHandler.commandByNameAndType(componentEntity);
+    }
+
+    /**
+     * A slash-command from the lookup to the command, with the permission checks and metrics.
+     */
+    @Benchmark
+    public void slashCommandDispatch() {
+        commandHandler.handleSlashCommand(event);
+    }
+
+    @Benchmark
+    public boolean permissionsGranted() {
+        return CommandHandler.checkMissingPermissions(event, grantedPermissions, requiredPermissions, "You are");
+    }
+
+    /**
+     * Includes building the "lacking permissions" embed.
+     */
+    @Benchmark
+    public boolean permissionsLacking() {
+        return CommandHandler.checkMissingPermissions(event, lackingPermissions, requiredPermissions, "You are");
+    }
+
+    /**
+     * A single sample of the executor gauges, this runs every second.
+     */
+    @Benchmark
+    public void executorTelemetrySample() {
+        executorTelemetry.sample();
+    }
+
+    /**
+     * A guild-only command which does nothing, and requires {@link #REQUIRED_PERMISSIONS} from both the user and the bot.
+     */
+    private static final class NoOpCommand extends AbstractSlashCommand {
+        private NoOpCommand(@NotNull final String name) {
+            super(Commands.slash(name, "Does nothing"), InteractionCommandVisibility.GUILD_ONLY);
+
+            Permission[] permissions = REQUIRED_PERMISSIONS.toArray(Permission[]::new);
+            addRequiredUserPermission(permissions);
+            addRequiredBotPermission(permissions);
+        }
+
+        @Override
+        public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
+            // the handler's overhead is measured, not the command
+        }
+    }
+}
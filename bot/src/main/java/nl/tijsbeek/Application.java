@@ -5,11 +5,13 @@ import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import nl.tijsbeek.config.Config;
 import nl.tijsbeek.database.databases.Database;
+import nl.tijsbeek.discord.commands.InteractionCommand;
 import nl.tijsbeek.discord.system.CommandHandler;
 import nl.tijsbeek.discord.system.EventHandler;
 import nl.tijsbeek.discord.system.ListenersList;
 import nl.tijsbeek.grafana.GrafanaSetup;
 import nl.tijsbeek.prometheus.MetricsHandler;
+import nl.tijsbeek.utils.MessageCatalog;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -50,12 +52,20 @@ public final class Application {
 
         Config config = Config.loadInstance(configLocation);
 
+        // loads every bundle now, instead of during the first interaction
+        logger.info("Loaded {}", MessageCatalog.getBotCatalog());
+
         Database database = new Database(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(database::close, "Database-shutdown"));
 
         ListenersList listenersList = new ListenersList(database);
+        database.getComponentSweeper().start(listenersList.getCommands().stream()
+                .map(InteractionCommand::getListenerId)
+                .toList());
 
-        CommandHandler commandHandler = new CommandHandler(database, listenersList);
-        EventHandler eventHandler = new EventHandler(listenersList);
+        CommandHandler commandHandler = new CommandHandler(database, listenersList, config);
+        EventHandler eventHandler = new EventHandler(listenersList, config);
+        Runtime.getRuntime().addShutdownHook(new Thread(eventHandler::close, "EventHandler-shutdown"));
 
         MetricsHandler matricsHandler = new MetricsHandler(commandHandler, config);
 
@@ -6,7 +6,7 @@ import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.SelectMenuInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
-import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.components.ComponentRegistry;
 import nl.tijsbeek.discord.commands.abstractions.AbstractInteractionCommand;
 import nl.tijsbeek.database.tables.ComponentEntity;
 import org.jetbrains.annotations.NotNull;
@@ -48,6 +48,16 @@ public interface InteractionCommand {
         return getData().getType();
     }
 
+    /**
+     * The ID components of this command are stored with, in the format {@code type-name}.
+     *
+     * @return the listener ID
+     */
+    @NotNull
+    default String getListenerId() {
+        return getType().getId() + "-" + getName();
+    }
+
     /**
      * The {@link InteractionCommandVisibility visibility} of the command. If set to {@link InteractionCommandVisibility#PRIVATE},
      * the guilds from {@link #getEnabledGuilds()} will receive access to this command.
@@ -105,7 +115,7 @@ public interface InteractionCommand {
     /**
      * This event triggers when a select menu with the right command ID gets triggered.
      * <br/>
-     * Component ID's should be created using {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}
+     * Component ID's should be created using {@link ComponentRegistry#insertAndReturnId(ComponentEntity)}
      *
      * @param event the {@link SelectMenuInteractionEvent}
      */
@@ -114,7 +124,7 @@ public interface InteractionCommand {
     /**
      * This event triggers when a button with the right command ID gets triggered.
      * <br/>
-     * Component ID's should be created using {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}
+     * Component ID's should be created using {@link ComponentRegistry#insertAndReturnId(ComponentEntity)}
      *
      * @param event the {@link ButtonInteractionEvent}
      */
@@ -123,9 +133,9 @@ public interface InteractionCommand {
     /**
      * This event triggers when a modal with the right command ID gets triggered.
      * <br/>
-     * Modal ID's should be created using {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}
+     * Modal ID's should be created using {@link ComponentRegistry#insertAndReturnId(ComponentEntity)}
      *
-     * <p><b>Components within a modal should not be created using {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}</b>
+     * <p><b>Components within a modal should not be created using {@link ComponentRegistry#insertAndReturnId(ComponentEntity)}</b>
      * <br>Arguments can be inserted using the modal's ID, you shouldn't need arguments for components in the modal/
      *
      * @param event the {@link ModalInteractionEvent}
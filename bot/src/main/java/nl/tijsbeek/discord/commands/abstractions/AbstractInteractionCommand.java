@@ -7,7 +7,7 @@ import net.dv8tion.jda.api.events.interaction.component.SelectMenuInteractionEve
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.components.ActionComponent;
 import net.dv8tion.jda.api.interactions.components.ComponentInteraction;
-import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.components.ComponentRegistry;
 import nl.tijsbeek.database.databases.Database;
 import nl.tijsbeek.discord.commands.InteractionCommand;
 import nl.tijsbeek.discord.commands.InteractionCommandState;
@@ -28,7 +28,7 @@ import java.util.*;
  */
 public abstract class AbstractInteractionCommand implements InteractionCommand {
     protected Database database;
-    private ComponentDatabase componentDatabase;
+    private ComponentRegistry componentRegistry;
 
     private final CommandData data;
     private final InteractionCommandVisibility visibility;
@@ -37,6 +37,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
     private final Collection<Permission> requiredBotPermission = new ArrayList<>(0);
 
     private final InteractionCommandState state;
+    private ComponentIdMode componentIdMode = ComponentIdMode.DATABASE;
 
     protected AbstractInteractionCommand(@NotNull final CommandData data, @NotNull final InteractionCommandVisibility visibility) {
         this(data, visibility, InteractionCommandState.ENABLED);
@@ -51,7 +52,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
 
     public void setDatabase(final Database database) {
         this.database = database;
-        this.componentDatabase = database.getComponentDatabase();
+        this.componentRegistry = database.getComponentRegistry();
     }
 
     /**
@@ -81,6 +82,17 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
         requiredBotPermission.addAll(List.of(botPermissions));
     }
 
+    /**
+     * Sets how {@link #generateId(String...)} stores the arguments, defaults to {@link ComponentIdMode#DATABASE}.
+     * <br/>
+     * Only use {@link ComponentIdMode#STATELESS} when the arguments don't need to stay secret, they're readable by the user.
+     *
+     * @param componentIdMode the {@link ComponentIdMode}
+     */
+    protected final void setComponentIdMode(@NotNull final ComponentIdMode componentIdMode) {
+        this.componentIdMode = Objects.requireNonNull(componentIdMode, "The given ComponentIdMode cannot be null");
+    }
+
     @NotNull
     @Override
     public CommandData getData() {
@@ -140,7 +152,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
     /**
      * Generates a component/modal ID.
      * <br/>
-     * Shortcut for {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}.
+     * Shortcut for {@link ComponentRegistry#insertAndReturnId(ComponentEntity)}.
      * The component doesn't expire, you can set an expiration date using {@link #generateId(LocalDateTime, String...)}.
      *
      * @param arguments the arguments
@@ -155,7 +167,8 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
     /**
      * Generates a component/modal ID.
      * <br/>
-     * Shortcut for {@link ComponentDatabase#insertAndReturnId(ComponentEntity)}.
+     * Shortcut for {@link ComponentRegistry#insertAndReturnId(ComponentEntity)},
+     * or {@link ComponentRegistry#insertStatelessOrReturnId(ComponentEntity)} when the {@link ComponentIdMode} is {@link ComponentIdMode#STATELESS}.
      *
      * @param expirationDate the date for the component to expire
      * @param arguments      the arguments
@@ -163,7 +176,35 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
      * @see #generateId(String...)
      */
     public @NotNull String generateId(@Nullable final LocalDateTime expirationDate, @NotNull final String... arguments) {
-        return Objects.requireNonNull(componentDatabase.insertAndReturnId(new ComponentEntity(getType().getId() + "-" + getName(), expirationDate, List.of(arguments))));
+        ComponentEntity componentEntity = new ComponentEntity(getListenerId(), expirationDate, List.of(arguments));
+
+        return switch (componentIdMode) {
+            case DATABASE -> componentRegistry.insertAndReturnId(componentEntity);
+            case STATELESS -> componentRegistry.insertStatelessOrReturnId(componentEntity);
+        };
+    }
+
+    /**
+     * Generates a component ID for every given array of arguments, at once.
+     * <br/>
+     * Use this over {@link #generateId(LocalDateTime, String...)} when a message has multiple components,
+     * shortcut for {@link ComponentRegistry#insertAllAndReturnIds(List)} or {@link ComponentRegistry#insertAllStatelessOrReturnIds(List)}.
+     *
+     * @param expirationDate the date for the components to expire
+     * @param argumentsPerComponent the arguments of every component
+     * @return the IDs, in the same order as the given arguments
+     * @see #generateId(LocalDateTime, String...)
+     */
+    @NotNull
+    protected List<String> generateIds(@Nullable final LocalDateTime expirationDate, @NotNull final List<String[]> argumentsPerComponent) {
+        List<ComponentEntity> componentEntities = argumentsPerComponent.stream()
+                .map(arguments -> new ComponentEntity(getListenerId(), expirationDate, List.of(arguments)))
+                .toList();
+
+        return switch (componentIdMode) {
+            case DATABASE -> componentRegistry.insertAllAndReturnIds(componentEntities);
+            case STATELESS -> componentRegistry.insertAllStatelessOrReturnIds(componentEntities);
+        };
     }
 
     /**
@@ -173,7 +214,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
      *
      * @return an unmodifiable {@link List} with the arguments
      *
-     * @see ComponentDatabase#retrieveById(String)
+     * @see ComponentRegistry#retrieveById(String)
      */
     protected List<String> getArgumentsComponent(@NotNull final ComponentInteraction event) {
         Objects.requireNonNull(event, "The given event cannot be null");
@@ -190,7 +231,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
      *
      * @throws IllegalArgumentException when the given Component has no ID
      *
-     * @see ComponentDatabase#retrieveById(String)
+     * @see ComponentRegistry#retrieveById(String)
      */
     public List<String> getArgumentsComponent(@NotNull final ActionComponent component) {
         Objects.requireNonNull(component, "The given ActionComponent cannot be null");
@@ -209,14 +250,14 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
      *
      * @return an unmodifiable {@link List} with the arguments
      *
-     * @see ComponentDatabase#retrieveById(String)
+     * @see ComponentRegistry#retrieveById(String)
      */
     @NotNull
     @Unmodifiable
     protected List<String> getArgumentsComponent(@NotNull final String id) {
         Objects.requireNonNull(id, "The given ID cannot be null");
 
-        return componentDatabase.retrieveById(id).getArguments();
+        return componentRegistry.retrieveById(id).getArguments();
     }
 
     @NonNls
@@ -230,6 +271,7 @@ public abstract class AbstractInteractionCommand implements InteractionCommand {
                 ", requiredUserPermission=" + requiredUserPermission +
                 ", requiredBotPermission=" + requiredBotPermission +
                 ", state=" + state +
+                ", componentIdMode=" + componentIdMode +
                 '}';
     }
 }
@@ -0,0 +1,20 @@
+package nl.tijsbeek.discord.commands.abstractions;
+
+import nl.tijsbeek.database.components.StatelessComponentIdCodec;
+
+/**
+ * How {@link AbstractInteractionCommand#generateId(String...)} stores the component's arguments.
+ */
+public enum ComponentIdMode {
+    /**
+     * Every component gets a row in the DB.
+     */
+    DATABASE,
+
+    /**
+     * The arguments get encoded in the ID itself, when they don't fit this falls back to {@link #DATABASE}.
+     *
+     * @see StatelessComponentIdCodec
+     */
+    STATELESS
+}
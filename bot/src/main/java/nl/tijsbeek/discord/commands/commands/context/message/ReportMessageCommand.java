@@ -12,15 +12,18 @@ import net.dv8tion.jda.api.interactions.components.text.TextInputStyle;
 import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.MessageContextCommand;
 import nl.tijsbeek.discord.commands.abstractions.AbstractInteractionCommand;
+import nl.tijsbeek.discord.commands.abstractions.ComponentIdMode;
 import nl.tijsbeek.utils.DiscordClientAction;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ResourceBundle;
 
 import static nl.tijsbeek.discord.commands.commands.slash.ReportSlashCommand.handleReportLogChannel;
+import static nl.tijsbeek.discord.commands.commands.slash.ReportSlashCommand.logReport;
 import static nl.tijsbeek.utils.MentionUtils.mentionUserById;
 
 public class ReportMessageCommand extends AbstractInteractionCommand implements MessageContextCommand {
@@ -30,11 +33,13 @@ public class ReportMessageCommand extends AbstractInteractionCommand implements
 
     public ReportMessageCommand() {
         super(Commands.message("report"), InteractionCommandVisibility.GUILD_ONLY);
+
+        setComponentIdMode(ComponentIdMode.STATELESS);
     }
 
     @Override
     public void onMessageContextInteraction(@NotNull MessageContextInteractionEvent event) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = handleReportLogChannel(database, event);
 
@@ -67,7 +72,7 @@ public class ReportMessageCommand extends AbstractInteractionCommand implements
 
     @Override
     public void onModalInteraction(@NotNull final ModalInteractionEvent event) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = handleReportLogChannel(database, event);
 
@@ -89,7 +94,7 @@ public class ReportMessageCommand extends AbstractInteractionCommand implements
         EmbedBuilder builder = new EmbedBuilder()
                 .setColor(Color.RED)
                 .setTitle(resource.getString("command.report.title"))
-                .setDescription(resource.getString("command.report.message").formatted(
+                .setDescription(resource.format("command.report.message",
                         mentionUserById(reporteeId), reporteeId,
                         mentionUserById(reporterId), reporterId,
                         event.getValue(ATTACHMENT_COMPONENT_ID).getAsString(),
@@ -112,6 +117,9 @@ public class ReportMessageCommand extends AbstractInteractionCommand implements
                         DiscordClientAction.Channels.GUILD_CHANNEL_MESSAGE.asLinkButton(resource.getString("command.report.targetmessage.link"),  targetGuildId, targetChannelId, targetMessageId)
                 )).queue();
 
+        logReport(database, event.getGuild().getIdLong(), Long.parseLong(reporterId), Long.parseLong(reporteeId), event.getValue(REASON_COMPONENT_ID).getAsString(),
+                Arrays.asList(event.getValue(ATTACHMENT_COMPONENT_ID).getAsString().split(",")));
+
         event.reply(resource.getString("command.report.success")).setEphemeral(true).queue();
     }
 }
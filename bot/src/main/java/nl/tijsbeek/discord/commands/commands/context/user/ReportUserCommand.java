@@ -11,15 +11,18 @@ import net.dv8tion.jda.api.interactions.components.text.TextInputStyle;
 import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.UserContextCommand;
 import nl.tijsbeek.discord.commands.abstractions.AbstractInteractionCommand;
+import nl.tijsbeek.discord.commands.abstractions.ComponentIdMode;
 import nl.tijsbeek.utils.DiscordClientAction;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ResourceBundle;
 
 import static nl.tijsbeek.discord.commands.commands.slash.ReportSlashCommand.handleReportLogChannel;
+import static nl.tijsbeek.discord.commands.commands.slash.ReportSlashCommand.logReport;
 import static nl.tijsbeek.utils.MentionUtils.mentionUserById;
 
 public class ReportUserCommand extends AbstractInteractionCommand implements UserContextCommand {
@@ -29,12 +32,14 @@ public class ReportUserCommand extends AbstractInteractionCommand implements Use
 
     public ReportUserCommand() {
         super(Commands.user("report"), InteractionCommandVisibility.GUILD_ONLY);
+
+        setComponentIdMode(ComponentIdMode.STATELESS);
     }
 
 
     @Override
     public void onUserContextInteraction(@NotNull UserContextInteractionEvent event) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = handleReportLogChannel(database, event);
 
@@ -60,7 +65,7 @@ public class ReportUserCommand extends AbstractInteractionCommand implements Use
 
     @Override
     public void onModalInteraction(@NotNull ModalInteractionEvent event) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = handleReportLogChannel(database, event);
 
@@ -78,7 +83,7 @@ public class ReportUserCommand extends AbstractInteractionCommand implements Use
         EmbedBuilder builder = new EmbedBuilder()
                 .setColor(Color.RED)
                 .setTitle(resource.getString("command.report.title"))
-                .setDescription(resource.getString("command.report.message").formatted(
+                .setDescription(resource.format("command.report.message",
                         mentionUserById(reporteeId), reporteeId,
                         mentionUserById(reporterId), reporterId,
                         event.getValue(ATTACHMENT_COMPONENT_ID).getAsString(),
@@ -92,6 +97,9 @@ public class ReportUserCommand extends AbstractInteractionCommand implements Use
                         DiscordClientAction.General.USER.asLinkButton(resource.getString("command.report.reportee.profile"), reporteeId)
                 )).queue();
 
+        logReport(database, event.getGuild().getIdLong(), Long.parseLong(reporterId), Long.parseLong(reporteeId), event.getValue(REASON_COMPONENT_ID).getAsString(),
+                Arrays.asList(event.getValue(ATTACHMENT_COMPONENT_ID).getAsString().split(",")));
+
         event.reply(resource.getString("command.report.success")).setEphemeral(true).queue();
     }
 }
@@ -9,22 +9,25 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
+import nl.tijsbeek.discord.commands.abstractions.ComponentIdMode;
 import nl.tijsbeek.utils.EmbedUtils;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
-import java.util.ResourceBundle;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class CoinFlip extends AbstractSlashCommand {
     public CoinFlip() {
         super(Commands.slash("coin-flip", "Flips a coin for you"), InteractionCommandVisibility.GUILD_ONLY);
+
+        setComponentIdMode(ComponentIdMode.STATELESS);
     }
 
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
-        ResourceBundle resourceBundle = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resourceBundle = MessageCatalog.getBotMessages(event.getUserLocale());
 
         event.replyEmbeds(getHeadOrTails(resourceBundle, event.getMember()))
                 .addActionRow(Button.primary(generateId("retry", event.getMember().getId()), resourceBundle.getString("command.coinflip.retry")))
@@ -33,13 +36,13 @@ public class CoinFlip extends AbstractSlashCommand {
 
     @Override
     public void onButtonInteraction(@NotNull final ButtonInteractionEvent event) {
-        ResourceBundle resourceBundle = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resourceBundle = MessageCatalog.getBotMessages(event.getUserLocale());
         List<String> argumentsComponent = getArgumentsComponent(event);
 
         String authorId = argumentsComponent.get(1);
 
         if (!event.getMember().getId().equals(authorId)) {
-            event.reply(resourceBundle.getString("command.coinflip.error.author").formatted(authorId)).setEphemeral(true).queue();
+            event.reply(resourceBundle.format("command.coinflip.error.author", authorId)).setEphemeral(true).queue();
             return;
         }
 
@@ -50,7 +53,7 @@ public class CoinFlip extends AbstractSlashCommand {
         }
     }
 
-    private static @NotNull MessageEmbed getHeadOrTails(@NotNull final ResourceBundle resourceBundle, @NotNull final Member member) {
+    private static @NotNull MessageEmbed getHeadOrTails(@NotNull final Messages resourceBundle, @NotNull final Member member) {
         boolean isHeads = ThreadLocalRandom.current().nextBoolean();
 
         EmbedBuilder embedBuilder = EmbedUtils.createBuilder(member);
@@ -17,12 +17,14 @@ import net.dv8tion.jda.api.interactions.components.Modal;
 import net.dv8tion.jda.api.interactions.components.text.TextInput;
 import net.dv8tion.jda.api.interactions.components.text.TextInputStyle;
 import net.dv8tion.jda.api.interactions.modals.ModalMapping;
+import nl.tijsbeek.database.databases.AsyncDatabase;
 import nl.tijsbeek.database.databases.Database;
 import nl.tijsbeek.database.databases.EmbedDatabase;
 import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
 import nl.tijsbeek.database.tables.EmbedTemplate;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import nl.tijsbeek.utils.StreamUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -33,7 +35,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.List;
-import java.util.ResourceBundle;
 
 public final class EmbedCommand extends AbstractSlashCommand {
     private static final Logger logger = LoggerFactory.getLogger(EmbedCommand.class);
@@ -152,7 +153,7 @@ public final class EmbedCommand extends AbstractSlashCommand {
     @Nullable
     @Contract("_, null -> null")
     private static Color stringToRgbColor(@NotNull final IReplyCallback interaction, @Nullable final String colorString) {
-        ResourceBundle locale = LocaleHelper.getBotResource(interaction.getUserLocale());
+        Messages locale = MessageCatalog.getBotMessages(interaction.getUserLocale());
 
         if (null == colorString || colorString.isBlank()) {
             return null;
@@ -203,7 +204,7 @@ public final class EmbedCommand extends AbstractSlashCommand {
 
     @Override
     public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
-        ResourceBundle locale = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages locale = MessageCatalog.getBotMessages(event.getUserLocale());
 
         Color colour = getEffectiveColor(event);
 
@@ -284,12 +285,21 @@ public final class EmbedCommand extends AbstractSlashCommand {
 
     @Override
     public void onModalInteraction(@NotNull final ModalInteractionEvent event) {
-        ResourceBundle locale = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages locale = MessageCatalog.getBotMessages(event.getUserLocale());
 
+        AsyncDatabase<EmbedTemplate, EmbedDatabase> asyncEmbedDatabase = database.async(embedDatabase);
 
-        EmbedTemplate embedTemplate = embedDatabase.retrieveById(event.getModalId());
-
+        asyncEmbedDatabase.supply(db -> db.deleteById(event.getModalId()))
+                .thenAccept(embedTemplate -> sendEmbed(event, locale, embedTemplate))
+                .exceptionally(throwable -> {
+                    logger.error("Something went wrong while retrieving embed template {}", event.getModalId(), throwable);
+                    event.reply(locale.getString("command.embed.error.failed")).setEphemeral(true).queue();
+                    return null;
+                });
+    }
 
+    private static void sendEmbed(@NotNull final ModalInteractionEvent event, @NotNull final Messages locale,
+                                  @NotNull final EmbedTemplate embedTemplate) {
         EmbedBuilder builder = embedTemplate.toEmbedBuilder();
 
 
@@ -310,7 +320,5 @@ public final class EmbedCommand extends AbstractSlashCommand {
                 .queue();
 
         event.reply(locale.getString("command.embed.success")).setEphemeral(true).queue();
-
-        embedDatabase.deleteById(event.getModalId());
     }
-}
+}
\ No newline at end of file
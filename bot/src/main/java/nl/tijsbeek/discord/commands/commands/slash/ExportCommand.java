@@ -0,0 +1,106 @@
+package nl.tijsbeek.discord.commands.commands.slash;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import nl.tijsbeek.database.auditlog.AuditLogExporter;
+import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
+import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exports the full audit log of the guild, and uploads it as a gzip-compressed file.
+ * <br/>
+ * The export is streamed from the DB into a temporary file on a thread of the {@link AuditLogExporter}, which is deleted once it's uploaded.
+ * A guild can only run one export at a time.
+ */
+public final class ExportCommand extends AbstractSlashCommand {
+    private static final Logger logger = LoggerFactory.getLogger(ExportCommand.class);
+
+    private static final String FORMAT_OPTION = "format";
+
+    public ExportCommand() {
+        super(Commands.slash("export", "Exports the audit log of this server"), InteractionCommandVisibility.GUILD_ONLY);
+
+        OptionData formatOption = new OptionData(OptionType.STRING, FORMAT_OPTION, "The format of the file, CSV by default");
+        for (final AuditLogExporter.Format format : AuditLogExporter.Format.values()) {
+            formatOption.addChoice(format.name(), format.name());
+        }
+
+        getData().addOptions(formatOption);
+
+        addRequiredUserPermission(Permission.MANAGE_SERVER);
+    }
+
+    @Override
+    public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
+
+        AuditLogExporter.Format format = AuditLogExporter.Format.valueOf(
+                event.getOption(FORMAT_OPTION, AuditLogExporter.Format.CSV.name(), OptionMapping::getAsString));
+
+        long guildId = event.getGuild().getIdLong();
+        long maxFileSize = event.getGuild().getMaxFileSize();
+        String fileName = "audit-log-%d.%s".formatted(guildId, format.getFileExtension());
+
+        CompletableFuture<AuditLogExporter.Export> export = database.getAuditLogExporter().exportToTempFile(guildId, format);
+
+        if (null == export) {
+            event.reply(resource.getString("command.export.error.busy")).setEphemeral(true).queue();
+            return;
+        }
+
+        InteractionHook hook = event.getHook();
+        event.deferReply(true).queue();
+
+        export.thenAccept(finishedExport -> upload(hook, resource, finishedExport, fileName, maxFileSize))
+                .exceptionally(throwable -> {
+                    logger.error("Something went wrong while exporting the audit log of guild {}", guildId, throwable);
+                    hook.sendMessage(resource.getString("command.export.error.failed")).queue();
+                    return null;
+                });
+    }
+
+    private static void upload(@NotNull final InteractionHook hook, @NotNull final Messages resource, @NotNull final AuditLogExporter.Export export,
+                               @NotNull final String fileName, final long maxFileSize) {
+        try {
+            if (Files.size(export.file()) > maxFileSize) {
+                deleteFile(export.file());
+                hook.sendMessage(resource.getString("command.export.error.too-large")).queue();
+                return;
+            }
+        } catch (final IOException e) {
+            deleteFile(export.file());
+            throw new UncheckedIOException(e);
+        }
+
+        hook.sendMessage(resource.format("command.export.success", export.entries()))
+                .addFile(export.file().toFile(), fileName)
+                .queue(message -> deleteFile(export.file()), throwable -> {
+                    logger.error("Something went wrong while uploading the audit log export {}", fileName, throwable);
+                    deleteFile(export.file());
+                });
+    }
+
+    private static void deleteFile(@NotNull final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            logger.warn("Couldn't delete the audit log export {}", file, e);
+        }
+    }
+}
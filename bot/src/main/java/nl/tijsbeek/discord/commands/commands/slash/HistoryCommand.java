@@ -0,0 +1,154 @@
+package nl.tijsbeek.discord.commands.commands.slash;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import nl.tijsbeek.database.databases.AuditLogDatabase;
+import nl.tijsbeek.database.databases.AuditLogPage;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
+import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
+import nl.tijsbeek.discord.commands.abstractions.ComponentIdMode;
+import nl.tijsbeek.utils.EmbedUtils;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shows the audit log entries of an user within the guild, newest first.
+ * <br/>
+ * Pages are retrieved using the cursor of the previous page, which is kept in the stateless ID of the "next" button.
+ */
+public final class HistoryCommand extends AbstractSlashCommand {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryCommand.class);
+
+    private static final String USER_OPTION = "user";
+    private static final String NEXT_BUTTON = "next";
+    private static final String LAST_PAGE_BUTTON = "last";
+
+    /**
+     * Reasons can be 500 characters long, more entries per page could exceed the description limit.
+     */
+    private static final int PAGE_SIZE = 5;
+    private static final int BUTTON_EXPIRE_MINUTES = 15;
+
+    public HistoryCommand() {
+        super(Commands.slash("history", "Shows the moderation history of an user"), InteractionCommandVisibility.GUILD_ONLY);
+
+        getData().addOption(OptionType.USER, USER_OPTION, "The user to show the history of, ID is valid as well", true);
+
+        addRequiredUserPermission(Permission.MODERATE_MEMBERS);
+        setComponentIdMode(ComponentIdMode.STATELESS);
+    }
+
+    @Override
+    public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
+
+        User target = event.getOption(USER_OPTION, OptionMapping::getAsUser);
+        long guildId = event.getGuild().getIdLong();
+
+        retrievePage(guildId, target.getIdLong(), null)
+                .thenAccept(page -> event.replyEmbeds(createEmbed(resource, event.getMember(), target.getIdLong(), page, 1))
+                        .addActionRow(createNextButton(resource, target.getIdLong(), page, 1))
+                        .setEphemeral(true)
+                        .queue())
+                .exceptionally(throwable -> {
+                    logger.error("Something went wrong while retrieving the history of {} in guild {}", target.getId(), guildId, throwable);
+                    event.reply(resource.getString("command.history.error.failed")).setEphemeral(true).queue();
+                    return null;
+                });
+    }
+
+    @Override
+    public void onButtonInteraction(@NotNull final ButtonInteractionEvent event) {
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
+        List<String> argumentsComponent = getArgumentsComponent(event);
+
+        if (!NEXT_BUTTON.equals(argumentsComponent.get(0))) {
+            throw new IllegalStateException("Unknown button press");
+        }
+
+        long targetId = Long.parseLong(argumentsComponent.get(1));
+        int pageNumber = Integer.parseInt(argumentsComponent.get(2)) + 1;
+        AuditLogPage.Cursor cursor = AuditLogPage.Cursor.fromString(argumentsComponent.get(3));
+
+        if (null == cursor) {
+            throw new IllegalStateException("Invalid cursor " + argumentsComponent.get(3));
+        }
+
+        long guildId = event.getGuild().getIdLong();
+
+        retrievePage(guildId, targetId, cursor)
+                .thenAccept(page -> event.editMessageEmbeds(createEmbed(resource, event.getMember(), targetId, page, pageNumber))
+                        .setActionRow(createNextButton(resource, targetId, page, pageNumber))
+                        .queue())
+                .exceptionally(throwable -> {
+                    logger.error("Something went wrong while retrieving the history of {} in guild {}", targetId, guildId, throwable);
+                    event.reply(resource.getString("command.history.error.failed")).setEphemeral(true).queue();
+                    return null;
+                });
+    }
+
+    @NotNull
+    private CompletableFuture<AuditLogPage> retrievePage(final long guildId, final long targetId, @Nullable final AuditLogPage.Cursor cursor) {
+        AuditLogDatabase auditLogDatabase = database.getAuditLogDatabase();
+
+        return database.async(auditLogDatabase).supply(db -> db.retrievePageByTargetId(guildId, targetId, cursor, PAGE_SIZE));
+    }
+
+    @NotNull
+    private static MessageEmbed createEmbed(@NotNull final Messages resource, @NotNull final Member member, final long targetId,
+                                            @NotNull final AuditLogPage page, final int pageNumber) {
+        EmbedBuilder builder = EmbedUtils.createBuilder(member)
+                .setTitle(resource.format("command.history.title", targetId))
+                .setFooter(resource.format("command.history.page", pageNumber));
+
+        if (page.entries().isEmpty()) {
+            return builder.setDescription(resource.format("command.history.empty", targetId)).build();
+        }
+
+        for (final CustomAuditLogEntry entry : page.entries()) {
+            builder.appendDescription(resource.format("command.history.entry",
+                    entry.caseId(),
+                    entry.type().name().toLowerCase(Locale.ROOT),
+                    entry.creationTime().getEpochSecond(),
+                    entry.author(),
+                    entry.reason()
+            ));
+        }
+
+        return builder.build();
+    }
+
+    @NotNull
+    private Button createNextButton(@NotNull final Messages resource, final long targetId, @NotNull final AuditLogPage page,
+                                    final int pageNumber) {
+        String label = resource.getString("command.history.next");
+
+        if (!page.hasNext()) {
+            return Button.secondary(generateId(LAST_PAGE_BUTTON), label).asDisabled();
+        }
+
+        String id = generateId(LocalDateTime.now().plusMinutes(BUTTON_EXPIRE_MINUTES),
+                NEXT_BUTTON, Long.toString(targetId), Integer.toString(pageNumber), page.nextCursor().asString());
+
+        return Button.primary(id, label);
+    }
+}
@@ -10,18 +10,21 @@ import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import nl.tijsbeek.database.databases.Database;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry.CustomAuditLogEntryBuilder;
 import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
 import nl.tijsbeek.database.tables.GuildSettings;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import nl.tijsbeek.utils.StreamUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.ResourceBundle;
 
 import static nl.tijsbeek.utils.DiscordClientAction.General.USER;
 
@@ -44,7 +47,7 @@ public class ReportSlashCommand extends AbstractSlashCommand {
 
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = handleReportLogChannel(database, event);
 
@@ -75,7 +78,7 @@ public class ReportSlashCommand extends AbstractSlashCommand {
         EmbedBuilder builder = new EmbedBuilder()
                 .setColor(Color.RED)
                 .setTitle(resource.getString("command.report.title"))
-                .setDescription(resource.getString("command.report.message").formatted(
+                .setDescription(resource.format("command.report.message",
                                 reportedUser.getAsMention(), reportedUser.getId(),
                         reporter.getAsMention(), reporter.getId(),
                         attachmentString, reason
@@ -88,10 +91,37 @@ public class ReportSlashCommand extends AbstractSlashCommand {
                                 USER.asLinkButton(resource.getString("command.report.reportee.profile"), reportedUser.getId())
                         )).queue();
 
+        logReport(database, event.getGuild().getIdLong(), reporter.getIdLong(), reportedUser.getIdLong(), reason, attachments);
+
         event.reply(resource.getString("command.report.success")).setEphemeral(true).queue();
     }
 
 
+    /**
+     * Queues the report for the audit log, this doesn't wait on the DB.
+     *
+     * @param database the {@link Database} of the bot
+     * @param guildId the ID of the guild the report was made in
+     * @param reporterId the ID of the reporter
+     * @param reporteeId the ID of the reported user
+     * @param reason the reason of the report
+     * @param attachmentUrls the URLs of the attachments, blank URLs are skipped
+     */
+    public static void logReport(@NotNull final Database database, final long guildId, final long reporterId, final long reporteeId,
+                                 @Nullable final String reason, @NotNull final Collection<String> attachmentUrls) {
+        database.getAuditLogWriter().submit(new CustomAuditLogEntryBuilder()
+                .setGuildId(guildId)
+                .setAuthor(reporterId)
+                .setTarget(reporteeId)
+                .setReason(reason)
+                .setType(CustomAuditLogEntry.Type.REPORT)
+                .setAttachmentUrls(attachmentUrls.stream()
+                        .map(String::strip)
+                        .filter(url -> !url.isEmpty())
+                        .toList())
+                .createAuditLogEntry());
+    }
+
     /**
      * Check or the log channel has been set for reports, if unset it handels the event and returns null.
      *
@@ -101,8 +131,8 @@ public class ReportSlashCommand extends AbstractSlashCommand {
      * @return null or a {@link MessageChannel} to log report to.
      */
     public static @Nullable MessageChannel handleReportLogChannel(@NotNull Database database, @NotNull final IReplyCallback event) {
-        GuildSettings guildSettings = database.getGuildSettingsDatabase().retrieveById(event.getGuild().getIdLong());
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        GuildSettings guildSettings = database.getGuildSettingsCache().retrieveById(event.getGuild().getIdLong());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         MessageChannel messageChannel = event.getJDA().getChannelById(MessageChannel.class, guildSettings.getReportChannelId());
 
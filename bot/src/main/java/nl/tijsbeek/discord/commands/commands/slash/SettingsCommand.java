@@ -12,12 +12,12 @@ import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
 import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
 import nl.tijsbeek.database.tables.GuildSettings;
 import nl.tijsbeek.utils.EmbedUtils;
-import nl.tijsbeek.utils.LocaleHelper;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
-import java.util.ResourceBundle;
 
 public final class SettingsCommand extends AbstractSlashCommand {
 
@@ -59,7 +59,7 @@ public final class SettingsCommand extends AbstractSlashCommand {
     @Contract(pure = true)
     public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
 
-        GuildSettings guildSettings = database.getGuildSettingsDatabase().retrieveById(event.getGuild().getIdLong());
+        GuildSettings guildSettings = database.getGuildSettingsCache().retrieveById(event.getGuild().getIdLong());
 
         switch (event.getSubcommandGroup()) {
             case GET_COMMAND_GROUP -> getSubCommand(event, guildSettings);
@@ -69,7 +69,7 @@ public final class SettingsCommand extends AbstractSlashCommand {
     }
 
     private void setSubCommand(@NotNull final SlashCommandInteractionEvent event, @NotNull final GuildSettings guildSettings) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         String name;
         String newValue;
@@ -89,17 +89,17 @@ public final class SettingsCommand extends AbstractSlashCommand {
         }
 
         EmbedBuilder builder = EmbedUtils.createBuilder(event.getMember())
-                .setTitle(resource.getString("command.settings.set.title").formatted(name))
-                .setDescription(resource.getString("command.settings.set.description").formatted(newValue));
+                .setTitle(resource.format("command.settings.set.title", name))
+                .setDescription(resource.format("command.settings.set.description", newValue));
 
 
-        database.getGuildSettingsDatabase().replace(guildSettings);
+        database.getGuildSettingsCache().replace(guildSettings);
 
         event.replyEmbeds(builder.build()).queue();
     }
 
     private void getSubCommand(@NotNull final SlashCommandInteractionEvent event, @NotNull final GuildSettings guildSettings) {
-        ResourceBundle resource = LocaleHelper.getBotResource(event.getUserLocale());
+        Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
 
         String name;
         String value;
@@ -114,11 +114,8 @@ public final class SettingsCommand extends AbstractSlashCommand {
         }
 
         EmbedBuilder builder = EmbedUtils.createBuilder(event.getMember())
-                .setTitle(resource.getString("command.settings.get.title").formatted(name))
-                .setDescription(resource.getString("command.settings.get.description").formatted(value));
-
-
-        database.getGuildSettingsDatabase().replace(guildSettings);
+                .setTitle(resource.format("command.settings.get.title", name))
+                .setDescription(resource.format("command.settings.get.description", value));
 
         event.replyEmbeds(builder.build()).queue();
     }
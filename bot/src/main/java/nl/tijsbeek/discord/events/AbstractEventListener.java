@@ -3,6 +3,8 @@ package nl.tijsbeek.discord.events;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import nl.tijsbeek.discord.system.execution.EventOrdering;
+import nl.tijsbeek.discord.system.execution.EventOverflowPolicy;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.UnmodifiableView;
 
@@ -16,12 +18,15 @@ import java.util.List;
  * <br/>
  * This implements {@link #getRequiredCacheFlags()} and {@link #getRequiredIntents()} for you, you can give them values using
  * {@link #addRequiredCacheFlags(CacheFlag...)} and {@link #addRequiredIntents(GatewayIntent...)}.
+ * The ordering and overflow policy can be changed with {@link #setEventOrdering(EventOrdering)} and {@link #setEventOverflowPolicy(EventOverflowPolicy)}.
  * <br/>
  * Also offers you many helpers methods from {@link ListenerAdapter}.
  */
 public class AbstractEventListener extends ListenerAdapter implements CustomEventListener {
     private final Collection<GatewayIntent> requiredIntents = new ArrayList<>();
     private final Collection<CacheFlag> requiredCacheFlags = new ArrayList<>();
+    private EventOrdering eventOrdering = EventOrdering.GUILD;
+    private EventOverflowPolicy eventOverflowPolicy = EventOverflowPolicy.BLOCK;
 
     /**
      * Adds the given {@link GatewayIntent GatewayIntents} to a {@link List} that will be returned when calling {@link #getRequiredIntents()}.
@@ -41,6 +46,24 @@ public class AbstractEventListener extends ListenerAdapter implements CustomEven
         requiredCacheFlags.addAll(List.of(cacheFlags));
     }
 
+    /**
+     * Sets the order this listener receives its events in, see {@link #getEventOrdering()}.
+     *
+     * @param eventOrdering the {@link EventOrdering}
+     */
+    protected final void setEventOrdering(@NotNull final EventOrdering eventOrdering) {
+        this.eventOrdering = eventOrdering;
+    }
+
+    /**
+     * Sets what happens with new events when the queue of this listener is full, see {@link #getEventOverflowPolicy()}.
+     *
+     * @param eventOverflowPolicy the {@link EventOverflowPolicy}
+     */
+    protected final void setEventOverflowPolicy(@NotNull final EventOverflowPolicy eventOverflowPolicy) {
+        this.eventOverflowPolicy = eventOverflowPolicy;
+    }
+
     @NotNull
     @Override
     @UnmodifiableView
@@ -54,4 +77,16 @@ public class AbstractEventListener extends ListenerAdapter implements CustomEven
     public Collection<GatewayIntent> getRequiredIntents() {
         return Collections.unmodifiableCollection(requiredIntents);
     }
+
+    @NotNull
+    @Override
+    public EventOrdering getEventOrdering() {
+        return eventOrdering;
+    }
+
+    @NotNull
+    @Override
+    public EventOverflowPolicy getEventOverflowPolicy() {
+        return eventOverflowPolicy;
+    }
 }
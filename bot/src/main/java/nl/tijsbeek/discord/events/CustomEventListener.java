@@ -4,6 +4,8 @@ import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import nl.tijsbeek.discord.system.execution.EventOrdering;
+import nl.tijsbeek.discord.system.execution.EventOverflowPolicy;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.UnmodifiableView;
 
@@ -34,4 +36,28 @@ public interface CustomEventListener extends EventListener {
     @NotNull
     @UnmodifiableView
     Collection<CacheFlag> getRequiredCacheFlags();
+
+    /**
+     * Returns the order this class receives its events in, when listeners are queued.
+     *
+     * @return the {@link EventOrdering}, {@link EventOrdering#GUILD} by default
+     *
+     * @see nl.tijsbeek.discord.system.execution.ListenerQueue
+     */
+    @NotNull
+    default EventOrdering getEventOrdering() {
+        return EventOrdering.GUILD;
+    }
+
+    /**
+     * Returns what happens with new events when the queue of this class is full, when listeners are queued.
+     *
+     * @return the {@link EventOverflowPolicy}, {@link EventOverflowPolicy#BLOCK} by default
+     *
+     * @see nl.tijsbeek.discord.system.execution.ListenerQueue
+     */
+    @NotNull
+    default EventOverflowPolicy getEventOverflowPolicy() {
+        return EventOverflowPolicy.BLOCK;
+    }
 }
\ No newline at end of file
@@ -2,27 +2,86 @@ package nl.tijsbeek.discord.events.listeners;
 
 import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
 import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import nl.tijsbeek.database.cache.GuildSettingsCache;
 import nl.tijsbeek.database.databases.Database;
-import nl.tijsbeek.database.databases.GuildSettingsDatabase;
 import nl.tijsbeek.discord.events.AbstractEventListener;
 import nl.tijsbeek.database.tables.GuildSettings;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes sure every guild has settings.
+ * <br/>
+ * Ready guilds are collected for {@value #BOOTSTRAP_DEBOUNCE_MILLIS} ms, and then bootstrapped in bulk using {@link GuildSettingsCache#bootstrap(java.util.Collection)}.
+ */
 public class GuildSettingsListener extends AbstractEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(GuildSettingsListener.class);
+
+    /**
+     * The time ready guilds are collected for, before they're bootstrapped.
+     */
+    private static final long BOOTSTRAP_DEBOUNCE_MILLIS = 2_000;
+
+    private final GuildSettingsCache guildSettingsCache;
 
-    private final GuildSettingsDatabase database;
+    private final Set<Long> pendingGuildIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean bootstrapScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService bootstrapScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GuildSettings-bootstrap");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public GuildSettingsListener(@NotNull final Database database) {
-        this.database = database.getGuildSettingsDatabase();
+        this.guildSettingsCache = database.getGuildSettingsCache();
     }
 
     @Override
     public void onGuildReady(@NotNull final GuildReadyEvent event) {
-        database.insert(new GuildSettings(event.getGuild().getIdLong()));
+        long guildId = event.getGuild().getIdLong();
+
+        if (guildSettingsCache.contains(guildId)) {
+            return;
+        }
+
+        pendingGuildIds.add(guildId);
+
+        if (bootstrapScheduled.compareAndSet(false, true)) {
+            bootstrapScheduler.schedule(this::bootstrapPending, BOOTSTRAP_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void onGuildJoin(@NotNull final GuildJoinEvent event) {
-        database.insert(new GuildSettings(event.getGuild().getIdLong()));
+        guildSettingsCache.insert(new GuildSettings(event.getGuild().getIdLong()));
+    }
+
+    private void bootstrapPending() {
+        // guilds that get ready from now on schedule a new bootstrap
+        bootstrapScheduled.set(false);
+
+        List<Long> guildIds = List.copyOf(pendingGuildIds);
+        pendingGuildIds.removeAll(guildIds);
+
+        try {
+            guildSettingsCache.bootstrap(guildIds);
+        } catch (final RuntimeException e) {
+            logger.error("Something went wrong while bootstrapping the settings of {} guilds, retrying.", guildIds.size(), e);
+
+            pendingGuildIds.addAll(guildIds);
+
+            if (bootstrapScheduled.compareAndSet(false, true)) {
+                bootstrapScheduler.schedule(this::bootstrapPending, BOOTSTRAP_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 }
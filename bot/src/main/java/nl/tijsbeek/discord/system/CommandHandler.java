@@ -15,34 +15,45 @@ import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.SelectMenuInteractionEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.Interaction;
+import net.dv8tion.jda.api.interactions.InteractionType;
+import net.dv8tion.jda.api.interactions.callbacks.IAutoCompleteCallback;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.CommandInteraction;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.components.*;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.interactions.components.selections.SelectMenu;
-import nl.tijsbeek.database.databases.ComponentDatabase;
+import net.dv8tion.jda.api.utils.PermissionUtil;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.components.ComponentRegistry;
 import nl.tijsbeek.database.databases.Database;
 import nl.tijsbeek.discord.commands.*;
 import nl.tijsbeek.discord.commands.abstractions.AbstractInteractionCommand;
+import nl.tijsbeek.discord.system.execution.CommandExecutorMode;
+import nl.tijsbeek.discord.system.execution.FairInteractionScheduler;
+import nl.tijsbeek.discord.system.execution.VirtualThreadExecutor;
 import nl.tijsbeek.database.tables.ComponentEntity;
 import nl.tijsbeek.prometheus.Metrics;
-import nl.tijsbeek.prometheus.MetricsHandler;
+import nl.tijsbeek.prometheus.CommandMetrics;
 import nl.tijsbeek.utils.EmbedUtils;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
 import nl.tijsbeek.utils.StreamUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -54,18 +65,32 @@ import java.util.stream.Stream;
  * All commands have to be added to {@link ListenersList}, otherwise they will be ignored.
  */
 public class CommandHandler extends ListenerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(CommandHandler.class);
 
-    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1,
-            Runtime.getRuntime().availableProcessors(),
-            1, TimeUnit.MINUTES,
-            new ArrayBlockingQueue<>(64),
-            new CommandHandlerThreadFactory()
-    );
+    /**
+     * The maximum amount of interactions a single guild can have queued.
+     */
+    private static final int GUILD_INTERACTION_BUDGET = 16;
+
+    /**
+     * Discord gives up on autocomplete responses after 3 seconds, this leaves some room for the response itself.
+     */
+    private static final long AUTOCOMPLETE_DEADLINE_NANOS = TimeUnit.MILLISECONDS.toNanos(2_500);
+
+    /**
+     * The part of the max concurrency given to the low-latency lane, autocomplete responses are short so a quarter is plenty.
+     */
+    private static final int LOW_LATENCY_CONCURRENCY_DIVISOR = 4;
+
+    private final Executor executor;
+    private final FairInteractionScheduler scheduler;
+    private final Executor lowLatencyExecutor;
+    private final FairInteractionScheduler lowLatencyScheduler;
 
-    private final ComponentDatabase componentDatabase;
-    private final Map<String, SlashCommand> nameToSlashCommandCommand;
-    private final Map<String, UserContextCommand> nameToUserContextCommand;
-    private final Map<String, MessageContextCommand> nameToMessageContextCommand;
+    private final ComponentRegistry componentRegistry;
+    private final Map<String, RegisteredCommand<SlashCommand>> nameToSlashCommandCommand;
+    private final Map<String, RegisteredCommand<UserContextCommand>> nameToUserContextCommand;
+    private final Map<String, RegisteredCommand<MessageContextCommand>> nameToMessageContextCommand;
 
     private final List<InteractionCommand> commands;
 
@@ -75,9 +100,24 @@ public class CommandHandler extends ListenerAdapter {
      *
      * @param database      the {@link Database}
      * @param listenersList the {@link ListenersList} which contains all commands
+     * @param config        the {@link Config}, used to create the executor
+     *
+     * @see CommandExecutorMode
      */
-    public CommandHandler(@NotNull final Database database, @NotNull final ListenersList listenersList) {
-        componentDatabase = database.getComponentDatabase();
+    public CommandHandler(@NotNull final Database database, @NotNull final ListenersList listenersList, @NotNull final Config config) {
+        CommandExecutorMode executorMode = CommandExecutorMode.byName(config.getCommandExecutorMode());
+        int maxConcurrency = executorMode.resolveMaxConcurrency(config.getCommandExecutorMaxConcurrency());
+
+        // the lanes share the configured max concurrency, both get at least 1
+        int lowLatencyConcurrency = Math.max(1, maxConcurrency / LOW_LATENCY_CONCURRENCY_DIVISOR);
+        int defaultConcurrency = Math.max(1, maxConcurrency - lowLatencyConcurrency);
+
+        executor = executorMode.create("CommandHandler", defaultConcurrency);
+        scheduler = new FairInteractionScheduler("default", executor, defaultConcurrency, GUILD_INTERACTION_BUDGET);
+
+        lowLatencyExecutor = executorMode.create("CommandHandler-low-latency", lowLatencyConcurrency);
+        lowLatencyScheduler = new FairInteractionScheduler("low-latency", lowLatencyExecutor, lowLatencyConcurrency, GUILD_INTERACTION_BUDGET);
+        componentRegistry = database.getComponentRegistry();
 
         commands = listenersList.getCommands().stream()
                 .peek(command -> {
@@ -86,9 +126,9 @@ public class CommandHandler extends ListenerAdapter {
                     }
                 }).toList();
 
-        nameToSlashCommandCommand = filterCommandsToMap(SlashCommand.class, commands.stream());
-        nameToUserContextCommand = filterCommandsToMap(UserContextCommand.class, commands.stream());
-        nameToMessageContextCommand = filterCommandsToMap(MessageContextCommand.class, commands.stream());
+        nameToSlashCommandCommand = filterCommandsToMap(SlashCommand.class, Command.Type.SLASH, commands.stream());
+        nameToUserContextCommand = filterCommandsToMap(UserContextCommand.class, Command.Type.USER, commands.stream());
+        nameToMessageContextCommand = filterCommandsToMap(MessageContextCommand.class, Command.Type.MESSAGE, commands.stream());
     }
 
     @Override
@@ -180,41 +220,118 @@ public class CommandHandler extends ListenerAdapter {
 
     /**
      * Filters and maps the given {@link Stream} of {@link InteractionCommand} into {@link T}, which gets converted into a {@link Map}
-     * where the key is the {@link InteractionCommand#getName()}, and the value is the {@link InteractionCommand}.
+     * where the key is the {@link InteractionCommand#getName()}, and the value is the {@link RegisteredCommand}.
      *
      * @param clazz    the {@link Class} to cast to
+     * @param type     the {@link Command.Type} of the commands, used for their metrics
      * @param commands the {@link Stream} to filter and map
      * @param <T>      the {@link InteractionCommand} type, like {@link SlashCommand} and {@link UserContextCommand}
-     * @return a {@link Map} of {@link InteractionCommand#getName()} and {@link T}
+     * @return a {@link Map} of {@link InteractionCommand#getName()} and {@link RegisteredCommand}
      */
-    private static <T extends InteractionCommand> Map<String, T> filterCommandsToMap(final @NotNull Class<? extends T> clazz, @NotNull final Stream<? super T> commands) {
-        return streamToMap(commands
+    private static <T extends InteractionCommand> Map<String, RegisteredCommand<T>> filterCommandsToMap(final @NotNull Class<? extends T> clazz, @NotNull final Command.Type type,
+                                                                                                    @NotNull final Stream<? super T> commands) {
+        return streamToMap(type, commands
                 .filter(clazz::isInstance)
                 .map(clazz::cast));
     }
 
     /**
-     * Collects the Stream of {@link InteractionCommand} into a Map where the key is {@link InteractionCommand#getName()} and the value is {@link T}.
+     * Collects the Stream of {@link InteractionCommand} into a Map where the key is {@link InteractionCommand#getName()}
+     * and the value is the {@link RegisteredCommand} of {@link T}.
      *
+     * @param type     the {@link Command.Type} of the commands, used for their metrics
      * @param commands the {@link Stream} to collect
      * @param <T>      the {@link InteractionCommand} type, like {@link SlashCommand} and {@link UserContextCommand}
-     * @return a {@link Map} of {@link InteractionCommand#getName()} and {@link T}
+     * @return a {@link Map} of {@link InteractionCommand#getName()} and {@link RegisteredCommand}
+     */
+    private static <T extends InteractionCommand> Map<String, RegisteredCommand<T>> streamToMap(@NotNull final Command.Type type,
+                                                                                                @NotNull final Stream<? extends T> commands) {
+        return commands.collect(Collectors.toMap(InteractionCommand::getName, command -> RegisteredCommand.<T>of(command, type)));
+    }
+
+    /**
+     * Queues the given task in the default lane, in the sub-queue of the interaction's guild.
+     * <br/>
+     * When the guild is over its budget, the task won't run and the user gets an ephemeral "busy" reply instead.
+     *
+     * @param interaction the {@link Interaction} the task handles
+     * @param task        the task to run
+     *
+     * @see FairInteractionScheduler#submit(long, InteractionType, Runnable, long)
+     * @see #dispatchLowLatency(Interaction, Runnable, long)
+     */
+    private void dispatch(@NotNull final Interaction interaction, @NotNull final Runnable task) {
+        if (!scheduler.submit(getGuildKey(interaction), interaction.getType(), task, Long.MAX_VALUE)) {
+            replyBusy(interaction);
+        }
+    }
+
+    /**
+     * Queues the given task in the low-latency lane, this lane is reserved for autocomplete, which Discord only waits 3 seconds on.
+     * <br/>
+     * When the guild is over its budget, the task won't run and the user gets an ephemeral "busy" reply instead.
+     *
+     * @param interaction the {@link Interaction} the task handles
+     * @param task        the task to run
+     * @param timeout     the nanoseconds after which the task gets dropped, {@link Long#MAX_VALUE} for none
+     *
+     * @see FairInteractionScheduler#submit(long, InteractionType, Runnable, long)
+     * @see #dispatch(Interaction, Runnable)
+     */
+    private void dispatchLowLatency(@NotNull final Interaction interaction, @NotNull final Runnable task, final long timeout) {
+        long deadline = Long.MAX_VALUE == timeout ? Long.MAX_VALUE : System.nanoTime() + timeout;
+
+        if (!lowLatencyScheduler.submit(getGuildKey(interaction), interaction.getType(), task, deadline)) {
+            replyBusy(interaction);
+        }
+    }
+
+    /**
+     * Returns the key of the interaction's sub-queue, the guild's ID or {@link FairInteractionScheduler#DIRECT_MESSAGES_KEY}.
+     *
+     * @param interaction the {@link Interaction}
+     *
+     * @return the key of the sub-queue
      */
-    private static <T extends InteractionCommand> Map<String, T> streamToMap(@NotNull final Stream<? extends T> commands) {
-        return commands.collect(Collectors.toMap(InteractionCommand::getName, Function.identity()));
+    private static long getGuildKey(@NotNull final Interaction interaction) {
+        Guild guild = interaction.getGuild();
+
+        return null == guild ? FairInteractionScheduler.DIRECT_MESSAGES_KEY : guild.getIdLong();
     }
 
     /**
-     * Forwards the given {@link SelectMenu} to the correct command, if the {@link SelectMenu} is expired the {@link SelectMenu} will get disabled.
+     * Replies to the given {@link Interaction} telling the user to try again later.
+     *
+     * @param interaction the {@link Interaction} to reply to
+     */
+    private static void replyBusy(@NotNull final Interaction interaction) {
+        if (interaction instanceof IReplyCallback replyCallback) {
+            Messages resource = MessageCatalog.getBotMessages(interaction.getUserLocale());
+
+            replyCallback.reply(resource.getString("interaction.busy")).setEphemeral(true).queue();
+        } else if (interaction instanceof IAutoCompleteCallback autoCompleteCallback) {
+            autoCompleteCallback.replyChoices(List.of()).queue();
+        }
+    }
+
+    /**
+     * Forwards the given {@link SelectMenu} to the correct command, if the {@link SelectMenu} is expired or unknown the {@link SelectMenu} will get disabled.
      *
      * @param event the {@link SelectMenuInteractionEvent} to forward
      */
     @Override
     public void onSelectMenuInteraction(@NotNull final SelectMenuInteractionEvent event) {
-        executor.execute(() -> {
+        dispatch(event, () -> {
             String id = event.getComponentId();
 
-            ComponentEntity componentEntity = componentDatabase.retrieveById(id);
+            ComponentEntity componentEntity = componentRegistry.retrieveById(id);
+
+            if (null == componentEntity) {
+                // swept after it expired, or tampered with
+                logger.debug("Disabling the components of an interaction with an unknown component ID {}", id);
+                expireComponentsMessage(event);
+                return;
+            }
 
             String listenerId = getCommandNameByComponentEntity(componentEntity);
             Metrics.GENERIC_COMPONENTS.labels("selectmenu", listenerId).inc();
@@ -223,6 +340,11 @@ public class CommandHandler extends ListenerAdapter {
             } else {
                 InteractionCommand command = commandByNameAndType(componentEntity);
 
+                if (null == command) {
+                    expireOrphanedComponent(event, componentEntity);
+                    return;
+                }
+
                 Metrics.GENERIC_COMPONENT_INVOCATION_DURATION.labels("selectmenu", listenerId).time(() -> {
                     command.onSelectMenuInteraction(event);
                 });
@@ -240,31 +362,53 @@ public class CommandHandler extends ListenerAdapter {
         return commandId.substring(commandId.indexOf('-'));
     }
 
-    private InteractionCommand commandByNameAndType(@NotNull final ComponentEntity componentEntity) {
+    /**
+     * Returns the command the component belongs to, based on the type and name in its listener ID.
+     * <br/>
+     * This is package-private so the benchmarks can call it.
+     *
+     * @param componentEntity the {@link ComponentEntity} of the component
+     * @return the {@link InteractionCommand}, or null when no command has that name, or the listener ID is missing or malformed
+     */
+    InteractionCommand commandByNameAndType(@NotNull final ComponentEntity componentEntity) {
         String commandId = componentEntity.getListenerId();
 
-        int type = Integer.parseInt(commandId.split("-")[0]);
-        String commandName = commandId.substring(commandId.indexOf('-') + 1);
+        // the ComponentSweeper deletes these, until then they can still be clicked
+        int separator = null == commandId ? -1 : commandId.indexOf('-');
+        if (-1 == separator) {
+            return null;
+        }
+
+        String commandName = commandId.substring(separator + 1);
 
-        return switch (type) {
-            case 1 -> nameToSlashCommandCommand.get(commandName);
-            case 2 -> nameToMessageContextCommand.get(commandName);
-            case 3 -> nameToUserContextCommand.get(commandName);
-            default -> throw new IllegalStateException("Unexpected value: " + type);
+        RegisteredCommand<?> registeredCommand = switch (commandId.substring(0, separator)) {
+            case "1" -> nameToSlashCommandCommand.get(commandName);
+            case "2" -> nameToMessageContextCommand.get(commandName);
+            case "3" -> nameToUserContextCommand.get(commandName);
+            default -> null;
         };
+
+        return null == registeredCommand ? null : registeredCommand.command();
     }
 
     /**
-     * Forwards the given {@link Button} to the correct command, if the {@link Button} is expired the {@link Button} will get disabled.
+     * Forwards the given {@link Button} to the correct command, if the {@link Button} is expired or unknown the {@link Button} will get disabled.
      *
      * @param event the {@link ButtonInteractionEvent} to forward
      */
     @Override
     public void onButtonInteraction(@NotNull final ButtonInteractionEvent event) {
-        executor.execute(() -> {
+        dispatch(event, () -> {
             String id = event.getComponentId();
 
-            ComponentEntity componentEntity = componentDatabase.retrieveById(id);
+            ComponentEntity componentEntity = componentRegistry.retrieveById(id);
+
+            if (null == componentEntity) {
+                // swept after it expired, or tampered with
+                logger.debug("Disabling the components of an interaction with an unknown component ID {}", id);
+                expireComponentsMessage(event);
+                return;
+            }
 
             String effectiveListenerId = getCommandNameByComponentEntity(componentEntity);
             Metrics.GENERIC_COMPONENTS.labels("button", effectiveListenerId).inc();
@@ -274,11 +418,14 @@ public class CommandHandler extends ListenerAdapter {
             } else {
                 InteractionCommand command = commandByNameAndType(componentEntity);
 
-                if (command != null) {
-                    Metrics.GENERIC_COMPONENT_INVOCATION_DURATION.labels("button", command.getName()).time(() -> {
-                        command.onButtonInteraction(event);
-                    });
+                if (null == command) {
+                    expireOrphanedComponent(event, componentEntity);
+                    return;
                 }
+
+                Metrics.GENERIC_COMPONENT_INVOCATION_DURATION.labels("button", command.getName()).time(() -> {
+                    command.onButtonInteraction(event);
+                });
             }
         });
     }
@@ -290,29 +437,58 @@ public class CommandHandler extends ListenerAdapter {
      */
     @Override
     public void onModalInteraction(@NotNull final ModalInteractionEvent event) {
-        executor.execute(() -> {
+        dispatch(event, () -> {
             String id = event.getModalId();
 
-            ComponentEntity componentEntity = componentDatabase.retrieveById(id);
+            ComponentEntity componentEntity = componentRegistry.retrieveById(id);
+
+            if (null == componentEntity) {
+                // swept after it expired, or tampered with
+                logger.debug("Replying to a modal with an unknown component ID {}", id);
+
+                Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
+                event.reply(resource.getString("interaction.expired")).setEphemeral(true).queue();
+                return;
+            }
 
             String effectiveListenerId = getCommandNameByComponentEntity(componentEntity);
             Metrics.GENERIC_MODALS.labels(effectiveListenerId).inc();
 
             InteractionCommand command = commandByNameAndType(componentEntity);
 
-            if (command != null) {
+            if (null == command) {
+                logger.debug("Replying to a modal with the unknown listener ID {}", componentEntity.getListenerId());
+
+                Messages resource = MessageCatalog.getBotMessages(event.getUserLocale());
+                event.reply(resource.getString("interaction.expired")).setEphemeral(true).queue();
+            } else {
                 Metrics.GENERIC_MODAL_INVOCATION_DURATION.labels(effectiveListenerId).time(() -> {
                     command.onModalInteraction(event);
                 });
             }
 
-            componentDatabase.deleteById(id);
+            componentRegistry.deleteById(id);
         });
     }
 
 
     /**
-     * Checks the message's components, and disables them when they are expired.
+     * Deletes a component whose command no longer exists, and disables it like an expired component.
+     *
+     * @param event the {@link ComponentInteraction} to reply to
+     * @param componentEntity the {@link ComponentEntity} of the component
+     */
+    private void expireOrphanedComponent(@NotNull final ComponentInteraction event, @NotNull final ComponentEntity componentEntity) {
+        logger.debug("Disabling the components of an interaction with the unknown listener ID {}", componentEntity.getListenerId());
+
+        componentRegistry.deleteById(componentEntity.getId());
+        expireComponentsMessage(event);
+    }
+
+    /**
+     * Checks the message's components, and disables them when they are expired or unknown.
+     * <br/>
+     * Components are unknown once the {@link nl.tijsbeek.database.components.ComponentSweeper} deleted them after they expired.
      *
      * @param event the {@link ComponentInteraction} to reply to
      */
@@ -329,7 +505,7 @@ public class CommandHandler extends ListenerAdapter {
     }
 
     /**
-     * Disables the component if it's expired.
+     * Disables the component if it's expired, or unknown.
      *
      * @param component the {@link ItemComponent} to check
      * @return itself, or itself as disabled
@@ -344,13 +520,15 @@ public class CommandHandler extends ListenerAdapter {
             return component;
         }
 
-        ComponentEntity componentEntity = componentDatabase.retrieveById(actionComponent.getId());
+        ComponentEntity componentEntity = componentRegistry.retrieveById(actionComponent.getId());
 
-        if (!componentEntity.isExpired()) {
-            return component;
-        }
+        if (null != componentEntity) {
+            if (!componentEntity.isExpired()) {
+                return component;
+            }
 
-        componentDatabase.deleteById(componentEntity.getId());
+            componentRegistry.deleteById(componentEntity.getId());
+        }
 
         if (component instanceof Button button) {
             return button.asDisabled();
@@ -369,15 +547,30 @@ public class CommandHandler extends ListenerAdapter {
      */
     @Override
     public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
-        executor.execute(() -> {
-            if (checkCanRunGeneralCommand(nameToSlashCommandCommand, event)) {
-                SlashCommand command = nameToSlashCommandCommand.get(event.getName());
+        // commands acknowledge the interaction themselves, with a reply, modal or deferral, so the whole command runs in the default lane
+        dispatch(event, () -> handleSlashCommand(event));
+    }
 
-                MetricsHandler.runInvocationCommandTimer(event, () -> {
-                    command.onSlashCommandInteraction(event);
-                });
+    /**
+     * Looks up the command of the given {@link SlashCommandInteractionEvent}, checks whenever it can run, and runs it on the current thread.
+     * <br/>
+     * This is package-private so the benchmarks can call it without the executor.
+     *
+     * @param event the {@link SlashCommandInteractionEvent} to forward
+     */
+    void handleSlashCommand(@NotNull final SlashCommandInteractionEvent event) {
+        RegisteredCommand<SlashCommand> command = findGeneralCommand(nameToSlashCommandCommand, event);
+
+        if (checkCanRunGeneralCommand(command, event)) {
+            long start = System.nanoTime();
+
+            // observed in a finally, so failing invocations show up in the latency as well
+            try {
+                command.command().onSlashCommandInteraction(event);
+            } finally {
+                command.metrics().observeInvocation(start);
             }
-        });
+        }
     }
 
     /**
@@ -387,19 +580,23 @@ public class CommandHandler extends ListenerAdapter {
      */
     @Override
     public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
-        executor.execute(() -> {
-            SlashCommand command = nameToSlashCommandCommand.get(event.getName());
+        dispatchLowLatency(event, () -> {
+            RegisteredCommand<SlashCommand> command = nameToSlashCommandCommand.get(event.getName());
 
             if (null == command) {
                 throw new IllegalStateException("Autocomplete, with the command %s wasn't found! Something went extremely wrong.".formatted(event.getName()));
             }
 
+            CommandMetrics.AutocompleteMetrics metrics = command.metrics().getAutocompleteMetrics(event.getFocusedOption().getName());
 
-            Metrics.Commands.AUTOCOMPLETES.labels(event.getName(), event.getFocusedOption().getName());
-            Metrics.Commands.AUTOCOMPLETE_INVOCATION_DURATION.labels(event.getName(), event.getFocusedOption().getName()).time(() -> {
-                command.onCommandAutoCompleteInteractionEvent(event);
-            });
-        });
+            long start = System.nanoTime();
+
+            try {
+                command.command().onCommandAutoCompleteInteractionEvent(event);
+            } finally {
+                metrics.observe(start);
+            }
+        }, AUTOCOMPLETE_DEADLINE_NANOS);
     }
 
 
@@ -410,13 +607,17 @@ public class CommandHandler extends ListenerAdapter {
      */
     @Override
     public void onUserContextInteraction(@NotNull final UserContextInteractionEvent event) {
-        executor.execute(() -> {
-            if (checkCanRunGeneralCommand(nameToUserContextCommand, event)) {
-                UserContextCommand command = nameToUserContextCommand.get(event.getName());
+        dispatch(event, () -> {
+            RegisteredCommand<UserContextCommand> command = findGeneralCommand(nameToUserContextCommand, event);
 
-                MetricsHandler.runInvocationCommandTimer(event, () -> {
-                    command.onUserContextInteraction(event);
-                });
+            if (checkCanRunGeneralCommand(command, event)) {
+                long start = System.nanoTime();
+
+                try {
+                    command.command().onUserContextInteraction(event);
+                } finally {
+                    command.metrics().observeInvocation(start);
+                }
             }
         });
     }
@@ -428,48 +629,71 @@ public class CommandHandler extends ListenerAdapter {
      */
     @Override
     public void onMessageContextInteraction(@NotNull final MessageContextInteractionEvent event) {
-        executor.execute(() -> {
-            if (checkCanRunGeneralCommand(nameToMessageContextCommand, event)) {
-                MessageContextCommand command = nameToMessageContextCommand.get(event.getName());
+        dispatch(event, () -> {
+            RegisteredCommand<MessageContextCommand> command = findGeneralCommand(nameToMessageContextCommand, event);
 
-                MetricsHandler.runInvocationCommandTimer(event, () -> {
-                    command.onMessageContextInteraction(event);
-                });
+            if (checkCanRunGeneralCommand(command, event)) {
+                long start = System.nanoTime();
+
+                try {
+                    command.command().onMessageContextInteraction(event);
+                } finally {
+                    command.metrics().observeInvocation(start);
+                }
             }
         });
     }
 
     /**
-     * Checks whenever the command exists, whenever the user and the bot have the right permission, and possibly more in the future.
+     * Looks up the command of the given {@link CommandInteraction}.
      *
-     * @param nameToCommand the {@link Map} which maps the {@link InteractionCommand#getName()} to the {@link InteractionCommand}
+     * @param nameToCommand the {@link Map} which maps the {@link InteractionCommand#getName()} to the {@link RegisteredCommand}
      * @param event         the {@link CommandInteraction} to reply to on failure
-     * @return whenever the command should/can be run
-     * @see InteractionCommand#getRequiredUserPermission()
-     * @see InteractionCommand#getRequiredBotPermission()
+     * @param <T>           the {@link InteractionCommand} type, like {@link SlashCommand} and {@link UserContextCommand}
+     * @return the {@link RegisteredCommand}
+     * @throws IllegalStateException when no command with the name exists
      */
-    private static boolean checkCanRunGeneralCommand(@NotNull final Map<String, ? extends InteractionCommand> nameToCommand,
-                                                     @NotNull final CommandInteraction event) {
-        MetricsHandler.handleCommandCounter(event);
-        MetricsHandler.HistogramTimerDouble timer = MetricsHandler.getHandlingCommandTimer(event);
-
+    @NotNull
+    private static <T extends InteractionCommand> RegisteredCommand<T> findGeneralCommand(@NotNull final Map<String, RegisteredCommand<T>> nameToCommand,
+                                                                                          @NotNull final CommandInteraction event) {
         String commandName = event.getName();
 
-        InteractionCommand command = nameToCommand.get(commandName);
+        RegisteredCommand<T> command = nameToCommand.get(commandName);
 
         if (null == command) {
             event.reply("Something went wrong.").queue();
             throw new IllegalStateException("%s with the name %s wasn't found! Something went extremely wrong.".formatted(event.getCommandType(), commandName));
         }
 
-        boolean canRun = switch (command.getVisibility()) {
-            case GLOBAL -> checkCanRunGlobalCommand(event, command);
-            case GUILD_ONLY -> checkCanRunGuildOnlyCommand(event, command);
-            case PRIVATE -> checkCanRunPrivateCommand(event, command);
-        };
+        return command;
+    }
 
-        timer.observe();
-        return canRun;
+    /**
+     * Checks whenever the user and the bot have the right permission, and possibly more in the future.
+     * <br/>
+     * This counts the invocation, and observes the time the checks took in the command's {@link CommandMetrics}.
+     *
+     * @param command the {@link RegisteredCommand} to check
+     * @param event   the {@link CommandInteraction} to reply to on failure
+     * @return whenever the command should/can be run
+     * @see InteractionCommand#getRequiredUserPermission()
+     * @see InteractionCommand#getRequiredBotPermission()
+     */
+    private static boolean checkCanRunGeneralCommand(@NotNull final RegisteredCommand<?> command,
+                                                     @NotNull final CommandInteraction event) {
+        CommandMetrics metrics = command.metrics();
+        metrics.countInvocation();
+        long start = System.nanoTime();
+
+        try {
+            return switch (command.command().getVisibility()) {
+                case GLOBAL -> checkCanRunGlobalCommand(event, command);
+                case GUILD_ONLY -> checkCanRunGuildOnlyCommand(event, command);
+                case PRIVATE -> checkCanRunPrivateCommand(event, command);
+            };
+        } finally {
+            metrics.observeHandling(start);
+        }
     }
 
     /**
@@ -480,7 +704,7 @@ public class CommandHandler extends ListenerAdapter {
      * @return whenever the command can be run
      */
     @Contract(pure = true)
-    private static boolean checkCanRunGlobalCommand(@NotNull final CommandInteraction event, @NotNull final InteractionCommand command) {
+    private static boolean checkCanRunGlobalCommand(@NotNull final CommandInteraction event, @NotNull final RegisteredCommand<?> command) {
         return true;
     }
 
@@ -492,44 +716,47 @@ public class CommandHandler extends ListenerAdapter {
      * @return whenever the command can be run
      */
     @Contract()
-    private static boolean checkCanRunGuildOnlyCommand(@NotNull final IReplyCallback event, @NotNull final InteractionCommand command) {
-        Collection<Permission> requiredUserPermission = command.getRequiredUserPermission();
-        Collection<Permission> requiredBotPermission = command.getRequiredBotPermission();
-
-        Member member = event.getMember();
-        Member selfMember = event.getGuild().getSelfMember();
+    private static boolean checkCanRunGuildOnlyCommand(@NotNull final IReplyCallback event, @NotNull final RegisteredCommand<?> command) {
         GuildChannel guildChannel = event.getGuildChannel();
 
-        boolean userIsMissingPermissions = checkMissingPermissions(event, member.getPermissions(guildChannel), requiredUserPermission, "You are");
+        // commands without requirements don't need the permissions computed
+        if (0 != command.requiredUserPermissions()) {
+            long userPermissions = PermissionUtil.getEffectivePermission(guildChannel, event.getMember());
 
-        if (userIsMissingPermissions) {
-            return false;
+            if (checkMissingPermissions(event, userPermissions, command.requiredUserPermissions(), "You are")) {
+                return false;
+            }
         }
 
-        //noinspection UnnecessaryLocalVariable
-        boolean botIsNotMissingPermissions = !checkMissingPermissions(event, selfMember.getPermissions(guildChannel), requiredBotPermission, "The bot is");
+        if (0 != command.requiredBotPermissions()) {
+            long botPermissions = PermissionUtil.getEffectivePermission(guildChannel, event.getGuild().getSelfMember());
+
+            return !checkMissingPermissions(event, botPermissions, command.requiredBotPermissions(), "The bot is");
+        }
 
-        return botIsNotMissingPermissions;
+        return true;
     }
 
 
     /**
-     * Whenever the user has the required permissions.
+     * Whenever the user is missing any of the required permissions, if so the missing permissions are replied.
+     * <br/>
+     * The permissions are raw bitmasks, so nothing gets allocated unless permissions are missing.
+     * This is package-private so the benchmarks can call it.
      *
      * @param event               the {@link IReplyCallback} to reply to on failure
-     * @param permissions         the user's permissions in a {@link Collection} of {@link Permission Permissions}
-     * @param requiredPermissions the required permissions in a {@link Collection} of {@link Permission Permissions}
+     * @param permissions         the user's raw permissions, see {@link PermissionUtil#getEffectivePermission(GuildChannel, Member)}
+     * @param requiredPermissions the raw required permissions, see {@link RegisteredCommand}
      * @param user                the user, examples are "You are" and "The bot is"
-     * @return whenever the user has the required permissions
+     * @return whenever the user is missing any of the required permissions
      */
-    private static boolean checkMissingPermissions(@NotNull final IReplyCallback event, @NotNull final Collection<Permission> permissions, @NotNull final Collection<Permission> requiredPermissions, String user) {
-        Collection<Permission> mutableMissingPermissions = new ArrayList<>(requiredPermissions);
-        mutableMissingPermissions.removeAll(permissions);
+    static boolean checkMissingPermissions(@NotNull final IReplyCallback event, final long permissions, final long requiredPermissions, String user) {
+        long missingPermissions = requiredPermissions & ~permissions;
 
-        if (mutableMissingPermissions.isEmpty()) {
+        if (0 == missingPermissions) {
             return false;
         } else {
-            event.replyEmbeds(generateLackingPermissionEmbed(event.getMember(), mutableMissingPermissions, user)).queue();
+            event.replyEmbeds(generateLackingPermissionEmbed(event.getMember(), Permission.getPermissions(missingPermissions), user)).queue();
             return true;
         }
     }
@@ -567,19 +794,50 @@ public class CommandHandler extends ListenerAdapter {
      * @param command the relating {@link InteractionCommand}
      * @return whenever the command can be run
      */
-    private static boolean checkCanRunPrivateCommand(@NotNull final IReplyCallback event, @NotNull final InteractionCommand command) {
+    private static boolean checkCanRunPrivateCommand(@NotNull final IReplyCallback event, @NotNull final RegisteredCommand<?> command) {
         return checkCanRunGuildOnlyCommand(event, command);
     }
 
     /**
-     * The {@link ThreadPoolExecutor} that is being used by the command handler
+     * The {@link Executor} of the default lane, this is either a {@link ThreadPoolExecutor} or a {@link VirtualThreadExecutor}.
+     *
+     * @return the {@link Executor}
      *
-     * @return the {@link ThreadPoolExecutor}
+     * @see CommandExecutorMode
      */
-    public ThreadPoolExecutor getExecutor() {
+    public Executor getExecutor() {
         return executor;
     }
 
+    /**
+     * The {@link Executor} of the low-latency lane, used for autocomplete.
+     *
+     * @return the {@link Executor}
+     *
+     * @see #getExecutor()
+     */
+    public Executor getLowLatencyExecutor() {
+        return lowLatencyExecutor;
+    }
+
+    /**
+     * The {@link FairInteractionScheduler} of the default lane, which runs its tasks on {@link #getExecutor()}.
+     *
+     * @return the {@link FairInteractionScheduler}
+     */
+    public FairInteractionScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * The {@link FairInteractionScheduler} of the low-latency lane, which runs its tasks on {@link #getLowLatencyExecutor()}.
+     *
+     * @return the {@link FairInteractionScheduler}
+     */
+    public FairInteractionScheduler getLowLatencyScheduler() {
+        return lowLatencyScheduler;
+    }
+
     public List<String> getMessageContextCommand() {
         return new ArrayList<>(nameToMessageContextCommand.keySet());
     }
@@ -591,20 +849,4 @@ public class CommandHandler extends ListenerAdapter {
     public List<String> getUserContextCommand() {
         return new ArrayList<>(nameToUserContextCommand.keySet());
     }
-
-
-    private final class CommandHandlerThreadFactory implements ThreadFactory {
-
-        @Contract(pure = true)
-        private CommandHandlerThreadFactory() {
-            super();
-        }
-
-        @NotNull
-        @Override
-        @Contract("_ -> new")
-        public Thread newThread(@NotNull final Runnable r) {
-            return new Thread(r, "CommandHandler-" + executor.getPoolSize());
-        }
-    }
-}
+}
\ No newline at end of file
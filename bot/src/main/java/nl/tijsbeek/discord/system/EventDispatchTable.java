@@ -0,0 +1,159 @@
+package nl.tijsbeek.discord.system;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import nl.tijsbeek.discord.events.CustomEventListener;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Routes events only to the {@link CustomEventListener CustomEventListeners} that handle them.
+ * <br/>
+ * When created, the event types of every listener are compiled from the {@link ListenerAdapter} methods it overrides,
+ * {@code onGuildJoin(GuildJoinEvent)} for example makes it handle {@link net.dv8tion.jda.api.events.guild.GuildJoinEvent} and its subclasses.
+ * Listeners that don't extend {@link ListenerAdapter}, or override {@code onGenericEvent}, handle every event.
+ * <br/>
+ * The listeners of an event class are resolved the first time it's routed, from then on it's a single map lookup.
+ * <br/>
+ * Events are routed to the target of a listener, the listener itself or its {@link nl.tijsbeek.discord.system.execution.ListenerQueue}.
+ */
+final class EventDispatchTable {
+    private static final EventListener[] NO_LISTENERS = new EventListener[0];
+
+    private final List<ListenerEventTypes> listeners;
+    private final Map<Class<?>, EventListener[]> listenersByEventClass = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles the event types of the given listeners.
+     *
+     * @param listeners the {@link CustomEventListener CustomEventListeners} to route to
+     * @param targets creates the {@link EventListener} the events of a listener are given to
+     */
+    EventDispatchTable(@NotNull final List<? extends CustomEventListener> listeners,
+                       @NotNull final Function<? super CustomEventListener, ? extends EventListener> targets) {
+        this.listeners = listeners.stream()
+                .map(listener -> new ListenerEventTypes(listener, targets.apply(listener), eventTypesOf(listener.getClass())))
+                .toList();
+    }
+
+    /**
+     * Returns the targets of the listeners which handle events of the given class, in the order they were given.
+     *
+     * @param eventClass the class of the event
+     *
+     * @return an array of the targets, empty when no listener handles it
+     */
+    @NotNull
+    EventListener @NotNull [] getListeners(@NotNull final Class<? extends GenericEvent> eventClass) {
+        EventListener[] eventListeners = listenersByEventClass.get(eventClass);
+
+        if (null == eventListeners) {
+            eventListeners = listenersByEventClass.computeIfAbsent(eventClass, this::resolveListeners);
+        }
+
+        return eventListeners;
+    }
+
+    @NotNull
+    private EventListener @NotNull [] resolveListeners(@NotNull final Class<?> eventClass) {
+        EventListener[] eventListeners = listeners.stream()
+                .filter(listener -> listener.handles(eventClass))
+                .map(ListenerEventTypes::target)
+                .toArray(EventListener[]::new);
+
+        return 0 == eventListeners.length ? NO_LISTENERS : eventListeners;
+    }
+
+    /**
+     * Returns the event types the given listener class overrides a {@link ListenerAdapter} method of.
+     *
+     * @param listenerClass the class of the listener
+     *
+     * @return a {@link Set} of event types, which contains {@link GenericEvent} when it handles every event
+     */
+    @NotNull
+    private static Set<Class<?>> eventTypesOf(@NotNull final Class<?> listenerClass) {
+        if (!ListenerAdapter.class.isAssignableFrom(listenerClass)) {
+            return Set.of(GenericEvent.class);
+        }
+
+        Set<Class<?>> eventTypes = new HashSet<>();
+
+        for (Class<?> current = listenerClass; ListenerAdapter.class != current; current = current.getSuperclass()) {
+            for (final Method method : current.getDeclaredMethods()) {
+                if (overridesListenerAdapter(method)) {
+                    eventTypes.add(method.getParameterTypes()[0]);
+                }
+            }
+        }
+
+        return Set.copyOf(eventTypes);
+    }
+
+    @Contract(pure = true)
+    private static boolean overridesListenerAdapter(@NotNull final Method method) {
+        if (method.isSynthetic() || Modifier.isStatic(method.getModifiers()) || 1 != method.getParameterCount()
+                || !GenericEvent.class.isAssignableFrom(method.getParameterTypes()[0])) {
+            return false;
+        }
+
+        try {
+            ListenerAdapter.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "EventDispatchTable{" +
+                "listeners=" + listeners +
+                ", eventClasses=" + listenersByEventClass.size() +
+                '}';
+    }
+
+    /**
+     * A listener with the event types it handles.
+     *
+     * @param listener the listener
+     * @param target the {@link EventListener} its events are given to
+     * @param eventTypes the event types it handles, see {@link #eventTypesOf(Class)}
+     */
+    private record ListenerEventTypes(@NotNull CustomEventListener listener, @NotNull EventListener target,
+                                      @NotNull Set<Class<?>> eventTypes) {
+
+        @Contract(pure = true)
+        boolean handles(@NotNull final Class<?> eventClass) {
+            for (final Class<?> eventType : eventTypes) {
+                if (eventType.isAssignableFrom(eventClass)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @NonNls
+        @NotNull
+        @Override
+        @Contract(pure = true)
+        public String toString() {
+            return listener.getClass().getSimpleName() + "=" + eventTypes.stream().map(Class::getSimpleName).toList();
+        }
+    }
+}
@@ -4,10 +4,14 @@ import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import nl.tijsbeek.config.Config;
 import nl.tijsbeek.discord.events.CustomEventListener;
+import nl.tijsbeek.discord.system.execution.EventListenerMode;
+import nl.tijsbeek.discord.system.execution.ListenerQueue;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -15,18 +19,44 @@ import java.util.stream.Collectors;
 
 /**
  * Handles all {@link CustomEventListener CustomEventListeners}.
+ * <br/>
+ * The listeners run on JDA's event thread, or each on their own {@link ListenerQueue}, see {@link EventListenerMode}.
  */
-public class EventHandler implements EventListener {
+public class EventHandler implements EventListener, AutoCloseable {
     private final List<CustomEventListener> listeners;
+    private final List<ListenerQueue> listenerQueues = new ArrayList<>();
+    private final EventDispatchTable dispatchTable;
 
     /**
-     * Creates an instance based of {@link ListenersList#getEventListeners()}.
+     * Creates an instance based of {@link ListenersList#getEventListeners()}, the listeners run on JDA's event thread.
      *
      * @param listenersList the {@link ListenersList} to take the {@link CustomEventListener CustomEventListeners} from
      */
-    @Contract(pure = true)
     public EventHandler(@NotNull final ListenersList listenersList) {
         listeners = listenersList.getEventListeners();
+        dispatchTable = new EventDispatchTable(listeners, listener -> listener);
+    }
+
+    /**
+     * Creates an instance based of {@link ListenersList#getEventListeners()}, the listeners run as configured.
+     *
+     * @param listenersList the {@link ListenersList} to take the {@link CustomEventListener CustomEventListeners} from
+     * @param config the {@link Config}, used for the {@link EventListenerMode} and the queues
+     *
+     * @see Config#getEventListenerMode()
+     */
+    public EventHandler(@NotNull final ListenersList listenersList, @NotNull final Config config) {
+        listeners = listenersList.getEventListeners();
+
+        if (EventListenerMode.QUEUED == EventListenerMode.byName(config.getEventListenerMode())) {
+            dispatchTable = new EventDispatchTable(listeners, listener -> {
+                ListenerQueue listenerQueue = new ListenerQueue(listener, config.getEventListenerQueueCapacity(), config.getEventListenerGuildWorkers());
+                listenerQueues.add(listenerQueue);
+                return listenerQueue;
+            });
+        } else {
+            dispatchTable = new EventDispatchTable(listeners, listener -> listener);
+        }
     }
 
     /**
@@ -59,12 +89,24 @@ public class EventHandler implements EventListener {
 
 
     /**
-     * Forwards the given {@link GenericEvent} to all {@link CustomEventListener CustomEventListeners}.
+     * Forwards the given {@link GenericEvent} to the {@link CustomEventListener CustomEventListeners} which handle it.
      *
      * @param event the {@link GenericEvent} to forward
+     *
+     * @see EventDispatchTable
      */
     @Override
     public void onEvent(@NotNull GenericEvent event) {
-        listeners.forEach(listener -> listener.onEvent(event));
+        for (final EventListener listener : dispatchTable.getListeners(event.getClass())) {
+            listener.onEvent(event);
+        }
+    }
+
+    /**
+     * Stops the workers of the {@link ListenerQueue ListenerQueues}, if the listeners have any.
+     */
+    @Override
+    public void close() {
+        listenerQueues.forEach(ListenerQueue::close);
     }
 }
\ No newline at end of file
@@ -44,6 +44,8 @@ public class ListenersList {
         commands.add(new ReportSlashCommand());
         commands.add(new ReportMessageCommand());
         commands.add(new ReportUserCommand());
+        commands.add(new HistoryCommand());
+        commands.add(new ExportCommand());
 
         this.eventListeners = eventListeners;
         this.commands = commands;
@@ -0,0 +1,43 @@
+package nl.tijsbeek.discord.system;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import nl.tijsbeek.discord.commands.InteractionCommand;
+import nl.tijsbeek.prometheus.CommandMetrics;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An {@link InteractionCommand} registered to the {@link CommandHandler}, with its required permissions compiled into raw bitmasks.
+ * <br/>
+ * Commands only add required permissions in their constructor, so these are computed once when the command gets registered.
+ * Checking them is then a single {@code &} against the member's raw permissions, see {@link Permission#getRawValue()}.
+ * The same goes for its {@link CommandMetrics}, so invoking the command doesn't have to look up any labels.
+ *
+ * @param command the command
+ * @param requiredUserPermissions the raw value of {@link InteractionCommand#getRequiredUserPermission()}
+ * @param requiredBotPermissions the raw value of {@link InteractionCommand#getRequiredBotPermission()}
+ * @param metrics the metrics of the command
+ * @param <T> the {@link InteractionCommand} type, like {@link nl.tijsbeek.discord.commands.SlashCommand}
+ */
+record RegisteredCommand<T extends InteractionCommand>(@NotNull T command, long requiredUserPermissions, long requiredBotPermissions,
+                                                          @NotNull CommandMetrics metrics) {
+
+    /**
+     * Registers the given command, computing the bitmasks of its required permissions and looking up its metrics.
+     *
+     * @param command the command
+     * @param type the type of the command, like {@link Command.Type#SLASH}
+     * @param <T> the {@link InteractionCommand} type
+     *
+     * @return the {@link RegisteredCommand}
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    static <T extends InteractionCommand> RegisteredCommand<T> of(@NotNull final T command, @NotNull final Command.Type type) {
+        return new RegisteredCommand<>(command,
+                Permission.getRaw(command.getRequiredUserPermission()),
+                Permission.getRaw(command.getRequiredBotPermission()),
+                CommandMetrics.of(type, command.getName()));
+    }
+}
@@ -0,0 +1,107 @@
+package nl.tijsbeek.discord.system.execution;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ways the {@link nl.tijsbeek.discord.system.CommandHandler} can dispatch its interactions.
+ *
+ * @see nl.tijsbeek.config.Config#getCommandExecutorMode()
+ */
+public enum CommandExecutorMode {
+    /**
+     * A {@link ThreadPoolExecutor} of platform threads with a bounded queue, the max concurrency is the max pool size.
+     */
+    POOLED(Runtime.getRuntime().availableProcessors()) {
+        @NotNull
+        @Override
+        Executor createExecutor(@NotNull @NonNls final String name, final int maxConcurrency) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            // core size equals max size, otherwise the pool only grows once the queue is full
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                    1, TimeUnit.MINUTES,
+                    new ArrayBlockingQueue<>(64),
+                    runnable -> new Thread(runnable, name + "-" + threadCount.getAndIncrement())
+            );
+            executor.allowCoreThreadTimeOut(true);
+
+            return executor;
+        }
+    },
+
+    /**
+     * Every interaction runs on its own virtual thread, the max concurrency is enforced by a {@link Semaphore}.
+     *
+     * @see VirtualThreadExecutor
+     */
+    VIRTUAL(256) {
+        @NotNull
+        @Override
+        Executor createExecutor(@NotNull @NonNls final String name, final int maxConcurrency) {
+            return new VirtualThreadExecutor(name, maxConcurrency);
+        }
+    };
+
+    private final int defaultMaxConcurrency;
+
+    @Contract(pure = true)
+    CommandExecutorMode(final int defaultMaxConcurrency) {
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+    }
+
+    /**
+     * Creates the {@link Executor} of this mode.
+     *
+     * @param name the prefix of the thread names
+     * @param maxConcurrency the maximum amount of tasks running at once
+     *
+     * @return the created {@link Executor}
+     */
+    @NotNull
+    abstract Executor createExecutor(@NotNull @NonNls String name, int maxConcurrency);
+
+    /**
+     * Creates the {@link Executor} of this mode, when the given max concurrency is 0 or lower the mode's default is used.
+     *
+     * @param name the prefix of the thread names
+     * @param maxConcurrency the maximum amount of tasks running at once
+     *
+     * @return the created {@link Executor}
+     */
+    @NotNull
+    public Executor create(@NotNull @NonNls final String name, final int maxConcurrency) {
+        return createExecutor(name, resolveMaxConcurrency(maxConcurrency));
+    }
+
+    /**
+     * Returns the given max concurrency, or the mode's default when it's 0 or lower.
+     *
+     * @param maxConcurrency the configured max concurrency
+     *
+     * @return the effective max concurrency
+     */
+    @Contract(pure = true)
+    public int resolveMaxConcurrency(final int maxConcurrency) {
+        return 0 < maxConcurrency ? maxConcurrency : defaultMaxConcurrency;
+    }
+
+    /**
+     * Returns the mode by its name, ignoring the case.
+     *
+     * @param name the name of the mode, like "pooled" or "virtual"
+     *
+     * @return the {@link CommandExecutorMode}
+     *
+     * @throws IllegalArgumentException when no mode with the given name exists
+     */
+    @NotNull
+    public static CommandExecutorMode byName(@NotNull final String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
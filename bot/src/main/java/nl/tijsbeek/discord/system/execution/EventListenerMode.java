@@ -0,0 +1,36 @@
+package nl.tijsbeek.discord.system.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * The ways the {@link nl.tijsbeek.discord.system.EventHandler} can run its listeners.
+ *
+ * @see nl.tijsbeek.config.Config#getEventListenerMode()
+ */
+public enum EventListenerMode {
+    /**
+     * Listeners run on JDA's event thread, a slow listener holds up every event of the shard.
+     */
+    INLINE,
+
+    /**
+     * Every listener gets its own {@link ListenerQueue}, JDA's event thread only queues the events.
+     */
+    QUEUED;
+
+    /**
+     * Returns the mode by its name, ignoring the case.
+     *
+     * @param name the name of the mode, like "inline" or "queued"
+     *
+     * @return the {@link EventListenerMode}
+     *
+     * @throws IllegalArgumentException when no mode with the given name exists
+     */
+    @NotNull
+    public static EventListenerMode byName(@NotNull final String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,20 @@
+package nl.tijsbeek.discord.system.execution;
+
+/**
+ * The order a {@link nl.tijsbeek.discord.events.CustomEventListener} receives its events in, when it has its own {@link ListenerQueue}.
+ *
+ * @see nl.tijsbeek.discord.events.CustomEventListener#getEventOrdering()
+ */
+public enum EventOrdering {
+    /**
+     * Events of the same guild are handled in the order they arrived, events of different guilds can be handled at once.
+     * <br/>
+     * Events without a guild are ordered among themselves.
+     */
+    GUILD,
+
+    /**
+     * All events are handled one by one, in the order they arrived.
+     */
+    GLOBAL
+}
@@ -0,0 +1,25 @@
+package nl.tijsbeek.discord.system.execution;
+
+/**
+ * What a {@link ListenerQueue} does with an event when the queue is full.
+ *
+ * @see nl.tijsbeek.discord.events.CustomEventListener#getEventOverflowPolicy()
+ */
+public enum EventOverflowPolicy {
+    /**
+     * JDA's event thread waits until the queue has room, so no event gets lost.
+     * <br/>
+     * A listener that can't keep up slows down the whole shard, like it would without a queue.
+     */
+    BLOCK,
+
+    /**
+     * The new event is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest queued event is dropped to make room for the new one.
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,433 @@
+package nl.tijsbeek.discord.system.execution;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import net.dv8tion.jda.api.interactions.InteractionType;
+import nl.tijsbeek.prometheus.Metrics;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Schedules interactions fairly over the guilds they come from.
+ * <br/>
+ * Every guild (and DMs, see {@link #DIRECT_MESSAGES_KEY}) gets its own sub-queue, the sub-queues are served round-robin.
+ * A guild with a weight above 1 gets that many tasks per turn, see {@link #FairInteractionScheduler(String, Executor, int, int, LongToIntFunction)}.
+ * <p>
+ * A guild can't queue more tasks than its budget, {@link #submit(long, Runnable)} returns false instead of throwing.
+ * This way one busy guild can't fill the queue for every other guild.
+ * <p>
+ * Tasks can have a deadline, see {@link #submit(long, Runnable, long)}, these are dropped instead of run when they waited too long.
+ * <p>
+ * The time tasks wait in the queue and the time they run are exported per {@link InteractionType}, see {@link #submit(long, InteractionType, Runnable, long)}.
+ */
+public final class FairInteractionScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(FairInteractionScheduler.class);
+
+    /**
+     * The key used for interactions that don't come from a guild.
+     */
+    public static final long DIRECT_MESSAGES_KEY = 0L;
+
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final String name;
+    private final Executor executor;
+    private final int maxWorkers;
+    private final int guildBudget;
+    private final LongToIntFunction guildWeights;
+
+    private final Map<InteractionType, TypeMetrics> typeMetrics = new EnumMap<>(InteractionType.class);
+    private final Counter.Child budgetRejections;
+    private final Counter.Child executorRejections;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, GuildQueue> guildToQueue = new HashMap<>();
+    private final ArrayDeque<GuildQueue> roundRobin = new ArrayDeque<>();
+    private int runningWorkers;
+    // only written while holding the lock, read by the metrics without it
+    private volatile int queuedTasks;
+
+    /**
+     * Creates an instance where every guild has a weight of 1.
+     *
+     * @param name the name of this scheduler, used as the lane label of the metrics
+     * @param executor the {@link Executor} to run the workers on
+     * @param maxWorkers the maximum amount of tasks running at once
+     * @param guildBudget the maximum amount of queued tasks per guild
+     */
+    public FairInteractionScheduler(@NotNull @NonNls final String name, @NotNull final Executor executor,
+                                    @Range(from = 1, to = Integer.MAX_VALUE) final int maxWorkers,
+                                    @Range(from = 1, to = Integer.MAX_VALUE) final int guildBudget) {
+        this(name, executor, maxWorkers, guildBudget, guildId -> 1);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param name the name of this scheduler, used as the lane label of the metrics
+     * @param executor the {@link Executor} to run the workers on
+     * @param maxWorkers the maximum amount of tasks running at once, the executor should be able to run this many tasks at once
+     * @param guildBudget the maximum amount of queued tasks per guild
+     * @param guildWeights the amount of tasks a guild gets per turn, values below 1 are treated as 1
+     */
+    public FairInteractionScheduler(@NotNull @NonNls final String name, @NotNull final Executor executor,
+                                    @Range(from = 1, to = Integer.MAX_VALUE) final int maxWorkers,
+                                    @Range(from = 1, to = Integer.MAX_VALUE) final int guildBudget,
+                                    @NotNull final LongToIntFunction guildWeights) {
+        if (1 > maxWorkers || 1 > guildBudget) {
+            throw new IllegalArgumentException("The max workers and guild budget have to be at least 1!");
+        }
+
+        this.name = Objects.requireNonNull(name, "The given name cannot be null");
+        this.executor = Objects.requireNonNull(executor, "The given executor cannot be null");
+        this.maxWorkers = maxWorkers;
+        this.guildBudget = guildBudget;
+        this.guildWeights = Objects.requireNonNull(guildWeights, "The given guild weights cannot be null");
+
+        for (final InteractionType type : InteractionType.values()) {
+            String typeLabel = type.name().toLowerCase(Locale.ROOT);
+
+            typeMetrics.put(type, new TypeMetrics(Metrics.INTERACTION_QUEUE_WAIT.labels(name, typeLabel),
+                    Metrics.INTERACTION_RUN_DURATION.labels(name, typeLabel)));
+        }
+
+        budgetRejections = Metrics.REJECTED_INTERACTIONS.labels(name, "guild_budget");
+        executorRejections = Metrics.REJECTED_INTERACTIONS.labels(name, "executor");
+    }
+
+    /**
+     * Queues the task in the sub-queue of the given guild.
+     *
+     * @param guildId the guild's ID, or {@link #DIRECT_MESSAGES_KEY}
+     * @param task the task to run
+     *
+     * @return false when the guild is over its budget, the task won't run
+     *
+     * @see #submit(long, Runnable, long)
+     */
+    public boolean submit(final long guildId, @NotNull final Runnable task) {
+        return submit(guildId, task, Long.MAX_VALUE);
+    }
+
+    /**
+     * Queues the task in the sub-queue of the given guild, the task is dropped when it's still queued after the deadline.
+     *
+     * @param guildId the guild's ID, or {@link #DIRECT_MESSAGES_KEY}
+     * @param task the task to run
+     * @param deadline the {@link System#nanoTime()} after which the task shouldn't run anymore, {@link Long#MAX_VALUE} for none
+     *
+     * @return false when the guild is over its budget, the task won't run
+     */
+    public boolean submit(final long guildId, @NotNull final Runnable task, final long deadline) {
+        return submit(guildId, InteractionType.UNKNOWN, task, deadline);
+    }
+
+    /**
+     * Queues the task in the sub-queue of the given guild, the task is dropped when it's still queued after the deadline.
+     *
+     * @param guildId the guild's ID, or {@link #DIRECT_MESSAGES_KEY}
+     * @param type the {@link InteractionType} the task handles, used for the metrics
+     * @param task the task to run
+     * @param deadline the {@link System#nanoTime()} after which the task shouldn't run anymore, {@link Long#MAX_VALUE} for none
+     *
+     * @return false when the guild is over its budget or the executor can't start a worker, the task won't run
+     */
+    public boolean submit(final long guildId, @NotNull final InteractionType type, @NotNull final Runnable task, final long deadline) {
+        Objects.requireNonNull(type, "The given type cannot be null");
+        Objects.requireNonNull(task, "The given task cannot be null");
+
+        QueuedTask queuedTask = new QueuedTask(task, typeMetrics.get(type), System.nanoTime(), deadline);
+        boolean startWorker;
+
+        lock.lock();
+        try {
+            GuildQueue queue = guildToQueue.computeIfAbsent(guildId, GuildQueue::new);
+
+            if (queue.tasks.size() >= guildBudget) {
+                Metrics.GUILD_SHED_INTERACTIONS.labels(guildLabel(guildId)).inc();
+                budgetRejections.inc();
+                return false;
+            }
+
+            queue.tasks.add(queuedTask);
+            queuedTasks++;
+            Metrics.GUILD_QUEUED_INTERACTIONS.labels(guildLabel(guildId)).set(queue.tasks.size());
+
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                queue.turnsLeft = Math.max(1, guildWeights.applyAsInt(guildId));
+                roundRobin.add(queue);
+            }
+
+            startWorker = runningWorkers < maxWorkers;
+            if (startWorker) {
+                runningWorkers++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (startWorker) {
+            try {
+                executor.execute(this::work);
+            } catch (final RuntimeException e) {
+                boolean dequeued;
+
+                lock.lock();
+                try {
+                    runningWorkers--;
+                    dequeued = dequeue(guildId, queuedTask);
+                } finally {
+                    lock.unlock();
+                }
+
+                if (e instanceof RejectedExecutionException) {
+                    executorRejections.inc();
+                }
+                logger.error("The executor of the {} lane couldn't start a worker.", name, e);
+
+                // another worker can have taken the task already, then it still runs
+                return !dequeued;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the given task from the sub-queue of the guild, this has to be called while holding the lock.
+     *
+     * @param guildId the guild's ID, or {@link #DIRECT_MESSAGES_KEY}
+     * @param queuedTask the task to remove
+     *
+     * @return whenever the task was still queued
+     */
+    private boolean dequeue(final long guildId, @NotNull final QueuedTask queuedTask) {
+        GuildQueue queue = guildToQueue.get(guildId);
+
+        if (null == queue || !queue.tasks.removeIf(queued -> queued == queuedTask)) {
+            return false;
+        }
+
+        queuedTasks--;
+
+        if (queue.tasks.isEmpty()) {
+            queue.scheduled = false;
+            queue.turnsLeft = 0;
+            roundRobin.remove(queue);
+            guildToQueue.remove(guildId);
+            Metrics.GUILD_QUEUED_INTERACTIONS.remove(guildLabel(guildId));
+        } else {
+            Metrics.GUILD_QUEUED_INTERACTIONS.labels(guildLabel(guildId)).set(queue.tasks.size());
+        }
+
+        return true;
+    }
+
+    /**
+     * Runs tasks until all sub-queues are empty.<br/>
+     * When a task throws an {@link Error} the worker dies, so its slot is freed and another worker takes over the remaining tasks.
+     */
+    private void work() {
+        boolean drained = false;
+
+        try {
+            runTasks();
+            drained = true;
+        } finally {
+            if (!drained) {
+                replaceWorker();
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a worker which died, and starts another worker when tasks are left.
+     */
+    private void replaceWorker() {
+        boolean startWorker;
+
+        lock.lock();
+        try {
+            runningWorkers--;
+
+            startWorker = !roundRobin.isEmpty() && runningWorkers < maxWorkers;
+            if (startWorker) {
+                runningWorkers++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (startWorker) {
+            try {
+                executor.execute(this::work);
+            } catch (final RuntimeException e) {
+                lock.lock();
+                try {
+                    runningWorkers--;
+                } finally {
+                    lock.unlock();
+                }
+
+                if (e instanceof RejectedExecutionException) {
+                    executorRejections.inc();
+                }
+                // the queued tasks run once the next submit starts a worker
+                logger.error("The executor of the {} lane couldn't replace a worker.", name, e);
+            }
+        }
+    }
+
+    /**
+     * Runs tasks, round-robin over the guilds, until all sub-queues are empty.
+     */
+    private void runTasks() {
+        while (true) {
+            QueuedTask task;
+            long guildId;
+
+            lock.lock();
+            try {
+                GuildQueue queue = roundRobin.poll();
+
+                if (null == queue) {
+                    runningWorkers--;
+                    return;
+                }
+
+                task = queue.tasks.poll();
+                guildId = queue.guildId;
+                queuedTasks--;
+
+                // the gauge is updated while holding the lock, so a racing submit can't have its series removed
+                if (queue.tasks.isEmpty()) {
+                    queue.scheduled = false;
+                    queue.turnsLeft = 0;
+                    guildToQueue.remove(guildId);
+                    Metrics.GUILD_QUEUED_INTERACTIONS.remove(guildLabel(guildId));
+                } else {
+                    Metrics.GUILD_QUEUED_INTERACTIONS.labels(guildLabel(guildId)).set(queue.tasks.size());
+
+                    if (0 < --queue.turnsLeft) {
+                        roundRobin.addFirst(queue);
+                    } else {
+                        queue.turnsLeft = Math.max(1, guildWeights.applyAsInt(guildId));
+                        roundRobin.add(queue);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            long now = System.nanoTime();
+            task.metrics().queueWait().observe((now - task.queuedAt()) / NANOSECONDS_PER_SECOND);
+
+            if (Long.MAX_VALUE != task.deadline() && 0 < now - task.deadline()) {
+                Metrics.EXPIRED_INTERACTIONS.labels(name).inc();
+                continue;
+            }
+
+            try {
+                task.task().run();
+            } catch (final RuntimeException e) {
+                logger.error("Something went wrong while running an interaction of guild {}.", guildId, e);
+            } finally {
+                task.metrics().runDuration().observe((System.nanoTime() - now) / NANOSECONDS_PER_SECOND);
+            }
+        }
+    }
+
+    /**
+     * The amount of tasks queued for the given guild.
+     *
+     * @param guildId the guild's ID, or {@link #DIRECT_MESSAGES_KEY}
+     *
+     * @return the amount of queued tasks
+     */
+    public int getQueueDepth(final long guildId) {
+        lock.lock();
+        try {
+            GuildQueue queue = guildToQueue.get(guildId);
+            return null == queue ? 0 : queue.tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The amount of tasks queued over all guilds, this doesn't lock so it can be slightly outdated.
+     *
+     * @return the amount of queued tasks
+     */
+    public int getQueuedTasks() {
+        return queuedTasks;
+    }
+
+    /**
+     * The name of this scheduler, used as the lane label of the metrics.
+     *
+     * @return the name
+     */
+    @NotNull
+    @Contract(pure = true)
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    @Contract(pure = true)
+    private static String guildLabel(final long guildId) {
+        return DIRECT_MESSAGES_KEY == guildId ? "dm" : Long.toString(guildId);
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    public String toString() {
+        return "FairInteractionScheduler{" +
+                "name='" + name + '\'' +
+                ", maxWorkers=" + maxWorkers +
+                ", guildBudget=" + guildBudget +
+                '}';
+    }
+
+
+    /**
+     * A task with the metrics of its type, the {@link System#nanoTime()} it got queued at, and its deadline.
+     */
+    private record QueuedTask(@NotNull Runnable task, @NotNull TypeMetrics metrics, long queuedAt, long deadline) {}
+
+    /**
+     * The metrics of a single {@link InteractionType} in this lane, looked up once instead of per task.
+     */
+    private record TypeMetrics(@NotNull Histogram.Child queueWait, @NotNull Histogram.Child runDuration) {}
+
+    private static final class GuildQueue {
+        private final long guildId;
+        private final Queue<QueuedTask> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+        private int turnsLeft;
+
+        @Contract(pure = true)
+        private GuildQueue(final long guildId) {
+            this.guildId = guildId;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package nl.tijsbeek.discord.system.execution;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import nl.tijsbeek.discord.events.CustomEventListener;
+import nl.tijsbeek.prometheus.Metrics;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs a single {@link CustomEventListener} on its own worker threads, so it can't hold up JDA's event thread or other listeners.
+ * <br/>
+ * Every worker has its own bounded queue, {@link #onEvent(GenericEvent)} only queues the event.
+ * With {@link EventOrdering#GLOBAL} there's a single worker, with {@link EventOrdering#GUILD} events are spread over the workers by their guild,
+ * so the events of a guild always end up in the same queue.
+ * When a queue is full, the listener's {@link EventOverflowPolicy} decides what happens.
+ * <p>
+ * The time events wait in the queue, the queue sizes and the dropped events are exported per listener.
+ * <br/>
+ * A worker killed by an {@link Error} is replaced, so the queue keeps draining, {@link #close()} stops the workers.
+ */
+public final class ListenerQueue implements EventListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ListenerQueue.class);
+
+    /**
+     * The key used for events that don't come from a guild, these all end up in the same queue.
+     */
+    private static final long NO_GUILD_KEY = 0L;
+
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final String name;
+    private final CustomEventListener listener;
+    private final EventOverflowPolicy overflowPolicy;
+    private final BlockingQueue<QueuedEvent>[] queues;
+    private final Thread[] workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean closed;
+
+    private final Histogram.Child lag;
+    private final Gauge.Child queued;
+    private final Counter.Child dropped;
+
+    /**
+     * Creates an instance, and starts its workers.
+     *
+     * @param listener the listener to run, its ordering and overflow policy are used
+     * @param capacity the maximum amount of queued events, divided over the workers
+     * @param guildWorkers the amount of workers when the listener uses {@link EventOrdering#GUILD}
+     */
+    @SuppressWarnings("unchecked")
+    public ListenerQueue(@NotNull final CustomEventListener listener,
+                         @Range(from = 1, to = Integer.MAX_VALUE) final int capacity,
+                         @Range(from = 1, to = Integer.MAX_VALUE) final int guildWorkers) {
+        if (1 > capacity || 1 > guildWorkers) {
+            throw new IllegalArgumentException("The capacity and guild workers have to be at least 1!");
+        }
+
+        this.listener = Objects.requireNonNull(listener, "The given listener cannot be null");
+        String simpleName = listener.getClass().getSimpleName();
+        this.name = simpleName.isEmpty() ? listener.getClass().getName() : simpleName;
+        this.overflowPolicy = listener.getEventOverflowPolicy();
+
+        int workers = EventOrdering.GLOBAL == listener.getEventOrdering() ? 1 : guildWorkers;
+        int workerCapacity = Math.max(1, capacity / workers);
+
+        this.lag = Metrics.EVENT_LISTENER_LAG.labels(name);
+        this.queued = Metrics.EVENT_LISTENER_QUEUED.labels(name);
+        this.dropped = Metrics.EVENT_LISTENER_DROPPED.labels(name);
+
+        this.queues = new BlockingQueue[workers];
+        this.workers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            queues[i] = new ArrayBlockingQueue<>(workerCapacity);
+            startWorker(i);
+        }
+    }
+
+    /**
+     * Starts the worker of the queue at the given index, unless this is closed.
+     */
+    private void startWorker(final int index) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            Thread worker = new Thread(() -> work(index), "EventListener-" + name + "-" + index);
+            worker.setDaemon(true);
+            workers[index] = worker;
+            worker.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the event for the listener, what happens when the queue is full depends on the {@link EventOverflowPolicy}.
+     *
+     * @param event the {@link GenericEvent} to queue
+     */
+    @Override
+    public void onEvent(@NotNull final GenericEvent event) {
+        if (closed) {
+            dropped.inc();
+            return;
+        }
+
+        BlockingQueue<QueuedEvent> queue = queues[1 == queues.length ? 0 : queueIndex(guildIdOf(event), queues.length)];
+        QueuedEvent queuedEvent = new QueuedEvent(event, System.nanoTime());
+
+        // counted before it's queued, otherwise the worker can take it and decrement first
+        queued.inc();
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(queuedEvent);
+
+                    // closed while this was blocked, no worker takes it anymore
+                    if (closed && queue.remove(queuedEvent)) {
+                        queued.dec();
+                        dropped.inc();
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queued.dec();
+                    dropped.inc();
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!queue.offer(queuedEvent)) {
+                    queued.dec();
+                    dropped.inc();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(queuedEvent)) {
+                    if (null != queue.poll()) {
+                        queued.dec();
+                        dropped.inc();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the events of the queue at the given index, until the thread gets interrupted.<br/>
+     * When the listener throws an {@link Error} the thread dies, and another worker is started for the queue.
+     */
+    private void work(final int index) {
+        boolean interrupted = false;
+
+        try {
+            interrupted = runEvents(queues[index]);
+        } finally {
+            if (!interrupted && !closed) {
+                logger.error("A worker of {} died, starting another one.", name);
+                startWorker(index);
+            }
+        }
+    }
+
+    /**
+     * Runs the events of the given queue.
+     *
+     * @return true once the thread got interrupted
+     */
+    private boolean runEvents(@NotNull final BlockingQueue<QueuedEvent> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            QueuedEvent queuedEvent;
+
+            try {
+                queuedEvent = queue.take();
+            } catch (final InterruptedException e) {
+                return true;
+            }
+
+            queued.dec();
+            lag.observe((System.nanoTime() - queuedEvent.queuedAt()) / NANOSECONDS_PER_SECOND);
+
+            try {
+                listener.onEvent(queuedEvent.event());
+            } catch (final RuntimeException e) {
+                logger.error("Something went wrong while {} handled a {}.", name, queuedEvent.event().getClass().getSimpleName(), e);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Stops the workers, and drops the queued events.<br/>
+     * Events handled at that moment get interrupted, events given afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+
+            for (final Thread worker : workers) {
+                worker.interrupt();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // also frees callers blocked on a full queue
+        for (final BlockingQueue<QueuedEvent> queue : queues) {
+            int drained = queue.drainTo(new ArrayList<>());
+
+            queued.dec(drained);
+            dropped.inc(drained);
+        }
+    }
+
+    /**
+     * Returns the ID of the guild the event comes from.
+     *
+     * @param event the {@link GenericEvent}
+     *
+     * @return the guild's ID, or {@link #NO_GUILD_KEY}
+     */
+    @Contract(pure = true)
+    private static long guildIdOf(@NotNull final GenericEvent event) {
+        if (event instanceof GenericGuildEvent guildEvent) {
+            return guildEvent.getGuild().getIdLong();
+        } else if (event instanceof GenericMessageEvent messageEvent && messageEvent.isFromGuild()) {
+            return messageEvent.getGuild().getIdLong();
+        } else if (event instanceof GenericInteractionCreateEvent interactionEvent && null != interactionEvent.getGuild()) {
+            return interactionEvent.getGuild().getIdLong();
+        }
+
+        return NO_GUILD_KEY;
+    }
+
+    /**
+     * Spreads the guild IDs over the queues, the lower bits of a snowflake are mostly an increment so they're mixed first.
+     */
+    @Contract(pure = true)
+    private static int queueIndex(final long guildId, final int queueCount) {
+        long mixed = guildId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(mixed ^ (mixed >>> 32), (long) queueCount);
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "ListenerQueue{" +
+                "name='" + name + '\'' +
+                ", workers=" + queues.length +
+                ", overflowPolicy=" + overflowPolicy +
+                '}';
+    }
+
+    /**
+     * An event with the {@link System#nanoTime()} it got queued at.
+     */
+    private record QueuedEvent(@NotNull GenericEvent event, long queuedAt) {}
+}
@@ -0,0 +1,105 @@
+package nl.tijsbeek.discord.system.execution;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link Executor} which runs every task on its own virtual thread.
+ * <br/>
+ * The amount of tasks running at once is limited by a {@link Semaphore}, tasks over the limit park their (cheap) virtual thread
+ * until a permit is available. This means {@link #execute(Runnable)} never blocks and never rejects.
+ */
+public final class VirtualThreadExecutor implements Executor {
+
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ThreadFactory threadFactory;
+    private final LongAdder completedTasks = new LongAdder();
+
+    /**
+     * Creates an instance.
+     *
+     * @param name the prefix of the virtual threads their name
+     * @param maxConcurrency the maximum amount of tasks running at once
+     */
+    public VirtualThreadExecutor(@NotNull @NonNls final String name, @Range(from = 1, to = Integer.MAX_VALUE) final int maxConcurrency) {
+        if (1 > maxConcurrency) {
+            throw new IllegalArgumentException("The max concurrency has to be at least 1!");
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+    }
+
+    @Override
+    public void execute(@NotNull final Runnable command) {
+        Objects.requireNonNull(command, "The given command cannot be null");
+
+        threadFactory.newThread(() -> {
+            permits.acquireUninterruptibly();
+
+            try {
+                command.run();
+            } finally {
+                permits.release();
+                completedTasks.increment();
+            }
+        }).start();
+    }
+
+    /**
+     * The maximum amount of tasks running at once.
+     *
+     * @return the max concurrency
+     */
+    @Contract(pure = true)
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * The amount of tasks that are currently running.
+     *
+     * @return the amount of running tasks
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * An estimate of the amount of tasks waiting for a permit.
+     *
+     * @return the amount of waiting tasks
+     */
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * The amount of tasks that completed, either normally or by throwing.
+     *
+     * @return the amount of completed tasks
+     */
+    public long getCompletedTaskCount() {
+        return completedTasks.sum();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    public String toString() {
+        return "VirtualThreadExecutor{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", activeCount=" + getActiveCount() +
+                '}';
+    }
+}
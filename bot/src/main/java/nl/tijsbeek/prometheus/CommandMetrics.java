@@ -0,0 +1,183 @@
+package nl.tijsbeek.prometheus;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The metrics of a single command, with the children of every collector looked up once.
+ * <br/>
+ * {@link Counter#labels(String...)} and {@link Histogram#labels(String...)} look up the child in a map, and allocate a list of the labels
+ * to do so. The commands are known at start-up, so this is done once per command instead of per invocation.
+ * Durations are given as the {@link System#nanoTime()} they started at, so timing an invocation doesn't allocate either.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * long start = System.nanoTime();
+ * command.onSlashCommandInteraction(event);
+ * metrics.observeInvocation(start);
+ * }
+ * </pre>
+ */
+public final class CommandMetrics {
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final String name;
+
+    private final Counter.Child genericInvocations;
+    private final Counter.Child invocations;
+    private final Histogram.Child genericHandlingDuration;
+    private final Histogram.Child handlingDuration;
+    private final Histogram.Child genericInvocationDuration;
+    private final Histogram.Child invocationDuration;
+
+    /**
+     * Autocomplete metrics are labelled by the focused option as well, these are looked up on first use.
+     */
+    private final Map<String, AutocompleteMetrics> optionToAutocompleteMetrics = new ConcurrentHashMap<>();
+
+    private CommandMetrics(@NotNull final String name, @NotNull final Counter.Child genericInvocations, @NotNull final Counter.Child invocations,
+                           @NotNull final Histogram.Child genericHandlingDuration, @NotNull final Histogram.Child handlingDuration,
+                           @NotNull final Histogram.Child genericInvocationDuration, @NotNull final Histogram.Child invocationDuration) {
+        this.name = name;
+        this.genericInvocations = genericInvocations;
+        this.invocations = invocations;
+        this.genericHandlingDuration = genericHandlingDuration;
+        this.handlingDuration = handlingDuration;
+        this.genericInvocationDuration = genericInvocationDuration;
+        this.invocationDuration = invocationDuration;
+    }
+
+    /**
+     * Looks up the children of the collectors for the given command.
+     *
+     * @param type the type of the command, {@link Command.Type#SLASH}, {@link Command.Type#USER} or {@link Command.Type#MESSAGE}
+     * @param name the name of the command
+     *
+     * @return the {@link CommandMetrics} of the command
+     *
+     * @throws IllegalArgumentException when the type isn't of a command
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static CommandMetrics of(@NotNull final Command.Type type, @NotNull @NonNls final String name) {
+        return switch (type) {
+            case SLASH -> new CommandMetrics(name,
+                    Metrics.Commands.GENERIC_COMMANDS.labels("slash"),
+                    Metrics.Commands.SLASHCOMMANDS.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_HANDLING_DURATION.labels("slash"),
+                    Metrics.Commands.SLASHCOMMAND_HANDLING_DURATION.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_INVOCATION_DURATION.labels("slash"),
+                    Metrics.Commands.SLASHCOMMAND_INVOCATION_DURATION.labels(name));
+            case USER -> new CommandMetrics(name,
+                    Metrics.Commands.GENERIC_COMMANDS.labels("user"),
+                    Metrics.Commands.USER_CONTEXTCOMMANDS.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_HANDLING_DURATION.labels("user"),
+                    Metrics.Commands.USER_CONTEXTCOMMANDS_HANDLING_DURATION.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_INVOCATION_DURATION.labels("user"),
+                    Metrics.Commands.USER_CONTEXTCOMMAND_INVOCATION_DURATION.labels(name));
+            case MESSAGE -> new CommandMetrics(name,
+                    Metrics.Commands.GENERIC_COMMANDS.labels("message"),
+                    Metrics.Commands.MESSAGE_CONTEXTCOMMANDS.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_HANDLING_DURATION.labels("message"),
+                    Metrics.Commands.MESSAGE_CONTEXTCOMMANDS_HANDLING_DURATION.labels(name),
+                    Metrics.Commands.GENERIC_COMMAND_INVOCATION_DURATION.labels("message"),
+                    Metrics.Commands.MESSAGE_CONTEXTCOMMAND_INVOCATION_DURATION.labels(name));
+            default -> throw new IllegalArgumentException("Unexpected command type: " + type);
+        };
+    }
+
+    /**
+     * Counts an invocation of the command.
+     */
+    public void countInvocation() {
+        genericInvocations.inc();
+        invocations.inc();
+    }
+
+    /**
+     * Observes the time the command handler took to check whenever the command can run.
+     *
+     * @param startNanos the {@link System#nanoTime()} the handling started at
+     */
+    public void observeHandling(final long startNanos) {
+        double seconds = secondsSince(startNanos);
+
+        genericHandlingDuration.observe(seconds);
+        handlingDuration.observe(seconds);
+    }
+
+    /**
+     * Observes the time the command itself took.
+     *
+     * @param startNanos the {@link System#nanoTime()} the command started at
+     */
+    public void observeInvocation(final long startNanos) {
+        double seconds = secondsSince(startNanos);
+
+        genericInvocationDuration.observe(seconds);
+        invocationDuration.observe(seconds);
+    }
+
+    /**
+     * Returns the autocomplete metrics of the given option of this command.
+     *
+     * @param option the name of the focused option
+     *
+     * @return the {@link AutocompleteMetrics} of the option
+     */
+    @NotNull
+    public AutocompleteMetrics getAutocompleteMetrics(@NotNull @NonNls final String option) {
+        AutocompleteMetrics metrics = optionToAutocompleteMetrics.get(option);
+
+        if (null == metrics) {
+            metrics = optionToAutocompleteMetrics.computeIfAbsent(option, focusedOption -> new AutocompleteMetrics(
+                    Metrics.Commands.AUTOCOMPLETES.labels(name, focusedOption),
+                    Metrics.Commands.AUTOCOMPLETE_INVOCATION_DURATION.labels(name, focusedOption)));
+        }
+
+        return metrics;
+    }
+
+    @Contract(pure = true)
+    private static double secondsSince(final long startNanos) {
+        return (System.nanoTime() - startNanos) / NANOSECONDS_PER_SECOND;
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "CommandMetrics{" +
+                "name='" + name + '\'' +
+                ", autocompleteOptions=" + optionToAutocompleteMetrics.keySet() +
+                '}';
+    }
+
+    /**
+     * The autocomplete metrics of a single option of a command.
+     *
+     * @param invocations the autocomplete invocations
+     * @param duration the duration of the autocomplete invocations
+     */
+    public record AutocompleteMetrics(@NotNull Counter.Child invocations, @NotNull Histogram.Child duration) {
+
+        /**
+         * Counts the autocomplete invocation, and observes the time it took.
+         *
+         * @param startNanos the {@link System#nanoTime()} the autocomplete started at
+         */
+        public void observe(final long startNanos) {
+            invocations.inc();
+            duration.observe(secondsSince(startNanos));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package nl.tijsbeek.prometheus;
+
+import io.prometheus.client.Gauge;
+import nl.tijsbeek.discord.system.CommandHandler;
+import nl.tijsbeek.discord.system.execution.FairInteractionScheduler;
+import nl.tijsbeek.discord.system.execution.VirtualThreadExecutor;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Samples the executors of the {@link CommandHandler}, per lane.
+ * <br/>
+ * Sampling only reads counters of the executors and schedulers, and sets gauges looked up once, so it can run every second.
+ * The queue wait, run time and rejections are recorded by the {@link FairInteractionScheduler} itself, per interaction.
+ *
+ * @see #sample()
+ */
+public final class ExecutorTelemetry {
+    private final Lane defaultLane;
+    private final List<Lane> lanes;
+
+    /**
+     * Creates an instance for both lanes of the given {@link CommandHandler}.
+     *
+     * @param commandHandler the {@link CommandHandler}
+     */
+    public ExecutorTelemetry(@NotNull final CommandHandler commandHandler) {
+        defaultLane = Lane.of(commandHandler.getScheduler(), commandHandler.getExecutor());
+        lanes = List.of(defaultLane, Lane.of(commandHandler.getLowLatencyScheduler(), commandHandler.getLowLatencyExecutor()));
+    }
+
+    /**
+     * Updates the gauges of every lane, and the command-thread gauges of the default lane.
+     */
+    public void sample() {
+        for (final Lane lane : lanes) {
+            lane.sample();
+        }
+
+        Executor executor = defaultLane.executor();
+
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            int active = threadPoolExecutor.getActiveCount();
+            int max = threadPoolExecutor.getMaximumPoolSize();
+
+            Metrics.RUNNING_COMMAND_THREADS.set(active);
+            Metrics.TOTAL_COMMAND_THREADS.set(max);
+            Metrics.IDLE_COMMAND_THREADS.set(Math.max(0, max - active));
+        } else if (executor instanceof VirtualThreadExecutor virtualThreadExecutor) {
+            int active = virtualThreadExecutor.getActiveCount();
+            int max = virtualThreadExecutor.getMaxConcurrency();
+
+            Metrics.RUNNING_COMMAND_THREADS.set(active);
+            Metrics.TOTAL_COMMAND_THREADS.set(max);
+            Metrics.IDLE_COMMAND_THREADS.set(Math.max(0, max - active));
+        }
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "ExecutorTelemetry{" +
+                "lanes=" + lanes +
+                '}';
+    }
+
+    /**
+     * A lane of the {@link CommandHandler}, with the gauges of its label.
+     */
+    private record Lane(@NotNull FairInteractionScheduler scheduler, @NotNull Executor executor,
+                        @NotNull Gauge.Child active, @NotNull Gauge.Child pool, @NotNull Gauge.Child max,
+                        @NotNull Gauge.Child queued, @NotNull Gauge.Child completed) {
+
+        @NotNull
+        @Contract("_, _ -> new")
+        static Lane of(@NotNull final FairInteractionScheduler scheduler, @NotNull final Executor executor) {
+            String lane = scheduler.getName();
+
+            return new Lane(scheduler, executor,
+                    Metrics.EXECUTOR_ACTIVE_THREADS.labels(lane),
+                    Metrics.EXECUTOR_POOL_THREADS.labels(lane),
+                    Metrics.EXECUTOR_MAX_THREADS.labels(lane),
+                    Metrics.EXECUTOR_QUEUED_TASKS.labels(lane),
+                    Metrics.EXECUTOR_COMPLETED_TASKS.labels(lane));
+        }
+
+        void sample() {
+            int queuedTasks = scheduler.getQueuedTasks();
+
+            if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+                active.set(threadPoolExecutor.getActiveCount());
+                pool.set(threadPoolExecutor.getPoolSize());
+                max.set(threadPoolExecutor.getMaximumPoolSize());
+                queued.set(queuedTasks + threadPoolExecutor.getQueue().size());
+                completed.set(threadPoolExecutor.getCompletedTaskCount());
+            } else if (executor instanceof VirtualThreadExecutor virtualThreadExecutor) {
+                int activeCount = virtualThreadExecutor.getActiveCount();
+
+                // virtual threads aren't pooled, every running task has its own
+                active.set(activeCount);
+                pool.set(activeCount);
+                max.set(virtualThreadExecutor.getMaxConcurrency());
+                queued.set(queuedTasks + virtualThreadExecutor.getQueuedCount());
+                completed.set(virtualThreadExecutor.getCompletedTaskCount());
+            } else {
+                queued.set(queuedTasks);
+            }
+        }
+
+        @NonNls
+        @NotNull
+        @Override
+        @Contract(pure = true)
+        public String toString() {
+            return scheduler.getName();
+        }
+    }
+}
@@ -18,6 +18,13 @@ public class Metrics {
             .subsystem("bot")
             .register();
 
+    public static final Gauge SHARD_USER_COUNT = Gauge.build()
+            .name("shard_users")
+            .help("User Count of a shard")
+            .labelNames("shard")
+            .subsystem("bot")
+            .register();
+
 
     public static final class Commands {
         public static final Counter GENERIC_COMMANDS = Counter.build()
@@ -172,4 +179,108 @@ public class Metrics {
             .help("Idle command threads")
             .subsystem("bot")
             .register();
+
+
+    public static final Gauge GUILD_QUEUED_INTERACTIONS = Gauge.build()
+            .name("guild_queued_interactions")
+            .help("Interactions queued per guild")
+            .labelNames("guild")
+            .subsystem("bot")
+            .register();
+
+    public static final Counter GUILD_SHED_INTERACTIONS = Counter.build()
+            .name("guild_shed_interactions_total")
+            .help("Interactions rejected because the guild was over its budget")
+            .labelNames("guild")
+            .subsystem("bot")
+            .register();
+
+
+    public static final Histogram INTERACTION_QUEUE_WAIT = Histogram.build()
+            .name("interaction_queue_wait_duration")
+            .help("Duration interactions waited in the queue of their lane")
+            .labelNames("lane", "type")
+            .buckets(0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5)
+            .subsystem("bot")
+            .register();
+
+    public static final Histogram INTERACTION_RUN_DURATION = Histogram.build()
+            .name("interaction_run_duration")
+            .help("Duration interactions ran in their lane, after waiting in its queue")
+            .labelNames("lane", "type")
+            .buckets(0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5)
+            .subsystem("bot")
+            .register();
+
+    public static final Counter REJECTED_INTERACTIONS = Counter.build()
+            .name("rejected_interactions_total")
+            .help("Interactions rejected by their lane, because the guild was over its budget or the executor was full")
+            .labelNames("lane", "reason")
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EXECUTOR_ACTIVE_THREADS = Gauge.build()
+            .name("executor_active_threads")
+            .help("Threads of the lane's executor running a task")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EXECUTOR_POOL_THREADS = Gauge.build()
+            .name("executor_pool_threads")
+            .help("Threads of the lane's executor, both running and idle")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EXECUTOR_MAX_THREADS = Gauge.build()
+            .name("executor_max_threads")
+            .help("Maximum threads of the lane's executor")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EXECUTOR_QUEUED_TASKS = Gauge.build()
+            .name("executor_queued_tasks")
+            .help("Interactions queued in the lane, and tasks queued in its executor")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EXECUTOR_COMPLETED_TASKS = Gauge.build()
+            .name("executor_completed_tasks")
+            .help("Tasks the lane's executor completed since the start")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+    public static final Counter EXPIRED_INTERACTIONS = Counter.build()
+            .name("expired_interactions_total")
+            .help("Interactions dropped because they were still queued after their deadline")
+            .labelNames("lane")
+            .subsystem("bot")
+            .register();
+
+
+    public static final Histogram EVENT_LISTENER_LAG = Histogram.build()
+            .name("event_listener_lag_duration")
+            .help("Duration events waited in the queue of their listener")
+            .labelNames("listener")
+            .buckets(0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5)
+            .subsystem("bot")
+            .register();
+
+    public static final Gauge EVENT_LISTENER_QUEUED = Gauge.build()
+            .name("event_listener_queued_events")
+            .help("Events queued per listener")
+            .labelNames("listener")
+            .subsystem("bot")
+            .register();
+
+    public static final Counter EVENT_LISTENER_DROPPED = Counter.build()
+            .name("event_listener_dropped_events_total")
+            .help("Events dropped because the queue of their listener was full")
+            .labelNames("listener")
+            .subsystem("bot")
+            .register();
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package nl.tijsbeek.prometheus;
+
+import io.prometheus.client.Gauge;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the user count of every shard, without going over all guilds for every update.
+ * <br/>
+ * A shard is counted once on its {@link ReadyEvent}, after that guild joins and leaves add or remove the guild's members,
+ * and member joins and removes count a single member. The counts are {@link LongAdder LongAdders}, so events of different guilds don't contend.
+ * <p>
+ * Missed events, like those while reconnecting, are corrected by {@link #reconcile()}, which recounts the cached guilds of every shard.
+ * The gauges are only set by {@link #sample()}.
+ *
+ * @see Metrics#USER_COUNT
+ * @see Metrics#SHARD_USER_COUNT
+ */
+public final class UserCountTracker {
+    private final Map<Integer, Shard> idToShard = new ConcurrentHashMap<>();
+
+    /**
+     * Updates the user count of the event's shard, other events are ignored.
+     *
+     * @param event the {@link GenericEvent} to handle
+     */
+    public void onEvent(@NotNull final GenericEvent event) {
+        if (event instanceof ReadyEvent) {
+            getShard(event.getJDA()).reconcile();
+        } else if (event instanceof GuildMemberJoinEvent) {
+            getShard(event.getJDA()).users().increment();
+        } else if (event instanceof GuildMemberRemoveEvent) {
+            getShard(event.getJDA()).users().decrement();
+        } else if (event instanceof GuildJoinEvent joinEvent) {
+            getShard(event.getJDA()).users().add(joinEvent.getGuild().getMemberCount());
+        } else if (event instanceof GuildLeaveEvent leaveEvent) {
+            getShard(event.getJDA()).users().add(-leaveEvent.getGuild().getMemberCount());
+        }
+    }
+
+    /**
+     * Recounts the users of every shard from its cached guilds.
+     * <br/>
+     * This goes over every guild, so it should only run every few minutes.
+     */
+    public void reconcile() {
+        for (final Shard shard : idToShard.values()) {
+            shard.reconcile();
+        }
+    }
+
+    /**
+     * Sets the gauges to the current user counts.
+     */
+    public void sample() {
+        long totalUsers = 0;
+
+        for (final Shard shard : idToShard.values()) {
+            long users = shard.users().sum();
+
+            shard.gauge().set(users);
+            totalUsers += users;
+        }
+
+        Metrics.USER_COUNT.set(totalUsers);
+    }
+
+    /**
+     * Returns the user count of all shards.
+     *
+     * @return the amount of users
+     */
+    @Contract(pure = true)
+    public long getUserCount() {
+        return idToShard.values().stream()
+                .mapToLong(shard -> shard.users().sum())
+                .sum();
+    }
+
+    @NotNull
+    private Shard getShard(@NotNull final JDA jda) {
+        int shardId = jda.getShardInfo().getShardId();
+        Shard shard = idToShard.get(shardId);
+
+        if (null == shard) {
+            shard = idToShard.computeIfAbsent(shardId, id -> new Shard(jda, new LongAdder(),
+                    Metrics.SHARD_USER_COUNT.labels(String.valueOf(id))));
+        }
+
+        return shard;
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "UserCountTracker{" +
+                "shards=" + idToShard.keySet() +
+                '}';
+    }
+
+    /**
+     * A shard with its user count, and the gauge of its label.
+     */
+    private record Shard(@NotNull JDA jda, @NotNull LongAdder users, @NotNull Gauge.Child gauge) {
+
+        /**
+         * Corrects the user count to the sum of the cached guilds.
+         * <br/>
+         * The difference is added instead of resetting the count, so only events racing the recount can be off, until the next one.
+         */
+        void reconcile() {
+            long cachedUsers = jda.getGuildCache().stream()
+                    .mapToLong(Guild::getMemberCount)
+                    .sum();
+
+            users.add(cachedUsers - users.sum());
+        }
+    }
+}
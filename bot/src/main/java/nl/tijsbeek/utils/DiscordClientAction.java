@@ -21,6 +21,9 @@ import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -265,9 +268,28 @@ public final class DiscordClientAction {
 
     private final String url;
 
+    /**
+     * The literal parts of the URL around its arguments, one more than there are arguments.
+     */
+    private final String[] literals;
+    private final int literalsLength;
+
     @Contract(pure = true)
     private DiscordClientAction(final String url) {
         this.url = DISCORD_PROTOCOL + url;
+
+        List<String> urlLiterals = new ArrayList<>();
+        Matcher matcher = argumentPattern.matcher(this.url);
+
+        int literalStart = 0;
+        while (matcher.find()) {
+            urlLiterals.add(this.url.substring(literalStart, matcher.start()));
+            literalStart = matcher.end();
+        }
+        urlLiterals.add(this.url.substring(literalStart));
+
+        this.literals = urlLiterals.toArray(String[]::new);
+        this.literalsLength = urlLiterals.stream().mapToInt(String::length).sum();
     }
 
     /**
@@ -287,22 +309,33 @@ public final class DiscordClientAction {
     /**
      * Format's the URL with the given arguments.
      *
+     * <p>
+     * The URL is split around its arguments once, so this only appends the parts and arguments in order.
+     * Superfluous arguments are ignored.
+     *
      * @param arguments An array of the arguments this action requires
      * @return The formatted URL as an {@link String}
      * @throws IllegalArgumentException When missing arguments
      */
     public String formatUrl(final String @NotNull... arguments) {
-        String localUrl = url;
+        int argumentCount = literals.length - 1;
+
+        if (arguments.length < argumentCount) {
+            throw new IllegalArgumentException("Missing arguments for URL " + url + ", expected " + argumentCount
+                    + " but got " + arguments.length + "!");
+        }
 
-        for (final String argument : arguments) {
-            localUrl = argumentPattern.matcher(localUrl).replaceFirst(argument);
+        int length = literalsLength;
+        for (int i = 0; i < argumentCount; i++) {
+            length += arguments[i].length();
         }
 
-        if (argumentPattern.matcher(localUrl).find()) {
-            throw new IllegalArgumentException("Missing arguments for URL " + localUrl + "!");
+        StringBuilder builder = new StringBuilder(length).append(literals[0]);
+        for (int i = 0; i < argumentCount; i++) {
+            builder.append(arguments[i]).append(literals[i + 1]);
         }
 
-        return localUrl;
+        return builder.toString();
     }
 
     /**
@@ -8,6 +8,8 @@ import java.util.ResourceBundle;
 
 /**
  * Has some helper methods for dealing with resource bundles.
+ * <br/>
+ * Replies should use the {@link MessageCatalog} instead, which loads the bot's bundles once.
  */
 public class LocaleHelper {
 
@@ -21,7 +23,7 @@ public class LocaleHelper {
      * @return a {@link ResourceBundle} of the specified locale, or default
      */
     public static ResourceBundle getResource(@NotNull final Locale locale, @NotNull final String baseName) {
-        return ResourceBundle.getBundle("i18n\\" + baseName, locale);
+        return ResourceBundle.getBundle("i18n." + baseName, locale);
     }
 
     /**
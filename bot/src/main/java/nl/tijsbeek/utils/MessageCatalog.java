@@ -0,0 +1,112 @@
+package nl.tijsbeek.utils;
+
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * The messages of a resource bundle for every {@link DiscordLocale}, loaded once.
+ * <br/>
+ * {@link ResourceBundle#getBundle(String, Locale)} goes through a synchronized cache on every call,
+ * instead the bundle of every locale gets loaded up front and is stored by the locale's {@link DiscordLocale#ordinal()}.
+ * Looking up the messages of a locale is then an array access, and the messages themselves are pre-parsed, see {@link Messages}.
+ * <br/>
+ * Locales without a bundle of their own fall back to the default bundle, not to the JVM's default locale.
+ *
+ * @see #getBotMessages(DiscordLocale)
+ */
+public final class MessageCatalog {
+    private static final MessageCatalog BOT_CATALOG = load("bot");
+
+    private final String baseName;
+    private final Messages[] messagesByLocale;
+    private final int bundleCount;
+
+    private MessageCatalog(@NotNull final String baseName, @NotNull final Messages @NotNull [] messagesByLocale, final int bundleCount) {
+        this.baseName = baseName;
+        this.messagesByLocale = messagesByLocale;
+        this.bundleCount = bundleCount;
+    }
+
+    /**
+     * Loads the bundle with the given name for every {@link DiscordLocale}.
+     * <br/>
+     * Locales sharing a bundle share their {@link Messages}.
+     *
+     * @param baseName the resource bundle's name, in the {@code i18n} folder
+     *
+     * @return the loaded {@link MessageCatalog}
+     */
+    @NotNull
+    @Contract("_ -> new")
+    public static MessageCatalog load(@NotNull final String baseName) {
+        ResourceBundle.Control control = ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+        DiscordLocale[] discordLocales = DiscordLocale.values();
+        Messages[] messagesByLocale = new Messages[discordLocales.length];
+        Map<Locale, Messages> messagesByBundle = new HashMap<>();
+
+        for (final DiscordLocale discordLocale : discordLocales) {
+            ResourceBundle bundle = ResourceBundle.getBundle("i18n." + baseName, Locale.forLanguageTag(discordLocale.getLocale()), control);
+
+            messagesByLocale[discordLocale.ordinal()] = messagesByBundle.computeIfAbsent(bundle.getLocale(),
+                    locale -> Messages.load(baseName, bundle));
+        }
+
+        return new MessageCatalog(baseName, messagesByLocale, messagesByBundle.size());
+    }
+
+    /**
+     * Returns the catalog of the default resource used by this bot.
+     *
+     * @return the bot's {@link MessageCatalog}
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static MessageCatalog getBotCatalog() {
+        return BOT_CATALOG;
+    }
+
+    /**
+     * Returns the messages of the default resource used by this bot.
+     *
+     * @param discordLocale the {@link DiscordLocale} of the messages to return
+     *
+     * @return the {@link Messages} of the specified locale, or default
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static Messages getBotMessages(@NotNull final DiscordLocale discordLocale) {
+        return BOT_CATALOG.getMessages(discordLocale);
+    }
+
+    /**
+     * Returns the messages of the given locale.
+     *
+     * @param discordLocale the {@link DiscordLocale} of the messages to return
+     *
+     * @return the {@link Messages} of the specified locale, or default
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Messages getMessages(@NotNull final DiscordLocale discordLocale) {
+        return messagesByLocale[discordLocale.ordinal()];
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "MessageCatalog{" +
+                "baseName='" + baseName + '\'' +
+                ", bundles=" + bundleCount +
+                '}';
+    }
+}
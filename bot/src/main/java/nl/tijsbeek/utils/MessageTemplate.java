@@ -0,0 +1,163 @@
+package nl.tijsbeek.utils;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.IllegalFormatConversionException;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * A message of a resource bundle, with its format specifiers parsed once.
+ * <br/>
+ * Only {@code %s}, {@code %d}, {@code %%} and {@code %n} are parsed, which is all the bundles use.
+ * Templates with any other specifier, like {@code %1$s} or {@code %,d}, are formatted by {@link String#format(String, Object...)}.
+ * <br/>
+ * Unlike {@link String#formatted(Object...)}, {@code %d} never uses localized digits, so mentions and timestamps stay valid.
+ */
+final class MessageTemplate {
+    private static final int ESTIMATED_ARGUMENT_LENGTH = 16;
+
+    private final String text;
+
+    /**
+     * The literal text around the arguments, one more than there are {@link #conversions}.
+     * <br/>
+     * Null when the template has to be formatted by {@link String#format(String, Object...)}.
+     */
+    private final String @Nullable [] literals;
+    private final char @Nullable [] conversions;
+    private final int literalsLength;
+
+    private MessageTemplate(@NotNull final String text, final String @Nullable [] literals, final char @Nullable [] conversions) {
+        this.text = text;
+        this.literals = literals;
+        this.conversions = conversions;
+
+        int length = 0;
+        if (null != literals) {
+            for (final String literal : literals) {
+                length += literal.length();
+            }
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Parses the given message.
+     *
+     * @param text the message, as it is in the resource bundle
+     *
+     * @return the parsed {@link MessageTemplate}
+     */
+    @NotNull
+    @Contract("_ -> new")
+    static MessageTemplate parse(@NotNull final String text) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder conversions = new StringBuilder();
+        StringBuilder literal = new StringBuilder(text.length());
+
+        int index = 0;
+        while (index < text.length()) {
+            char character = text.charAt(index);
+
+            if ('%' != character) {
+                literal.append(character);
+                index++;
+                continue;
+            }
+
+            if (index + 1 == text.length()) {
+                return new MessageTemplate(text, null, null);
+            }
+
+            char conversion = text.charAt(index + 1);
+            switch (conversion) {
+                case 's', 'd' -> {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    conversions.append(conversion);
+                }
+                case '%' -> literal.append('%');
+                case 'n' -> literal.append(System.lineSeparator());
+                default -> {
+                    return new MessageTemplate(text, null, null);
+                }
+            }
+
+            index += 2;
+        }
+
+        literals.add(literal.toString());
+
+        return new MessageTemplate(text, literals.toArray(String[]::new), conversions.toString().toCharArray());
+    }
+
+    /**
+     * The message as it is in the resource bundle, without formatting it.
+     *
+     * @return the raw message
+     */
+    @NotNull
+    @Contract(pure = true)
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Formats the template with the given arguments, like {@link String#formatted(Object...)}.
+     *
+     * @param arguments the arguments, superfluous ones are ignored
+     *
+     * @return the formatted message
+     *
+     * @throws MissingFormatArgumentException when there are fewer arguments than specifiers
+     * @throws IllegalFormatConversionException when {@code %d} is given anything other than an integral number
+     */
+    @NotNull
+    String format(@Nullable final Object @NotNull ... arguments) {
+        if (null == literals || null == conversions) {
+            return String.format(text, arguments);
+        }
+
+        if (arguments.length < conversions.length) {
+            throw new MissingFormatArgumentException("%" + conversions[arguments.length]);
+        }
+
+        StringBuilder builder = new StringBuilder(literalsLength + conversions.length * ESTIMATED_ARGUMENT_LENGTH);
+        builder.append(literals[0]);
+
+        for (int i = 0; i < conversions.length; i++) {
+            Object argument = arguments[i];
+
+            if ('d' == conversions[i] && null != argument && !isIntegral(argument)) {
+                throw new IllegalFormatConversionException('d', argument.getClass());
+            }
+
+            builder.append(argument).append(literals[i + 1]);
+        }
+
+        return builder.toString();
+    }
+
+    @Contract(pure = true)
+    private static boolean isIntegral(@NotNull final Object argument) {
+        return argument instanceof Long || argument instanceof Integer || argument instanceof Short
+                || argument instanceof Byte || argument instanceof BigInteger;
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "MessageTemplate{" +
+                "text='" + text + '\'' +
+                ", arguments=" + (null == conversions ? "unparsed" : conversions.length) +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package nl.tijsbeek.utils;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * The messages of a single locale, see {@link MessageCatalog}.
+ * <br/>
+ * This is immutable once loaded, so it can be read by any thread without locking.
+ */
+public final class Messages {
+    private final String baseName;
+    private final Locale locale;
+    private final Map<String, MessageTemplate> templates;
+
+    private Messages(@NotNull final String baseName, @NotNull final Locale locale, @NotNull final Map<String, MessageTemplate> templates) {
+        this.baseName = baseName;
+        this.locale = locale;
+        this.templates = templates;
+    }
+
+    /**
+     * Loads all messages of the given bundle, including the ones it inherits from its parents.
+     *
+     * @param baseName the name of the bundle, used for {@link MissingResourceException}
+     * @param bundle the {@link ResourceBundle}
+     *
+     * @return the {@link Messages} of the bundle
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    static Messages load(@NotNull final String baseName, @NotNull final ResourceBundle bundle) {
+        Map<String, MessageTemplate> templates = new HashMap<>();
+
+        for (final String key : bundle.keySet()) {
+            templates.put(key, MessageTemplate.parse(bundle.getString(key)));
+        }
+
+        return new Messages(baseName, bundle.getLocale(), Map.copyOf(templates));
+    }
+
+    /**
+     * Returns the message without formatting it, like {@link ResourceBundle#getString(String)}.
+     *
+     * @param key the key of the message
+     *
+     * @return the message
+     *
+     * @throws MissingResourceException when there's no message for the key
+     */
+    @NotNull
+    public String getString(@NotNull final String key) {
+        return getTemplate(key).getText();
+    }
+
+    /**
+     * Returns the formatted message, like {@link ResourceBundle#getString(String)} followed by {@link String#formatted(Object...)}.
+     * <br/>
+     * Only the arguments get formatted, the message itself was parsed when it got loaded.
+     *
+     * @param key the key of the message
+     * @param arguments the arguments of the message
+     *
+     * @return the formatted message
+     *
+     * @throws MissingResourceException when there's no message for the key
+     */
+    @NotNull
+    public String format(@NotNull final String key, @Nullable final Object @NotNull ... arguments) {
+        return getTemplate(key).format(arguments);
+    }
+
+    @NotNull
+    private MessageTemplate getTemplate(@NotNull final String key) {
+        MessageTemplate template = templates.get(key);
+
+        if (null == template) {
+            throw new MissingResourceException("Can't find resource for bundle %s, key %s".formatted(baseName, key), baseName, key);
+        }
+
+        return template;
+    }
+
+    /**
+     * The locale of the bundle these messages are loaded from, {@link Locale#ROOT} for the default one.
+     *
+     * @return the {@link Locale}
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "Messages{" +
+                "baseName='" + baseName + '\'' +
+                ", locale=" + locale +
+                ", messages=" + templates.size() +
+                '}';
+    }
+}
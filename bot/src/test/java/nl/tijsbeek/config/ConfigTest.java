@@ -5,6 +5,7 @@ import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class ConfigTest {
 
@@ -43,4 +44,29 @@ class ConfigTest {
         assertEquals(databaseUsername, config.getDatabaseUsername());
         assertEquals(databasePassword, config.getDatabasePassword());
     }
+
+    @Test
+    void byStringDefaults() throws JsonProcessingException {
+        @Language("json") String json = """
+                {
+                  "discord_token" : "FAKE-DISCORD-TOKEN",
+                  "prometheus_bot_port" : "9091"
+                }
+                """;
+
+        Config config = Config.byString(json);
+
+        assertEquals("pooled", config.getCommandExecutorMode());
+        assertEquals(0, config.getCommandExecutorMaxConcurrency());
+        assertNull(config.getComponentIdSecret());
+        assertEquals(300, config.getComponentSweepIntervalSeconds());
+        assertEquals(500, config.getComponentSweepBatchSize());
+        assertEquals(100, config.getComponentSweepBatchPauseMillis());
+        assertEquals(500, config.getAuditLogFlushIntervalMillis());
+        assertEquals(200, config.getAuditLogFlushBatchSize());
+        assertEquals("audit-log-journal.csv", config.getAuditLogJournalPath());
+        assertEquals("inline", config.getEventListenerMode());
+        assertEquals(1024, config.getEventListenerQueueCapacity());
+        assertEquals(4, config.getEventListenerGuildWorkers());
+    }
 }
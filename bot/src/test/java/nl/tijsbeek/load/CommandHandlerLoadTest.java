@@ -0,0 +1,229 @@
+package nl.tijsbeek.load;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.databases.Database;
+import nl.tijsbeek.discord.system.CommandHandler;
+import nl.tijsbeek.discord.system.ListenersList;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires synthetic interactions at a real {@link CommandHandler} and {@link Database}, at a fixed rate, and reports the latency,
+ * rejections and DB pool saturation.
+ * <br/>
+ * This only runs with {@code ./gradlew :bot:loadTest}, see {@link LoadTestSettings} for the settings.
+ * An embedded MariaDB is started, unless {@code load.databasePort} points to an existing one.
+ */
+@Tag("load")
+class CommandHandlerLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(CommandHandlerLoadTest.class);
+
+    private static final String DB_SCHEMA_BOT = "discordbot";
+
+    /**
+     * Button interactions reuse these components, modals get their own as they're deleted after use.
+     */
+    private static final int BUTTON_COMPONENTS = 256;
+
+    /**
+     * Every run fires the same interactions, so runs can be compared.
+     */
+    private static final long SEED = 42L;
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long DRAIN_POLL_MILLIS = 50;
+
+    private final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    @TempDir
+    Path tempDir;
+
+    @Nullable
+    private DB embeddedDatabase;
+    private Config config;
+    private Database database;
+    private CommandHandler commandHandler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String databasePort = settings.databasePort();
+
+        if (null == databasePort) {
+            DBConfigurationBuilder dbConfiguration = DBConfigurationBuilder.newBuilder();
+            // a free port
+            dbConfiguration.setPort(0);
+
+            embeddedDatabase = DB.newEmbeddedDB(dbConfiguration.build());
+            embeddedDatabase.start();
+            embeddedDatabase.createDB(DB_SCHEMA_BOT);
+
+            databasePort = Integer.toString(embeddedDatabase.getConfiguration().getPort());
+        }
+
+        @Language("json") String json = """
+                {
+                  "discord_token" : "FAKE-DISCORD-TOKEN",
+                  "prometheus_bot_port" : "9091",
+                  "database_port" : "%s",
+                  "database_username" : "%s",
+                  "database_password" : "%s",
+                  "audit_log_journal_path" : "%s"
+                }
+                """.formatted(databasePort, settings.databaseUsername(), settings.databasePassword(),
+                tempDir.resolve("audit-log-journal.csv").toString().replace("\\", "\\\\"));
+
+        config = Config.byString(json);
+        database = new Database(config);
+    }
+
+    @AfterEach
+    void tearDown() throws ManagedProcessException {
+        if (null != commandHandler) {
+            shutdown(commandHandler.getExecutor());
+            shutdown(commandHandler.getLowLatencyExecutor());
+        }
+
+        if (null != database) {
+            database.close();
+        }
+
+        if (null != embeddedDatabase) {
+            embeddedDatabase.stop();
+        }
+    }
+
+    @Test
+    void replaySyntheticTraffic() throws Exception {
+        int totalInteractions = settings.totalInteractions();
+
+        try (LoadRecorder recorder = new LoadRecorder(totalInteractions)) {
+            LoadTestCommand command = new LoadTestCommand(recorder);
+
+            ListenersList listenersList = mock(ListenersList.class);
+            when(listenersList.getCommands()).thenReturn(List.of(command));
+
+            commandHandler = new CommandHandler(database, listenersList, config);
+
+            List<Runnable> interactions = createInteractions(command, new SyntheticInteractions(recorder), totalInteractions);
+            database.getComponentRegistry().flush();
+
+            logger.info("Firing {} interactions at {} per second over {} guilds.", totalInteractions, settings.rate(), settings.guilds());
+
+            recorder.samplePool(database.getDataSource().getHikariPoolMXBean());
+            fire(interactions, recorder);
+            awaitHandled(recorder, totalInteractions);
+
+            LoadRecorder.LoadReport report = recorder.report(totalInteractions);
+            logger.info("Load test result:\n{}", report);
+
+            assertEquals(0, report.lost(), "Interactions were neither handled nor rejected");
+            assertTrue(report.p99Millis() <= settings.maxP99Millis(),
+                    "p99 of %.2f ms is above %d ms".formatted(report.p99Millis(), settings.maxP99Millis()));
+            assertTrue(report.rejectionRate() <= settings.maxRejectionRate(),
+                    "Rejection rate of %.4f is above %.4f".formatted(report.rejectionRate(), settings.maxRejectionRate()));
+        }
+    }
+
+    /**
+     * Creates all interactions up front, so creating the mocks doesn't slow down firing.
+     */
+    @NotNull
+    private List<Runnable> createInteractions(@NotNull final LoadTestCommand command, @NotNull final SyntheticInteractions synthetic,
+                                              final int totalInteractions) {
+        Random random = new Random(SEED);
+        GuildDistribution guildDistribution = new GuildDistribution(settings.guilds(), settings.guildSkew());
+
+        int totalWeight = settings.slashWeight() + settings.buttonWeight() + settings.modalWeight();
+        int[] types = new int[totalInteractions];
+        int modals = 0;
+
+        for (int i = 0; i < totalInteractions; i++) {
+            types[i] = random.nextInt(totalWeight);
+
+            if (types[i] >= settings.slashWeight() + settings.buttonWeight()) {
+                modals++;
+            }
+        }
+
+        List<String> buttonIds = command.createComponentIds(BUTTON_COMPONENTS);
+        List<String> modalIds = command.createComponentIds(modals);
+        int modalIndex = 0;
+
+        List<Runnable> interactions = new ArrayList<>(totalInteractions);
+
+        for (int id = 0; id < totalInteractions; id++) {
+            long guildId = guildDistribution.next(random);
+
+            if (types[id] < settings.slashWeight()) {
+                var event = synthetic.slashCommand(id, guildId);
+                interactions.add(() -> commandHandler.onSlashCommandInteraction(event));
+            } else if (types[id] < settings.slashWeight() + settings.buttonWeight()) {
+                var event = synthetic.button(id, guildId, buttonIds.get(random.nextInt(BUTTON_COMPONENTS)));
+                interactions.add(() -> commandHandler.onButtonInteraction(event));
+            } else {
+                var event = synthetic.modal(id, guildId, modalIds.get(modalIndex++));
+                interactions.add(() -> commandHandler.onModalInteraction(event));
+            }
+        }
+
+        return interactions;
+    }
+
+    /**
+     * Fires the interactions at a fixed rate, without waiting for the previous ones to complete.
+     */
+    private void fire(@NotNull final List<Runnable> interactions, @NotNull final LoadRecorder recorder) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+
+        for (int id = 0; id < interactions.size(); id++) {
+            long scheduled = start + id * intervalNanos;
+
+            long waitNanos;
+            while (0 < (waitNanos = scheduled - System.nanoTime())) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            recorder.fired(id, scheduled);
+            interactions.get(id).run();
+        }
+    }
+
+    private static void awaitHandled(@NotNull final LoadRecorder recorder, final int totalInteractions) throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+
+        while (recorder.handled() < totalInteractions && 0 < deadline - System.nanoTime()) {
+            TimeUnit.MILLISECONDS.sleep(DRAIN_POLL_MILLIS);
+        }
+    }
+
+    private static void shutdown(@NotNull final Executor executor) {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+}
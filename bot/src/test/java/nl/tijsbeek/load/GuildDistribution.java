@@ -0,0 +1,48 @@
+package nl.tijsbeek.load;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks guilds following a Zipf distribution, so a few large guilds get most of the interactions, like in production.
+ * <br/>
+ * The guild of rank {@code k} gets a weight of {@code 1 / k^skew}, a skew of 0 spreads the interactions evenly.
+ */
+final class GuildDistribution {
+    private static final long FIRST_GUILD_ID = 272_761_734_820_003_841L;
+
+    private final double[] cumulativeWeights;
+
+    GuildDistribution(final int guilds, final double skew) {
+        if (0 >= guilds) {
+            throw new IllegalArgumentException("There should be at least 1 guild, found " + guilds);
+        }
+
+        cumulativeWeights = new double[guilds];
+
+        double total = 0;
+        for (int rank = 1; rank <= guilds; rank++) {
+            total += 1 / Math.pow(rank, skew);
+            cumulativeWeights[rank - 1] = total;
+        }
+    }
+
+    /**
+     * Picks the ID of the next guild.
+     *
+     * @param random the {@link Random} to pick with
+     *
+     * @return the ID of the guild
+     */
+    long next(@NotNull final Random random) {
+        double value = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, value);
+
+        // binarySearch returns (-insertion point - 1) when there's no exact match
+        int rank = 0 <= index ? index : -index - 1;
+
+        return FIRST_GUILD_ID + Math.min(rank, cumulativeWeights.length - 1);
+    }
+}
@@ -0,0 +1,157 @@
+package nl.tijsbeek.load;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records when every interaction was fired and completed, which got rejected, and how saturated the DB pool was.
+ * <br/>
+ * Interactions are identified by their ID, which the {@link SyntheticInteractions} number from 0.
+ */
+final class LoadRecorder implements AutoCloseable {
+    private static final long POOL_SAMPLE_INTERVAL_MILLIS = 10;
+
+    private final long[] firedNanos;
+    private final long[] latencyNanos;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private final ScheduledExecutorService poolSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LoadRecorder-pool-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int maxActiveConnections;
+    private volatile int maxAwaitingThreads;
+    // only written by the sampler thread
+    private volatile long poolSamples;
+    private volatile long saturatedPoolSamples;
+
+    LoadRecorder(final int totalInteractions) {
+        firedNanos = new long[totalInteractions];
+        latencyNanos = new long[totalInteractions];
+    }
+
+    /**
+     * Samples the given pool every {@value #POOL_SAMPLE_INTERVAL_MILLIS} milliseconds, until this is closed.
+     *
+     * @param pool the pool of the DB
+     */
+    void samplePool(@NotNull final HikariPoolMXBean pool) {
+        poolSampler.scheduleAtFixedRate(() -> {
+            int active = pool.getActiveConnections();
+            int awaiting = pool.getThreadsAwaitingConnection();
+
+            maxActiveConnections = Math.max(maxActiveConnections, active);
+            maxAwaitingThreads = Math.max(maxAwaitingThreads, awaiting);
+
+            poolSamples++;
+            if (0 < awaiting) {
+                saturatedPoolSamples++;
+            }
+        }, 0, POOL_SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records when the interaction was scheduled to fire, latencies are measured from then.
+     * <br/>
+     * Using the scheduled time, and not the time it actually fired, keeps a slow handler from hiding its own latency.
+     *
+     * @param id the ID of the interaction
+     * @param scheduledNanos the {@link System#nanoTime()} the interaction was scheduled at
+     */
+    void fired(final int id, final long scheduledNanos) {
+        firedNanos[id] = scheduledNanos;
+    }
+
+    void completed(final long id) {
+        latencyNanos[completed.getAndIncrement()] = System.nanoTime() - firedNanos[(int) id];
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+
+    /**
+     * The amount of interactions that either completed or got rejected.
+     *
+     * @return the amount of handled interactions
+     */
+    long handled() {
+        return completed.get() + rejected.sum();
+    }
+
+    @NotNull
+    LoadReport report(final int fired) {
+        int completedCount = completed.get();
+        long[] latencies = Arrays.copyOf(latencyNanos, completedCount);
+        Arrays.sort(latencies);
+
+        long rejectedCount = rejected.sum();
+
+        return new LoadReport(fired, completedCount, rejectedCount, fired - completedCount - rejectedCount,
+                percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999),
+                maxActiveConnections, maxAwaitingThreads, 0 == poolSamples ? 0 : (double) saturatedPoolSamples / poolSamples);
+    }
+
+    @Contract(pure = true)
+    private static double percentileMillis(final long @NotNull [] sortedLatencies, final double percentile) {
+        if (0 == sortedLatencies.length) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    @Override
+    public void close() {
+        poolSampler.shutdownNow();
+    }
+
+    /**
+     * The result of a load test.
+     *
+     * @param fired the amount of fired interactions
+     * @param completed the amount of interactions the command completed
+     * @param rejected the amount of interactions rejected with a "busy" reply
+     * @param lost the amount of interactions that neither completed nor got rejected in time
+     * @param p50Millis the median latency from firing to completion
+     * @param p99Millis the 99th percentile latency
+     * @param p999Millis the 99.9th percentile latency
+     * @param maxActiveConnections the most DB connections in use at once
+     * @param maxAwaitingThreads the most threads waiting for a DB connection at once
+     * @param poolSaturation the fraction of samples where threads were waiting for a DB connection
+     */
+    record LoadReport(int fired, int completed, long rejected, long lost, double p50Millis, double p99Millis, double p999Millis,
+                      int maxActiveConnections, int maxAwaitingThreads, double poolSaturation) {
+
+        double rejectionRate() {
+            return 0 == fired ? 0 : (double) rejected / fired;
+        }
+
+        @NonNls
+        @NotNull
+        @Override
+        @Contract(pure = true)
+        public String toString() {
+            return """
+                    fired %d, completed %d, rejected %d (%.2f%%), lost %d
+                    latency p50 %.2f ms, p99 %.2f ms, p999 %.2f ms
+                    DB pool: max %d active connections, max %d threads waiting, saturated %.2f%% of the time"""
+                    .formatted(fired, completed, rejected, rejectionRate() * 100, lost,
+                            p50Millis, p99Millis, p999Millis,
+                            maxActiveConnections, maxAwaitingThreads, poolSaturation * 100);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package nl.tijsbeek.load;
+
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import nl.tijsbeek.discord.commands.InteractionCommandVisibility;
+import nl.tijsbeek.discord.commands.abstractions.AbstractSlashCommand;
+import nl.tijsbeek.discord.commands.commands.slash.ReportSlashCommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A command doing the DB work of the real commands, it reports to the {@link LoadRecorder} once it's done.
+ * <ul>
+ *     <li>the slash-command reads a page of history and creates a component, like {@code /history}</li>
+ *     <li>the button reads a page of history, like the "next" button of {@code /history}</li>
+ *     <li>the modal submits an audit log entry, like the report commands</li>
+ * </ul>
+ */
+final class LoadTestCommand extends AbstractSlashCommand {
+    static final String NAME = "load-test";
+
+    private static final long TARGET_ID = 257_500_867_568_205_824L;
+    private static final int PAGE_SIZE = 5;
+
+    private final LoadRecorder recorder;
+
+    LoadTestCommand(@NotNull final LoadRecorder recorder) {
+        super(Commands.slash(NAME, "Synthetic load"), InteractionCommandVisibility.GUILD_ONLY);
+
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void onSlashCommandInteraction(@NotNull final SlashCommandInteractionEvent event) {
+        database.getAuditLogDatabase().retrievePageByTargetId(event.getGuild().getIdLong(), TARGET_ID, null, PAGE_SIZE);
+        generateId("next", Long.toString(TARGET_ID));
+
+        recorder.completed(event.getIdLong());
+    }
+
+    @Override
+    public void onButtonInteraction(@NotNull final ButtonInteractionEvent event) {
+        database.getAuditLogDatabase().retrievePageByTargetId(event.getGuild().getIdLong(), TARGET_ID, null, PAGE_SIZE);
+
+        recorder.completed(event.getIdLong());
+    }
+
+    @Override
+    public void onModalInteraction(@NotNull final ModalInteractionEvent event) {
+        ReportSlashCommand.logReport(database, event.getGuild().getIdLong(), event.getUser().getIdLong(), TARGET_ID,
+                "Synthetic report", List.of());
+
+        recorder.completed(event.getIdLong());
+    }
+
+    /**
+     * Creates the given amount of component IDs for this command, the button and modal interactions use these.
+     *
+     * @param count the amount of IDs
+     *
+     * @return the IDs
+     */
+    @NotNull
+    List<String> createComponentIds(final int count) {
+        return generateIds(null, Collections.nCopies(count, new String[]{"load"}));
+    }
+}
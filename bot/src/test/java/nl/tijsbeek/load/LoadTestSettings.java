@@ -0,0 +1,67 @@
+package nl.tijsbeek.load;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The settings of a load test, read from the {@code load.*} system properties.
+ * <br/>
+ * The {@code loadTest} Gradle task passes {@code -Pload.*} properties on, like {@code ./gradlew :bot:loadTest -Pload.rate=500}.
+ *
+ * @param rate the amount of interactions fired per second
+ * @param durationSeconds how long interactions are fired
+ * @param guilds the amount of guilds the interactions are spread over
+ * @param guildSkew the exponent of the Zipf distribution over the guilds, 0 spreads them evenly
+ * @param slashWeight the weight of slash-commands in the mix
+ * @param buttonWeight the weight of buttons in the mix
+ * @param modalWeight the weight of modals in the mix
+ * @param maxP99Millis the p99 latency above which the test fails
+ * @param maxRejectionRate the fraction of rejected interactions above which the test fails
+ * @param databasePort the port of an existing MariaDB to use, null to start an embedded one
+ * @param databaseUsername the username of the existing MariaDB
+ * @param databasePassword the password of the existing MariaDB
+ */
+record LoadTestSettings(int rate, int durationSeconds, int guilds, double guildSkew,
+                        int slashWeight, int buttonWeight, int modalWeight,
+                        long maxP99Millis, double maxRejectionRate,
+                        @Nullable String databasePort, @NotNull String databaseUsername, @NotNull String databasePassword) {
+
+    @NotNull
+    static LoadTestSettings fromSystemProperties() {
+        String[] mix = property("mix", "60:30:10").split(":");
+
+        if (3 != mix.length) {
+            throw new IllegalArgumentException("load.mix should be slash:button:modal, like 60:30:10");
+        }
+
+        return new LoadTestSettings(
+                Integer.parseInt(property("rate", "200")),
+                Integer.parseInt(property("durationSeconds", "30")),
+                Integer.parseInt(property("guilds", "100")),
+                Double.parseDouble(property("guildSkew", "1.0")),
+                Integer.parseInt(mix[0]),
+                Integer.parseInt(mix[1]),
+                Integer.parseInt(mix[2]),
+                Long.parseLong(property("maxP99Millis", "250")),
+                Double.parseDouble(property("maxRejectionRate", "0.01")),
+                System.getProperty("load.databasePort"),
+                property("databaseUsername", "root"),
+                property("databasePassword", "")
+        );
+    }
+
+    @NotNull
+    private static String property(@NonNls @NotNull final String name, @NonNls @NotNull final String defaultValue) {
+        return System.getProperty("load." + name, defaultValue);
+    }
+
+    /**
+     * The amount of interactions fired during the whole test.
+     *
+     * @return the amount of interactions
+     */
+    int totalInteractions() {
+        return Math.multiplyExact(rate, durationSeconds);
+    }
+}
@@ -0,0 +1,121 @@
+package nl.tijsbeek.load;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds mocked interaction events for the {@link LoadTestCommand}, numbered from 0.
+ * <br/>
+ * The only reply the command handler sends itself is the "busy" reply, so every reply is counted as a rejection.
+ * All mocks are stub-only, otherwise Mockito remembers every invocation during the test.
+ */
+final class SyntheticInteractions {
+    private final LoadRecorder recorder;
+    private final ReplyCallbackAction replyAction;
+
+    private final GuildMessageChannel channel;
+    private final Member member;
+    private final User user;
+    private final Map<Long, Guild> guilds = new HashMap<>();
+
+    SyntheticInteractions(@NotNull final LoadRecorder recorder) {
+        this.recorder = recorder;
+
+        replyAction = mock(ReplyCallbackAction.class);
+        when(replyAction.setEphemeral(anyBoolean())).thenReturn(replyAction);
+
+        // an owner has all permissions, so the permission checks don't need roles and overrides
+        Guild homeGuild = mock(Guild.class);
+
+        channel = mock(GuildMessageChannel.class);
+        when(channel.getGuild()).thenReturn(homeGuild);
+
+        user = mock(User.class);
+        when(user.getIdLong()).thenReturn(283_958_125_678_362_624L);
+
+        member = mock(Member.class);
+        when(member.getUser()).thenReturn(user);
+        when(member.getIdLong()).thenReturn(user.getIdLong());
+        when(member.getGuild()).thenReturn(homeGuild);
+        when(member.isOwner()).thenReturn(true);
+    }
+
+    @NotNull
+    SlashCommandInteractionEvent slashCommand(final int id, final long guildId) {
+        SlashCommandInteractionEvent event = stubInteraction(mock(SlashCommandInteractionEvent.class), id, guildId);
+
+        when(event.getName()).thenReturn(LoadTestCommand.NAME);
+        when(event.getCommandType()).thenReturn(Command.Type.SLASH);
+
+        return event;
+    }
+
+    @NotNull
+    ButtonInteractionEvent button(final int id, final long guildId, @NotNull final String componentId) {
+        ButtonInteractionEvent event = stubInteraction(mock(ButtonInteractionEvent.class), id, guildId);
+
+        when(event.getComponentId()).thenReturn(componentId);
+
+        return event;
+    }
+
+    @NotNull
+    ModalInteractionEvent modal(final int id, final long guildId, @NotNull final String modalId) {
+        ModalInteractionEvent event = stubInteraction(mock(ModalInteractionEvent.class), id, guildId);
+
+        when(event.getModalId()).thenReturn(modalId);
+
+        return event;
+    }
+
+    @NotNull
+    private <T extends GenericInteractionCreateEvent & IReplyCallback> T stubInteraction(@NotNull final T event, final int id, final long guildId) {
+        when(event.getIdLong()).thenReturn((long) id);
+        when(event.getGuild()).thenReturn(guilds.computeIfAbsent(guildId, this::createGuild));
+        when(event.getMember()).thenReturn(member);
+        when(event.getUser()).thenReturn(user);
+        when(event.getGuildChannel()).thenReturn(channel);
+        when(event.getUserLocale()).thenReturn(DiscordLocale.ENGLISH_US);
+
+        when(event.reply(anyString())).thenAnswer(invocation -> {
+            recorder.rejected();
+            return replyAction;
+        });
+
+        return event;
+    }
+
+    @NotNull
+    private Guild createGuild(final long guildId) {
+        Guild guild = mock(Guild.class);
+
+        when(guild.getIdLong()).thenReturn(guildId);
+        when(guild.getSelfMember()).thenReturn(member);
+
+        return guild;
+    }
+
+    @NotNull
+    private static <T> T mock(@NotNull final Class<T> clazz) {
+        return Mockito.mock(clazz, Mockito.withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,49 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.databases.ArgumentCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArgumentCodecTest {
+
+    @Test
+    @DisplayName("Encoded arguments decode to the same arguments")
+    void roundTrip() {
+        List<String> arguments = List.of("next", "283958125678362624", "", "a \"quoted\", reason\nover 2 lines", "geëxporteerd 😀");
+
+        assertEquals(arguments, ArgumentCodec.decode(ArgumentCodec.encode(arguments)));
+    }
+
+    @Test
+    @DisplayName("Long arguments use a multi-byte length")
+    void longArgument() {
+        List<String> arguments = List.of("x".repeat(20_000));
+
+        assertEquals(arguments, ArgumentCodec.decode(ArgumentCodec.encode(arguments)));
+    }
+
+    @Test
+    @DisplayName("No arguments and null decode to an empty list")
+    void empty() {
+        assertEquals(List.of(), ArgumentCodec.decode(ArgumentCodec.encode(List.of())));
+        assertEquals(List.of(), ArgumentCodec.decode(null));
+        assertEquals(List.of(), ArgumentCodec.decode(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Invalid bytes are rejected")
+    void invalid() {
+        // count of 2, but only 1 argument
+        assertThrows(IllegalArgumentException.class, () -> ArgumentCodec.decode(new byte[]{2, 1, 'a'}));
+        // length longer than the remaining bytes
+        assertThrows(IllegalArgumentException.class, () -> ArgumentCodec.decode(new byte[]{1, 5, 'a'}));
+        // bytes after the last argument
+        assertThrows(IllegalArgumentException.class, () -> ArgumentCodec.decode(new byte[]{1, 1, 'a', 'b'}));
+        // varint that never ends
+        assertThrows(IllegalArgumentException.class, () -> ArgumentCodec.decode(new byte[]{(byte) 0x80, (byte) 0x80}));
+    }
+}
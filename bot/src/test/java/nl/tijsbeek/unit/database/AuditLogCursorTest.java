@@ -0,0 +1,29 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.databases.AuditLogPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogCursorTest {
+
+    @Test
+    @DisplayName("Cursor written as a string reads back to the same cursor")
+    void roundTrip() {
+        AuditLogPage.Cursor cursor = new AuditLogPage.Cursor(Instant.parse("2022-06-01T12:30:15Z"), 1_234_567L);
+
+        assertEquals(cursor, AuditLogPage.Cursor.fromString(cursor.asString()));
+    }
+
+    @Test
+    @DisplayName("Invalid cursor strings are rejected")
+    void invalid() {
+        assertNull(AuditLogPage.Cursor.fromString(""));
+        assertNull(AuditLogPage.Cursor.fromString("no-separator"));
+        assertNull(AuditLogPage.Cursor.fromString("l2k8x1c0."));
+        assertNull(AuditLogPage.Cursor.fromString("l2k8x1c0.!?"));
+    }
+}
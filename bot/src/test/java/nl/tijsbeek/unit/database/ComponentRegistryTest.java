@@ -0,0 +1,261 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.components.ComponentRegistry;
+import nl.tijsbeek.database.components.ComponentStore;
+import nl.tijsbeek.database.components.StatelessComponentIdCodec;
+import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.tables.ComponentEntity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentRegistryTest {
+    private final InMemoryStore store = new InMemoryStore();
+    private final ComponentRegistry registry = new ComponentRegistry(store, new StatelessComponentIdCodec("FAKE-SECRET"));
+
+    @AfterEach
+    void close() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Inserts are readable right away, and stored on the next flush")
+    void insert() {
+        String id = registry.insertAndReturnId(component("1-report", "argument"));
+
+        assertEquals(List.of("argument"), registry.retrieveById(id).getArguments());
+
+        registry.flush();
+
+        assertNotNull(store.rows.get(Long.parseLong(id)));
+        assertEquals(List.of("argument"), registry.retrieveById(id).getArguments());
+    }
+
+    @Test
+    @DisplayName("IDs come from reserved blocks")
+    void idBlocks() {
+        List<String> ids = registry.insertAllAndReturnIds(List.of(component("1-report"), component("1-report"), component("1-report")));
+
+        assertEquals(3, ids.stream().distinct().count());
+        assertEquals(1, store.reservedBlocks.get());
+    }
+
+    @Test
+    @DisplayName("Deletes hide the component right away, and remove it on the next flush")
+    void delete() {
+        store.rows.put(5L, component(5L, "1-report", "stored"));
+
+        assertNotNull(registry.deleteById(5L));
+        assertNull(registry.retrieveById(5L));
+
+        registry.flush();
+
+        assertFalse(store.rows.containsKey(5L));
+        assertNull(registry.retrieveById(5L));
+    }
+
+    @Test
+    @DisplayName("Replacing a stored component overwrites it")
+    void replace() {
+        store.rows.put(5L, component(5L, "1-report", "old"));
+        assertEquals(List.of("old"), registry.retrieveById(5L).getArguments());
+
+        registry.replace(component(5L, "1-report", "new"));
+        assertEquals(List.of("new"), registry.retrieveById(5L).getArguments());
+
+        registry.flush();
+
+        assertEquals(List.of("new"), store.rows.get(5L).getArguments());
+        assertEquals(List.of("new"), registry.retrieveById(5L).getArguments());
+    }
+
+    @Test
+    @DisplayName("A miss is read from the store once, and cached")
+    void cachesMisses() {
+        store.rows.put(5L, component(5L, "1-report", "stored"));
+
+        registry.retrieveById(5L);
+        registry.retrieveById(5L);
+
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    @DisplayName("A delete racing a miss doesn't put the deleted component back in the cache")
+    void deleteDuringRead() throws Exception {
+        store.rows.put(5L, component(5L, "1-report", "stored"));
+        store.blockNextRead();
+
+        CompletableFuture<ComponentEntity> read = CompletableFuture.supplyAsync(() -> registry.retrieveById(5L));
+        assertTrue(store.readStarted.await(5, TimeUnit.SECONDS));
+
+        // deleteById reads the component as well, this one isn't blocked
+        registry.deleteById(5L);
+        registry.flush();
+        assertFalse(store.rows.containsKey(5L));
+
+        store.releaseRead.countDown();
+        assertNotNull(read.get(5, TimeUnit.SECONDS));
+
+        assertNull(registry.retrieveById(5L));
+    }
+
+    @Test
+    @DisplayName("Failed flushes are retried")
+    void retry() {
+        String id = registry.insertAndReturnId(component("1-report"));
+
+        store.failing.set(true);
+        registry.flush();
+        assertFalse(store.rows.containsKey(Long.parseLong(id)));
+        assertNotNull(registry.retrieveById(id));
+
+        store.failing.set(false);
+        registry.flush();
+        assertTrue(store.rows.containsKey(Long.parseLong(id)));
+    }
+
+    @Test
+    @DisplayName("Flushed components stay readable until they're committed, even when the cache is full")
+    void readDuringFlush() throws Exception {
+        ComponentRegistry small = new ComponentRegistry(store, new StatelessComponentIdCodec("FAKE-SECRET"), 1);
+        String first = small.insertAndReturnId(component("1-report", "first"));
+        String second = small.insertAndReturnId(component("1-report", "second"));
+        store.blockNextApply();
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(small::flush);
+        assertTrue(store.applyStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("first"), small.retrieveById(first).getArguments());
+        assertEquals(List.of("second"), small.retrieveById(second).getArguments());
+        assertEquals(0, store.reads.get());
+
+        store.releaseApply.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+
+        assertNotNull(small.retrieveById(first));
+        assertNotNull(small.retrieveById(second));
+        small.close();
+    }
+
+    @Test
+    @DisplayName("Without a codec components are registered, and stateless ID's aren't accepted")
+    void withoutCodec() {
+        ComponentRegistry withoutCodec = new ComponentRegistry(store, null);
+        String statelessId = new StatelessComponentIdCodec("FAKE-SECRET").encode(component("1-report", "argument"));
+
+        String id = withoutCodec.insertStatelessOrReturnId(component("1-report", "argument"));
+        assertFalse(StatelessComponentIdCodec.isStateless(id));
+        assertNotNull(withoutCodec.retrieveById(id));
+
+        assertNotNull(statelessId);
+        assertNull(withoutCodec.retrieveById(statelessId));
+        withoutCodec.close();
+    }
+
+    @Test
+    @DisplayName("Closing flushes everything that's pending")
+    void closeFlushes() {
+        String id = registry.insertAndReturnId(component("1-report"));
+
+        registry.close();
+
+        assertTrue(store.rows.containsKey(Long.parseLong(id)));
+    }
+
+    @NotNull
+    private static ComponentEntity component(@NotNull final String listenerId, @NotNull final String... arguments) {
+        return new ComponentEntity(listenerId, null, List.of(arguments));
+    }
+
+    @NotNull
+    private static ComponentEntity component(final long id, @NotNull final String listenerId, @NotNull final String... arguments) {
+        return new ComponentEntity(Long.toString(id), listenerId, null, List.of(arguments));
+    }
+
+    /**
+     * A {@link ComponentStore} in memory, its next read or write can be blocked to race it.
+     */
+    private static final class InMemoryStore implements ComponentStore {
+        private final Map<Long, ComponentEntity> rows = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong(1);
+        private final AtomicInteger reservedBlocks = new AtomicInteger();
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        private final AtomicBoolean blockNextRead = new AtomicBoolean();
+        private final CountDownLatch readStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseRead = new CountDownLatch(1);
+
+        private final AtomicBoolean blockNextApply = new AtomicBoolean();
+        private final CountDownLatch applyStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseApply = new CountDownLatch(1);
+
+        void blockNextRead() {
+            blockNextRead.set(true);
+        }
+
+        void blockNextApply() {
+            blockNextApply.set(true);
+        }
+
+        @Override
+        public @Nullable ComponentEntity retrieveById(final long id) {
+            reads.incrementAndGet();
+            ComponentEntity componentEntity = rows.get(id);
+
+            if (blockNextRead.compareAndSet(true, false)) {
+                readStarted.countDown();
+
+                try {
+                    releaseRead.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return componentEntity;
+        }
+
+        @Override
+        public long reserveIdBlock() {
+            reservedBlocks.incrementAndGet();
+            return sequence.getAndAdd(ComponentDatabase.ID_BLOCK_SIZE);
+        }
+
+        @Override
+        public synchronized void applyChanges(@NotNull final Collection<Long> deletes, @NotNull final Collection<ComponentEntity> inserts) {
+            if (failing.get()) {
+                throw new IllegalStateException("Fake failure");
+            }
+
+            if (blockNextApply.compareAndSet(true, false)) {
+                applyStarted.countDown();
+
+                try {
+                    releaseApply.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            deletes.forEach(rows::remove);
+            inserts.forEach(componentEntity -> rows.put(Long.parseLong(componentEntity.getId()), componentEntity));
+        }
+    }
+}
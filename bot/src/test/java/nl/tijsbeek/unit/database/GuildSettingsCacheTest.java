@@ -0,0 +1,78 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.cache.GuildSettingsCache;
+import nl.tijsbeek.database.databases.GuildSettingsDatabase;
+import nl.tijsbeek.database.tables.GuildSettings;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class GuildSettingsCacheTest {
+    private final GuildSettingsDatabase guildSettingsDatabase = mock(GuildSettingsDatabase.class);
+    private final GuildSettingsCache cache = new GuildSettingsCache(guildSettingsDatabase);
+
+    @AfterEach
+    void close() {
+        cache.close();
+    }
+
+    @Test
+    @DisplayName("A load racing a replace doesn't overwrite the replaced settings")
+    void loadDuringReplace() {
+        when(guildSettingsDatabase.retrieveById(1L)).thenAnswer(invocation -> {
+            GuildSettings stale = settings(1L, 10L);
+            cache.replace(settings(1L, 20L));
+
+            return stale;
+        });
+
+        cache.retrieveById(1L);
+
+        assertEquals(20L, cache.retrieveById(1L).getReportChannelId());
+        verify(guildSettingsDatabase, times(1)).retrieveById(1L);
+    }
+
+    @Test
+    @DisplayName("A replace during bootstrap only keeps the replaced guild from being cached with the bootstrapped settings")
+    void bootstrapDuringReplace() {
+        when(guildSettingsDatabase.retrieveAllByIds(anyCollection())).thenAnswer(invocation -> {
+            List<GuildSettings> stale = List.of(settings(1L, 10L), settings(2L, 10L), settings(3L, 10L));
+            cache.replace(settings(1L, 20L));
+
+            return stale;
+        });
+
+        cache.bootstrap(List.of(1L, 2L, 3L));
+
+        assertEquals(20L, cache.retrieveById(1L).getReportChannelId());
+        assertTrue(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+        verify(guildSettingsDatabase, never()).retrieveById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Writes after a load finished are applied as usual")
+    void writeAfterLoad() {
+        when(guildSettingsDatabase.retrieveById(1L)).thenReturn(settings(1L, 10L));
+
+        cache.retrieveById(1L);
+        cache.replace(settings(1L, 20L));
+
+        assertEquals(20L, cache.retrieveById(1L).getReportChannelId());
+    }
+
+    @NotNull
+    private static GuildSettings settings(final long guildId, final long reportChannelId) {
+        GuildSettings guildSettings = new GuildSettings(guildId);
+        guildSettings.setReportChannelId(reportChannelId);
+
+        return guildSettings;
+    }
+}
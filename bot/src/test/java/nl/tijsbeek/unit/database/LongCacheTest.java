@@ -0,0 +1,94 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.cache.LongCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongCacheTest {
+
+    @Test
+    @DisplayName("Put, get and remove")
+    void putGetRemove() {
+        LongCache<String> cache = new LongCache<>(1_000);
+
+        for (long key = 0; key < 500; key++) {
+            cache.put(key * 272366386476892160L, "value" + key, key);
+        }
+
+        for (long key = 0; key < 500; key += 2) {
+            assertTrue(cache.remove(key * 272366386476892160L));
+        }
+
+        assertEquals(250, cache.size());
+
+        for (long key = 0; key < 500; key++) {
+            LongCache.Entry<String> entry = cache.get(key * 272366386476892160L);
+
+            if (0 == key % 2) {
+                assertNull(entry);
+            } else {
+                assertNotNull(entry);
+                assertEquals("value" + key, entry.value());
+                assertEquals(key, entry.loadedAt());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Size stays bounded")
+    void bounded() {
+        LongCache<String> cache = new LongCache<>(160);
+
+        for (long key = 0; key < 10_000; key++) {
+            cache.put(key, "value", 0L);
+        }
+
+        assertEquals(160, cache.size());
+    }
+
+    @Test
+    @DisplayName("containsKey doesn't mark the entry as recently used")
+    void containsKeyDoesNotTouch() {
+        long[] keys = keysOfOneSegment(3);
+
+        // a read gives the first key a second chance, so the second one gets evicted
+        LongCache<String> readFirst = new LongCache<>(32);
+        readFirst.put(keys[0], "first", 0L);
+        readFirst.put(keys[1], "second", 0L);
+        readFirst.get(keys[0]);
+        assertTrue(readFirst.containsKey(keys[1]));
+        readFirst.put(keys[2], "third", 0L);
+
+        assertTrue(readFirst.containsKey(keys[0]));
+        assertFalse(readFirst.containsKey(keys[1]));
+
+        // the other way around, the first key gets evicted
+        LongCache<String> readSecond = new LongCache<>(32);
+        readSecond.put(keys[0], "first", 0L);
+        readSecond.put(keys[1], "second", 0L);
+        readSecond.get(keys[1]);
+        assertTrue(readSecond.containsKey(keys[0]));
+        readSecond.put(keys[2], "third", 0L);
+
+        assertFalse(readSecond.containsKey(keys[0]));
+        assertTrue(readSecond.containsKey(keys[1]));
+    }
+
+    /**
+     * Finds keys which end up in the same segment, the segment is picked by the top 4 bits of the key's hash.
+     */
+    private static long[] keysOfOneSegment(final int amount) {
+        long[] keys = new long[amount];
+        int found = 0;
+
+        for (long key = 1; found < amount; key++) {
+            if (0 == (key * 0x9E3779B97F4A7C15L) >>> 60) {
+                keys[found++] = key;
+            }
+        }
+
+        return keys;
+    }
+}
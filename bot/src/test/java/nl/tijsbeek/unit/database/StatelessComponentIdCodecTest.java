@@ -0,0 +1,53 @@
+package nl.tijsbeek.unit.database;
+
+import nl.tijsbeek.database.components.StatelessComponentIdCodec;
+import nl.tijsbeek.database.tables.ComponentEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatelessComponentIdCodecTest {
+    private final StatelessComponentIdCodec codec = new StatelessComponentIdCodec("FAKE-SECRET");
+
+    @Test
+    @DisplayName("Encoded ID decodes to the same component")
+    void roundTrip() {
+        LocalDateTime expireDate = LocalDateTime.of(2022, 6, 1, 12, 30, 15);
+        ComponentEntity componentEntity = new ComponentEntity("3-report", expireDate, List.of("272366386476892160", "191239127431102465"));
+
+        String id = codec.encode(componentEntity);
+
+        assertNotNull(id);
+        assertTrue(id.length() <= StatelessComponentIdCodec.MAX_ID_LENGTH);
+        assertTrue(StatelessComponentIdCodec.isStateless(id));
+
+        ComponentEntity decoded = codec.decode(id);
+
+        assertNotNull(decoded);
+        assertEquals(id, decoded.getId());
+        assertEquals(componentEntity.getListenerId(), decoded.getListenerId());
+        assertEquals(expireDate, decoded.getExpireDate());
+        assertEquals(componentEntity.getArguments(), decoded.getArguments());
+    }
+
+    @Test
+    @DisplayName("Tampered ID is rejected")
+    void tampered() {
+        String id = codec.encode(new ComponentEntity("1-coin-flip", null, List.of("retry", "272366386476892160")));
+
+        assertNotNull(id);
+        assertNull(codec.decode(id.replace("272366386476892160", "191239127431102465")));
+        assertNull(new StatelessComponentIdCodec("OTHER-SECRET").decode(id));
+    }
+
+    @Test
+    @DisplayName("Components that don't fit aren't encoded")
+    void doesNotFit() {
+        assertNull(codec.encode(new ComponentEntity("2-report", null, List.of("a".repeat(100)))));
+        assertNull(codec.encode(new ComponentEntity("2-report", null, List.of("contains | separator"))));
+    }
+}
@@ -0,0 +1,108 @@
+package nl.tijsbeek.unit.discord;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.discord.events.AbstractEventListener;
+import nl.tijsbeek.discord.events.CustomEventListener;
+import nl.tijsbeek.discord.system.EventHandler;
+import nl.tijsbeek.discord.system.ListenersList;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class EventHandlerTest {
+
+    @Test
+    @DisplayName("Events only reach the listeners overriding their method, or one of a superclass")
+    void routesByEventType() {
+        JoinListener joinListener = new JoinListener();
+        GuildListener guildListener = new GuildListener();
+        CustomEventListener plainListener = mock(CustomEventListener.class);
+
+        EventHandler eventHandler = createEventHandler(joinListener, guildListener, plainListener);
+
+        GuildJoinEvent joinEvent = mock(GuildJoinEvent.class);
+        GuildReadyEvent readyEvent = mock(GuildReadyEvent.class);
+        MessageReceivedEvent messageEvent = mock(MessageReceivedEvent.class);
+
+        eventHandler.onEvent(joinEvent);
+        eventHandler.onEvent(readyEvent);
+        eventHandler.onEvent(messageEvent);
+        eventHandler.onEvent(joinEvent);
+
+        assertEquals(List.of(joinEvent, joinEvent), joinListener.events);
+        assertEquals(List.of(joinEvent, readyEvent, joinEvent), guildListener.events);
+
+        // listeners which aren't a ListenerAdapter receive everything
+        verify(plainListener, times(2)).onEvent(joinEvent);
+        verify(plainListener).onEvent(readyEvent);
+        verify(plainListener).onEvent(messageEvent);
+    }
+
+    @Test
+    @DisplayName("Queued listeners handle their events on their own worker")
+    void queuedListener() throws InterruptedException {
+        CountDownLatch handled = new CountDownLatch(1);
+        List<String> threadNames = new ArrayList<>();
+
+        AbstractEventListener listener = new AbstractEventListener() {
+            @Override
+            public void onGuildJoin(@NotNull final GuildJoinEvent event) {
+                threadNames.add(Thread.currentThread().getName());
+                handled.countDown();
+            }
+        };
+
+        ListenersList listenersList = mock(ListenersList.class);
+        when(listenersList.getEventListeners()).thenReturn(List.of(listener));
+
+        Config config = mock(Config.class);
+        when(config.getEventListenerMode()).thenReturn("queued");
+        when(config.getEventListenerQueueCapacity()).thenReturn(16);
+        when(config.getEventListenerGuildWorkers()).thenReturn(2);
+
+        new EventHandler(listenersList, config).onEvent(mock(GuildJoinEvent.class, RETURNS_DEEP_STUBS));
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS), "The event wasn't handled");
+        assertTrue(threadNames.get(0).startsWith("EventListener-"), threadNames.get(0));
+    }
+
+    @NotNull
+    private static EventHandler createEventHandler(@NotNull final CustomEventListener... listeners) {
+        ListenersList listenersList = mock(ListenersList.class);
+        when(listenersList.getEventListeners()).thenReturn(List.of(listeners));
+
+        return new EventHandler(listenersList);
+    }
+
+    private static class JoinListener extends AbstractEventListener {
+        private final List<GenericEvent> events = new ArrayList<>();
+
+        @Override
+        public void onGuildJoin(@NotNull final GuildJoinEvent event) {
+            events.add(event);
+        }
+    }
+
+    private static class GuildListener extends AbstractEventListener {
+        private final List<GenericEvent> events = new ArrayList<>();
+
+        @Override
+        public void onGenericGuild(@NotNull final GenericGuildEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nl.tijsbeek.unit.discord;
+
+import nl.tijsbeek.discord.system.execution.FairInteractionScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairInteractionSchedulerTest {
+    private static final long FIRST_GUILD = 1L;
+    private static final long SECOND_GUILD = 2L;
+
+    @Test
+    @DisplayName("Guilds take turns, regardless of the order their tasks got queued in")
+    void roundRobin() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 1, 16);
+        List<String> ran = new ArrayList<>();
+
+        for (int i = 1; 3 >= i; i++) {
+            submit(scheduler, FIRST_GUILD, "a" + i, ran);
+        }
+        for (int i = 1; 3 >= i; i++) {
+            submit(scheduler, SECOND_GUILD, "b" + i, ran);
+        }
+
+        executor.runAll();
+
+        assertEquals(List.of("a1", "b1", "a2", "b2", "a3", "b3"), ran);
+    }
+
+    @Test
+    @DisplayName("A guild gets as many tasks per turn as its weight")
+    void weights() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 1, 16,
+                guildId -> FIRST_GUILD == guildId ? 2 : 1);
+        List<String> ran = new ArrayList<>();
+
+        for (int i = 1; 3 >= i; i++) {
+            submit(scheduler, FIRST_GUILD, "a" + i, ran);
+        }
+        for (int i = 1; 3 >= i; i++) {
+            submit(scheduler, SECOND_GUILD, "b" + i, ran);
+        }
+
+        executor.runAll();
+
+        assertEquals(List.of("a1", "a2", "b1", "a3", "b2", "b3"), ran);
+    }
+
+    @Test
+    @DisplayName("A guild over its budget is rejected, other guilds aren't")
+    void budget() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 1, 2);
+        List<String> ran = new ArrayList<>();
+
+        assertTrue(submit(scheduler, FIRST_GUILD, "a1", ran));
+        assertTrue(submit(scheduler, FIRST_GUILD, "a2", ran));
+        assertFalse(submit(scheduler, FIRST_GUILD, "a3", ran));
+        assertTrue(submit(scheduler, SECOND_GUILD, "b1", ran));
+
+        assertEquals(2, scheduler.getQueueDepth(FIRST_GUILD));
+        assertEquals(3, scheduler.getQueuedTasks());
+
+        executor.runAll();
+
+        assertEquals(List.of("a1", "b1", "a2"), ran);
+        assertEquals(0, scheduler.getQueueDepth(FIRST_GUILD));
+        assertEquals(0, scheduler.getQueuedTasks());
+    }
+
+    @Test
+    @DisplayName("Tasks still queued after their deadline are dropped")
+    void deadline() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 1, 16);
+        List<String> ran = new ArrayList<>();
+
+        scheduler.submit(FIRST_GUILD, () -> ran.add("expired"), System.nanoTime() - 1);
+        scheduler.submit(FIRST_GUILD, () -> ran.add("in time"), Long.MAX_VALUE);
+
+        executor.runAll();
+
+        assertEquals(List.of("in time"), ran);
+    }
+
+    @Test
+    @DisplayName("No more workers than the maximum are started, and finished workers are started again")
+    void workers() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 2, 16);
+        List<String> ran = new ArrayList<>();
+
+        submit(scheduler, FIRST_GUILD, "a1", ran);
+        submit(scheduler, SECOND_GUILD, "b1", ran);
+        submit(scheduler, 3L, "c1", ran);
+
+        assertEquals(2, executor.workers.size());
+
+        executor.runAll();
+        assertEquals(List.of("a1", "b1", "c1"), ran);
+
+        submit(scheduler, FIRST_GUILD, "a2", ran);
+        assertEquals(1, executor.workers.size());
+    }
+
+    @Test
+    @DisplayName("When the executor can't start a worker, the task is dequeued and rejected")
+    void executorRejection() {
+        List<String> ran = new ArrayList<>();
+        FairInteractionScheduler rejecting = new FairInteractionScheduler("test", command -> {
+            throw new RejectedExecutionException("test");
+        }, 1, 16);
+
+        assertFalse(submit(rejecting, FIRST_GUILD, "a1", ran));
+        assertEquals(0, rejecting.getQueueDepth(FIRST_GUILD));
+        assertEquals(0, rejecting.getQueuedTasks());
+        assertEquals(List.of(), ran);
+    }
+
+    @Test
+    @DisplayName("A worker killed by an Error frees its slot, and another worker runs the remaining tasks")
+    void workerError() {
+        ManualExecutor executor = new ManualExecutor();
+        FairInteractionScheduler scheduler = new FairInteractionScheduler("test", executor, 1, 16);
+        List<String> ran = new ArrayList<>();
+
+        scheduler.submit(FIRST_GUILD, () -> {
+            throw new Error("test");
+        });
+        submit(scheduler, SECOND_GUILD, "b1", ran);
+
+        Runnable worker = executor.workers.remove(0);
+        assertThrows(Error.class, worker::run);
+        assertEquals(1, executor.workers.size());
+
+        executor.runAll();
+        assertEquals(List.of("b1"), ran);
+
+        submit(scheduler, FIRST_GUILD, "a2", ran);
+        assertEquals(1, executor.workers.size());
+    }
+
+    private static boolean submit(@NotNull final FairInteractionScheduler scheduler, final long guildId,
+                                  @NotNull final String name, @NotNull final List<? super String> ran) {
+        return scheduler.submit(guildId, () -> ran.add(name));
+    }
+
+    /**
+     * Collects the workers, so the test decides when they run.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> workers = new ArrayList<>();
+
+        @Override
+        public void execute(@NotNull final Runnable command) {
+            workers.add(command);
+        }
+
+        void runAll() {
+            List<Runnable> toRun = new ArrayList<>(workers);
+            workers.clear();
+
+            toRun.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package nl.tijsbeek.unit.discord;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import nl.tijsbeek.discord.events.CustomEventListener;
+import nl.tijsbeek.discord.system.execution.EventOrdering;
+import nl.tijsbeek.discord.system.execution.EventOverflowPolicy;
+import nl.tijsbeek.discord.system.execution.ListenerQueue;
+import nl.tijsbeek.prometheus.Metrics;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListenerQueueTest {
+    private static final String LISTENER_NAME = "RecordingListener";
+
+    @Test
+    @DisplayName("BLOCK makes the caller wait until the queue has space, and keeps every event")
+    void block() throws Exception {
+        RecordingListener listener = new RecordingListener(EventOrdering.GLOBAL, EventOverflowPolicy.BLOCK, 3);
+        ListenerQueue queue = new ListenerQueue(listener, 1, 1);
+        GenericEvent first = mock(GenericEvent.class);
+        GenericEvent second = mock(GenericEvent.class);
+        GenericEvent third = mock(GenericEvent.class);
+
+        queue.onEvent(first);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        queue.onEvent(second);
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> queue.onEvent(third));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        listener.release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+
+        assertTrue(listener.handled.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(first, second, third), listener.events);
+        assertEquals(0.0, queuedGauge());
+    }
+
+    @Test
+    @DisplayName("DROP_NEWEST drops the event which doesn't fit")
+    void dropNewest() throws InterruptedException {
+        RecordingListener listener = new RecordingListener(EventOrdering.GLOBAL, EventOverflowPolicy.DROP_NEWEST, 2);
+        ListenerQueue queue = new ListenerQueue(listener, 1, 1);
+        GenericEvent first = mock(GenericEvent.class);
+        GenericEvent second = mock(GenericEvent.class);
+        GenericEvent third = mock(GenericEvent.class);
+        double droppedBefore = droppedCounter();
+
+        queue.onEvent(first);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        queue.onEvent(second);
+        queue.onEvent(third);
+
+        assertEquals(1.0, queuedGauge());
+        listener.release.countDown();
+
+        assertTrue(listener.handled.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(first, second), listener.events);
+        assertEquals(1.0, droppedCounter() - droppedBefore);
+        assertEquals(0.0, queuedGauge());
+    }
+
+    @Test
+    @DisplayName("DROP_OLDEST drops the longest queued event to make space")
+    void dropOldest() throws InterruptedException {
+        RecordingListener listener = new RecordingListener(EventOrdering.GLOBAL, EventOverflowPolicy.DROP_OLDEST, 2);
+        ListenerQueue queue = new ListenerQueue(listener, 1, 1);
+        GenericEvent first = mock(GenericEvent.class);
+        GenericEvent second = mock(GenericEvent.class);
+        GenericEvent third = mock(GenericEvent.class);
+        double droppedBefore = droppedCounter();
+
+        queue.onEvent(first);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        queue.onEvent(second);
+        queue.onEvent(third);
+
+        assertEquals(1.0, queuedGauge());
+        listener.release.countDown();
+
+        assertTrue(listener.handled.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(first, third), listener.events);
+        assertEquals(1.0, droppedCounter() - droppedBefore);
+        assertEquals(0.0, queuedGauge());
+    }
+
+    @Test
+    @DisplayName("With GUILD ordering the events of a guild are handled in order, while guilds are spread over the workers")
+    void guildOrdering() throws InterruptedException {
+        int guilds = 8;
+        int eventsPerGuild = 50;
+
+        RecordingListener listener = new RecordingListener(EventOrdering.GUILD, EventOverflowPolicy.BLOCK, guilds * eventsPerGuild);
+        listener.release.countDown();
+        ListenerQueue queue = new ListenerQueue(listener, 64, 4);
+
+        Map<Long, List<GenericEvent>> sentPerGuild = new ConcurrentHashMap<>();
+        for (int i = 0; i < eventsPerGuild; i++) {
+            for (long guildId = 1; guildId <= guilds; guildId++) {
+                GenericGuildEvent event = guildEvent(guildId);
+
+                sentPerGuild.computeIfAbsent(guildId, id -> new ArrayList<>()).add(event);
+                queue.onEvent(event);
+            }
+        }
+
+        assertTrue(listener.handled.await(5, TimeUnit.SECONDS));
+
+        for (long guildId = 1; guildId <= guilds; guildId++) {
+            long id = guildId;
+            List<GenericEvent> handled = listener.events.stream()
+                    .filter(event -> ((GenericGuildEvent) event).getGuild().getIdLong() == id)
+                    .toList();
+
+            assertEquals(sentPerGuild.get(guildId), handled);
+        }
+
+        assertEquals(0.0, queuedGauge());
+    }
+
+    @Test
+    @DisplayName("A worker killed by an Error is replaced, and the queue keeps draining")
+    void workerError() throws InterruptedException {
+        RecordingListener listener = new RecordingListener(EventOrdering.GLOBAL, EventOverflowPolicy.BLOCK, 1);
+        listener.release.countDown();
+        ListenerQueue queue = new ListenerQueue(listener, 4, 1);
+        GenericEvent failing = mock(GenericEvent.class);
+        GenericEvent second = mock(GenericEvent.class);
+        listener.failing.add(failing);
+
+        queue.onEvent(failing);
+        queue.onEvent(second);
+
+        assertTrue(listener.handled.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(second), listener.events);
+        assertEquals(0.0, queuedGauge());
+
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Closing drops the queued events, frees blocked callers and drops events given afterwards")
+    void close() throws Exception {
+        RecordingListener listener = new RecordingListener(EventOrdering.GLOBAL, EventOverflowPolicy.BLOCK, 1);
+        ListenerQueue queue = new ListenerQueue(listener, 1, 1);
+        double droppedBefore = droppedCounter();
+
+        queue.onEvent(mock(GenericEvent.class));
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        queue.onEvent(mock(GenericEvent.class));
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> queue.onEvent(mock(GenericEvent.class)));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        queue.close();
+        blocked.get(5, TimeUnit.SECONDS);
+        queue.onEvent(mock(GenericEvent.class));
+
+        assertEquals(3.0, droppedCounter() - droppedBefore);
+        assertEquals(0.0, queuedGauge());
+    }
+
+    @NotNull
+    private static GenericGuildEvent guildEvent(final long guildId) {
+        Guild guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(guildId);
+
+        GenericGuildEvent event = mock(GenericGuildEvent.class);
+        when(event.getGuild()).thenReturn(guild);
+
+        return event;
+    }
+
+    private static double queuedGauge() {
+        return Metrics.EVENT_LISTENER_QUEUED.labels(LISTENER_NAME).get();
+    }
+
+    private static double droppedCounter() {
+        return Metrics.EVENT_LISTENER_DROPPED.labels(LISTENER_NAME).get();
+    }
+
+    /**
+     * Records the events it handles, the first one waits until it's released, the failing ones throw an {@link Error}.
+     */
+    private static final class RecordingListener implements CustomEventListener {
+        private final EventOrdering eventOrdering;
+        private final EventOverflowPolicy eventOverflowPolicy;
+
+        private final List<GenericEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final Collection<GenericEvent> failing = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch handled;
+
+        private RecordingListener(@NotNull final EventOrdering eventOrdering, @NotNull final EventOverflowPolicy eventOverflowPolicy,
+                                  final int expectedEvents) {
+            this.eventOrdering = eventOrdering;
+            this.eventOverflowPolicy = eventOverflowPolicy;
+            this.handled = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void onEvent(@NotNull final GenericEvent event) {
+            if (failing.contains(event)) {
+                throw new Error("test");
+            }
+
+            started.countDown();
+
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            events.add(event);
+            handled.countDown();
+        }
+
+        @NotNull
+        @Override
+        public Collection<GatewayIntent> getRequiredIntents() {
+            return List.of();
+        }
+
+        @NotNull
+        @Override
+        public Collection<CacheFlag> getRequiredCacheFlags() {
+            return List.of();
+        }
+
+        @NotNull
+        @Override
+        public EventOrdering getEventOrdering() {
+            return eventOrdering;
+        }
+
+        @NotNull
+        @Override
+        public EventOverflowPolicy getEventOverflowPolicy() {
+            return eventOverflowPolicy;
+        }
+    }
+}
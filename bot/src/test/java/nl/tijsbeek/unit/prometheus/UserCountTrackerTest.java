@@ -0,0 +1,98 @@
+package nl.tijsbeek.unit.prometheus;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+import nl.tijsbeek.prometheus.UserCountTracker;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCountTrackerTest {
+
+    @Test
+    @DisplayName("Guild and member events update the count counted on ready")
+    void countsIncrementally() {
+        Guild firstGuild = guild(10);
+        Guild secondGuild = guild(5);
+        JDA jda = jda(firstGuild, secondGuild);
+
+        UserCountTracker tracker = new UserCountTracker();
+
+        tracker.onEvent(event(ReadyEvent.class, jda));
+        assertEquals(15, tracker.getUserCount());
+
+        tracker.onEvent(event(GuildMemberJoinEvent.class, jda));
+        tracker.onEvent(event(GuildMemberJoinEvent.class, jda));
+        tracker.onEvent(event(GuildMemberRemoveEvent.class, jda));
+        assertEquals(16, tracker.getUserCount());
+
+        GuildJoinEvent joinEvent = event(GuildJoinEvent.class, jda);
+        Guild joinedGuild = guild(20);
+        when(joinEvent.getGuild()).thenReturn(joinedGuild);
+        tracker.onEvent(joinEvent);
+        assertEquals(36, tracker.getUserCount());
+
+        GuildLeaveEvent leaveEvent = event(GuildLeaveEvent.class, jda);
+        when(leaveEvent.getGuild()).thenReturn(secondGuild);
+        tracker.onEvent(leaveEvent);
+        assertEquals(31, tracker.getUserCount());
+    }
+
+    @Test
+    @DisplayName("Reconciling corrects the count to the cached guilds")
+    void reconcile() {
+        Guild guild = guild(10);
+        JDA jda = jda(guild);
+
+        UserCountTracker tracker = new UserCountTracker();
+        tracker.onEvent(event(ReadyEvent.class, jda));
+
+        // events missed while reconnecting
+        when(guild.getMemberCount()).thenReturn(12);
+
+        tracker.reconcile();
+        assertEquals(12, tracker.getUserCount());
+    }
+
+    @NotNull
+    private static Guild guild(final int memberCount) {
+        Guild guild = mock(Guild.class);
+        when(guild.getMemberCount()).thenReturn(memberCount);
+
+        return guild;
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static JDA jda(@NotNull final Guild... guilds) {
+        SnowflakeCacheView<Guild> guildCache = mock(SnowflakeCacheView.class);
+        when(guildCache.stream()).thenAnswer(invocation -> List.of(guilds).stream());
+
+        JDA jda = mock(JDA.class);
+        when(jda.getShardInfo()).thenReturn(JDA.ShardInfo.SINGLE);
+        when(jda.getGuildCache()).thenReturn(guildCache);
+
+        return jda;
+    }
+
+    @NotNull
+    private static <T extends GenericEvent> T event(@NotNull final Class<T> eventClass, @NotNull final JDA jda) {
+        T event = mock(eventClass);
+        when(event.getJDA()).thenReturn(jda);
+
+        return event;
+    }
+}
@@ -31,4 +31,14 @@ class DiscordClientActionTest {
         assertEquals(FORMATTED_URL_WITH_ARGUMENT, clientAction.formatUrl(ARGUMENT));
         assertThrows(IllegalArgumentException.class, clientAction::formatUrl);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Formats every argument in order, and inserts them literally.")
+    void formatUrlMultipleArguments() {
+        DiscordClientAction clientAction = DiscordClientAction.Channels.GUILD_CHANNEL_MESSAGE;
+
+        assertEquals("discord://-/channels/1/2/3", clientAction.formatUrl("1", "2", "3"));
+        assertEquals("discord://-/channels/$1/{2}/3", clientAction.formatUrl("$1", "{2}", "3", "4"));
+        assertThrows(IllegalArgumentException.class, () -> clientAction.formatUrl("1", "2"));
+    }
+}
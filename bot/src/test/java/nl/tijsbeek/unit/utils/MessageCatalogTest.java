@@ -0,0 +1,60 @@
+package nl.tijsbeek.unit.utils;
+
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import nl.tijsbeek.utils.MessageCatalog;
+import nl.tijsbeek.utils.Messages;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.IllegalFormatConversionException;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCatalogTest {
+
+    @Test
+    @DisplayName("Locales without a bundle share the default messages")
+    void fallback() {
+        Messages english = MessageCatalog.getBotMessages(DiscordLocale.ENGLISH_US);
+
+        assertSame(english, MessageCatalog.getBotMessages(DiscordLocale.GERMAN));
+        assertSame(english, MessageCatalog.getBotMessages(DiscordLocale.UNKNOWN));
+        assertEquals(Locale.ROOT, english.getLocale());
+    }
+
+    @Test
+    @DisplayName("Messages equal those of the resource bundle")
+    void getString() {
+        ResourceBundle bundle = ResourceBundle.getBundle("i18n.bot", Locale.forLanguageTag("nl"));
+        Messages dutch = MessageCatalog.getBotMessages(DiscordLocale.DUTCH);
+
+        for (final String key : bundle.keySet()) {
+            assertEquals(bundle.getString(key), dutch.getString(key), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Formatting equals String#formatted")
+    void format() {
+        Messages english = MessageCatalog.getBotMessages(DiscordLocale.ENGLISH_US);
+
+        Object[] arguments = {12L, "ban", 1_656_000_000L, 283_958_125_678_362_624L, null};
+
+        assertEquals(english.getString("command.history.entry").formatted(arguments), english.format("command.history.entry", arguments));
+        assertEquals("Pagina 3", MessageCatalog.getBotMessages(DiscordLocale.DUTCH).format("command.history.page", 3));
+    }
+
+    @Test
+    @DisplayName("Invalid keys and arguments fail like a resource bundle and String#formatted")
+    void invalid() {
+        Messages english = MessageCatalog.getBotMessages(DiscordLocale.ENGLISH_US);
+
+        assertThrows(MissingResourceException.class, () -> english.getString("does.not.exist"));
+        assertThrows(MissingFormatArgumentException.class, () -> english.format("command.history.page"));
+        assertThrows(IllegalFormatConversionException.class, () -> english.format("command.history.page", "3"));
+    }
+}
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,6 +25,18 @@ public class Config {
     private final String databasePort;
     private final String databaseUsername;
     private final String databasePassword;
+    private final String commandExecutorMode;
+    private final int commandExecutorMaxConcurrency;
+    private final String componentIdSecret;
+    private final int componentSweepIntervalSeconds;
+    private final int componentSweepBatchSize;
+    private final int componentSweepBatchPauseMillis;
+    private final int auditLogFlushIntervalMillis;
+    private final int auditLogFlushBatchSize;
+    private final String auditLogJournalPath;
+    private final String eventListenerMode;
+    private final int eventListenerQueueCapacity;
+    private final int eventListenerGuildWorkers;
 
     /**
      * Creates an instance
@@ -36,6 +49,18 @@ public class Config {
      * @param grafanaKey an API key of Grafana
      * @param databaseUsername the username of the DB
      * @param databasePassword the password of the DB
+     * @param commandExecutorMode the mode the command handler dispatches interactions with, "pooled" when null
+     * @param commandExecutorMaxConcurrency the maximum amount of interactions handled at once, 0 when null
+     * @param componentIdSecret the secret stateless component ID's are signed with, stateless ID's are disabled when null
+     * @param componentSweepIntervalSeconds the seconds between sweeps of expired components, 300 when null
+     * @param componentSweepBatchSize the maximum amount of components deleted per statement while sweeping, 500 when null
+     * @param componentSweepBatchPauseMillis the milliseconds to pause between 2 batches while sweeping, 100 when null
+     * @param auditLogFlushIntervalMillis the maximum milliseconds an audit log entry waits before it's written to the DB, 500 when null
+     * @param auditLogFlushBatchSize the amount of queued audit log entries that triggers a write right away, 200 when null
+     * @param auditLogJournalPath the file audit log entries are kept in while the DB is unreachable, "audit-log-journal.csv" when null
+     * @param eventListenerMode the mode the event handler runs its listeners with, "inline" when null
+     * @param eventListenerQueueCapacity the maximum amount of queued events per listener, 1024 when null
+     * @param eventListenerGuildWorkers the amount of workers of a listener ordered per guild, 4 when null
      */
     @JsonCreator
     @Contract(pure = true)
@@ -46,7 +71,19 @@ public class Config {
                   @JsonProperty("grafana_key") String grafanaKey,
                   @JsonProperty("database_port") String databasePort,
                   @JsonProperty("database_username") String databaseUsername,
-                  @JsonProperty("database_password") String databasePassword) {
+                  @JsonProperty("database_password") String databasePassword,
+                  @JsonProperty("command_executor_mode") String commandExecutorMode,
+                  @JsonProperty("command_executor_max_concurrency") String commandExecutorMaxConcurrency,
+                  @JsonProperty("component_id_secret") String componentIdSecret,
+                  @JsonProperty("component_sweep_interval_seconds") String componentSweepIntervalSeconds,
+                  @JsonProperty("component_sweep_batch_size") String componentSweepBatchSize,
+                  @JsonProperty("component_sweep_batch_pause_millis") String componentSweepBatchPauseMillis,
+                  @JsonProperty("audit_log_flush_interval_millis") String auditLogFlushIntervalMillis,
+                  @JsonProperty("audit_log_flush_batch_size") String auditLogFlushBatchSize,
+                  @JsonProperty("audit_log_journal_path") String auditLogJournalPath,
+                  @JsonProperty("event_listener_mode") String eventListenerMode,
+                  @JsonProperty("event_listener_queue_capacity") String eventListenerQueueCapacity,
+                  @JsonProperty("event_listener_guild_workers") String eventListenerGuildWorkers) {
 
         this.discordToken = discordToken;
         this.prometheusBotPort = Integer.parseInt(prometheusBotPort);
@@ -56,6 +93,18 @@ public class Config {
         this.databasePort = databasePort;
         this.databaseUsername = databaseUsername;
         this.databasePassword = databasePassword;
+        this.commandExecutorMode = null == commandExecutorMode ? "pooled" : commandExecutorMode;
+        this.commandExecutorMaxConcurrency = null == commandExecutorMaxConcurrency ? 0 : Integer.parseInt(commandExecutorMaxConcurrency);
+        this.componentIdSecret = null == componentIdSecret || componentIdSecret.isBlank() ? null : componentIdSecret;
+        this.componentSweepIntervalSeconds = null == componentSweepIntervalSeconds ? 300 : Integer.parseInt(componentSweepIntervalSeconds);
+        this.componentSweepBatchSize = null == componentSweepBatchSize ? 500 : Integer.parseInt(componentSweepBatchSize);
+        this.componentSweepBatchPauseMillis = null == componentSweepBatchPauseMillis ? 100 : Integer.parseInt(componentSweepBatchPauseMillis);
+        this.auditLogFlushIntervalMillis = null == auditLogFlushIntervalMillis ? 500 : Integer.parseInt(auditLogFlushIntervalMillis);
+        this.auditLogFlushBatchSize = null == auditLogFlushBatchSize ? 200 : Integer.parseInt(auditLogFlushBatchSize);
+        this.auditLogJournalPath = null == auditLogJournalPath || auditLogJournalPath.isBlank() ? "audit-log-journal.csv" : auditLogJournalPath;
+        this.eventListenerMode = null == eventListenerMode ? "inline" : eventListenerMode;
+        this.eventListenerQueueCapacity = null == eventListenerQueueCapacity ? 1024 : Integer.parseInt(eventListenerQueueCapacity);
+        this.eventListenerGuildWorkers = null == eventListenerGuildWorkers ? 4 : Integer.parseInt(eventListenerGuildWorkers);
     }
 
     /**
@@ -122,6 +171,103 @@ public class Config {
         return databasePassword;
     }
 
+    /**
+     * The mode the command handler dispatches interactions with, either "pooled" or "virtual"
+     * @return the mode the command handler dispatches interactions with
+     */
+    public String getCommandExecutorMode() {
+        return commandExecutorMode;
+    }
+
+    /**
+     * The maximum amount of interactions the command handler runs at once, 0 means the mode's default
+     * @return the maximum amount of interactions the command handler runs at once
+     */
+    public int getCommandExecutorMaxConcurrency() {
+        return commandExecutorMaxConcurrency;
+    }
+
+    /**
+     * The secret stateless component ID's are signed with, null when it isn't set
+     * @return the secret stateless component ID's are signed with, or null
+     */
+    @Nullable
+    public String getComponentIdSecret() {
+        return componentIdSecret;
+    }
+
+    /**
+     * The seconds between sweeps of expired components
+     * @return the seconds between sweeps of expired components
+     */
+    public int getComponentSweepIntervalSeconds() {
+        return componentSweepIntervalSeconds;
+    }
+
+    /**
+     * The maximum amount of components deleted per statement while sweeping
+     * @return the maximum amount of components deleted per statement while sweeping
+     */
+    public int getComponentSweepBatchSize() {
+        return componentSweepBatchSize;
+    }
+
+    /**
+     * The milliseconds to pause between 2 batches while sweeping
+     * @return the milliseconds to pause between 2 batches while sweeping
+     */
+    public int getComponentSweepBatchPauseMillis() {
+        return componentSweepBatchPauseMillis;
+    }
+
+    /**
+     * The maximum milliseconds an audit log entry waits before it's written to the DB
+     * @return the maximum milliseconds an audit log entry waits before it's written to the DB
+     */
+    public int getAuditLogFlushIntervalMillis() {
+        return auditLogFlushIntervalMillis;
+    }
+
+    /**
+     * The amount of queued audit log entries that triggers a write right away
+     * @return the amount of queued audit log entries that triggers a write right away
+     */
+    public int getAuditLogFlushBatchSize() {
+        return auditLogFlushBatchSize;
+    }
+
+    /**
+     * The file audit log entries are kept in while the DB is unreachable
+     * @return the file audit log entries are kept in while the DB is unreachable
+     */
+    public String getAuditLogJournalPath() {
+        return auditLogJournalPath;
+    }
+
+    /**
+     * The mode the event handler runs its listeners with, either "inline" or "queued"
+     * @return the mode the event handler runs its listeners with
+     */
+    public String getEventListenerMode() {
+        return eventListenerMode;
+    }
+
+    /**
+     * The maximum amount of queued events per listener, when the listeners are queued
+     * @return the maximum amount of queued events per listener
+     */
+    public int getEventListenerQueueCapacity() {
+        return eventListenerQueueCapacity;
+    }
+
+    /**
+     * The amount of workers of a listener ordered per guild, when the listeners are queued
+     * @return the amount of workers of a listener ordered per guild
+     */
+    public int getEventListenerGuildWorkers() {
+        return eventListenerGuildWorkers;
+    }
+
     /**
      * Creates an instance based of the URL of the file.
      *
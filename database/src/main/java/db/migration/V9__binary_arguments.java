@@ -0,0 +1,112 @@
+package db.migration;
+
+import nl.tijsbeek.database.databases.ArgumentCodec;
+import nl.tijsbeek.database.databases.Database;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Converts the CSV argument columns to binary columns written by the {@link ArgumentCodec}.
+ * <p>
+ * For every column a binary column is added next to it, filled in chunks, after which the CSV column gets replaced by it.
+ * This keeps the order of the columns, which {@link nl.tijsbeek.database.databases.ComponentDatabase} and
+ * {@link nl.tijsbeek.database.databases.EmbedDatabase} rely on.
+ * <br/>
+ * This is a Java migration, as parsing CSV in SQL isn't possible.
+ */
+@SuppressWarnings("NewClassNamingConvention")
+public final class V9__binary_arguments extends BaseJavaMigration {
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Override
+    public void migrate(@NotNull final Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        convert(connection, new ArgumentColumn("component", "id", "arguments", "VARBINARY(8000)"));
+        convert(connection, new ArgumentColumn("audit_log", "case_id", "attachment_urls", "BLOB"));
+        convert(connection, new ArgumentColumn("embeds", "id", "who_what_to_ping", "VARBINARY(1024)"));
+    }
+
+    private static void convert(@NotNull final Connection connection, @NotNull final ArgumentColumn column) throws SQLException {
+        String binaryColumn = column.column() + "_binary";
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE %s ADD COLUMN %s %s NULL AFTER %s"
+                    .formatted(column.table(), binaryColumn, column.type(), column.column()));
+        }
+
+        @Language("SQL")
+        String selectSql = "SELECT %1$s, %2$s FROM %3$s WHERE %1$s > ? AND %2$s IS NOT NULL ORDER BY %1$s LIMIT %4$d"
+                .formatted(column.key(), column.column(), column.table(), CHUNK_SIZE);
+
+        @Language("SQL")
+        String firstSelectSql = "SELECT %1$s, %2$s FROM %3$s WHERE %2$s IS NOT NULL ORDER BY %1$s LIMIT %4$d"
+                .formatted(column.key(), column.column(), column.table(), CHUNK_SIZE);
+
+        @Language("SQL")
+        String updateSql = "UPDATE %s SET %s = ? WHERE %s = ?".formatted(column.table(), binaryColumn, column.key());
+
+        try (PreparedStatement select = connection.prepareStatement(selectSql);
+             PreparedStatement firstSelect = connection.prepareStatement(firstSelectSql);
+             PreparedStatement update = connection.prepareStatement(updateSql)) {
+
+            // keys are read as objects, as the embeds use a varchar ID
+            Object lastKey = null;
+            boolean done = false;
+
+            while (!done) {
+                PreparedStatement chunkSelect = firstSelect;
+
+                if (null != lastKey) {
+                    select.setObject(1, lastKey);
+                    chunkSelect = select;
+                }
+
+                int rows = 0;
+
+                try (ResultSet resultSet = chunkSelect.executeQuery()) {
+                    while (resultSet.next()) {
+                        lastKey = resultSet.getObject(1);
+
+                        update.setBytes(1, ArgumentCodec.encode(Database.csvStringToArguments(resultSet.getString(2))));
+                        update.setObject(2, lastKey);
+                        update.addBatch();
+
+                        rows++;
+                    }
+                }
+
+                if (0 != rows) {
+                    update.executeBatch();
+                }
+
+                done = CHUNK_SIZE > rows;
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE %s DROP COLUMN %s".formatted(column.table(), column.column()));
+            statement.execute("ALTER TABLE %s RENAME COLUMN %s TO %s".formatted(column.table(), binaryColumn, column.column()));
+        }
+    }
+
+    /**
+     * A CSV column to convert.
+     *
+     * @param table the table the column is in
+     * @param key the unique key of the table, used to read it in chunks
+     * @param column the CSV column
+     * @param type the SQL type of the binary column
+     */
+    private record ArgumentColumn(@NonNls @NotNull String table, @NonNls @NotNull String key,
+                                  @NonNls @NotNull String column, @NonNls @NotNull String type) {}
+}
@@ -0,0 +1,272 @@
+package nl.tijsbeek.database.auditlog;
+
+import com.diffplug.common.base.Errors;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import nl.tijsbeek.database.databases.AuditLogDatabase;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the audit log of a guild to a gzip-compressed file.
+ * <p>
+ * Entries are streamed from the DB straight into the file using {@link AuditLogDatabase#forEachByGuildId(long, java.util.function.Consumer)},
+ * so the memory used doesn't grow with the amount of entries.
+ * <br/>
+ * An export keeps a DB connection for as long as it runs, so {@link #exportToTempFile(long, Format)} runs them on threads of its own,
+ * at most {@link #MAX_CONCURRENT_EXPORTS} at a time and one per guild. This leaves the other connections, and the DB threads, to everything else.
+ */
+public final class AuditLogExporter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The maximum amount of exports running at the same time.
+     */
+    public static final int MAX_CONCURRENT_EXPORTS = 2;
+
+    /**
+     * The maximum amount of exports waiting for a thread, more exports are rejected.
+     */
+    private static final int MAX_QUEUED_EXPORTS = 8;
+
+    private static final String[] CSV_HEADER = {
+            "case_id", "guild_id", "author", "target", "reason", "type", "expire_time", "creation_time", "attachment_urls"
+    };
+
+    private final AuditLogDatabase auditLogDatabase;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Set<Long> exportingGuildIds = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates an instance.
+     *
+     * @param auditLogDatabase the {@link AuditLogDatabase} to export from
+     */
+    public AuditLogExporter(@NotNull final AuditLogDatabase auditLogDatabase) {
+        this.auditLogDatabase = Objects.requireNonNull(auditLogDatabase, "The given AuditLogDatabase cannot be null");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_EXPORTS, MAX_CONCURRENT_EXPORTS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_EXPORTS), runnable -> {
+            Thread thread = new Thread(runnable, "AuditLogExporter-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Exports all entries of the given guild to a new temporary file, on one of the exporter's threads.
+     * <br/>
+     * The caller has to delete the file once it's done with it, when the export fails the file is deleted already.
+     *
+     * @param guildId the ID of the guild
+     * @param format the {@link Format} to write
+     *
+     * @return the future {@link Export}, or null when the guild already has an export running, or too many exports are waiting
+     */
+    @Nullable
+    public CompletableFuture<Export> exportToTempFile(final long guildId, @NotNull final Format format) {
+        if (!exportingGuildIds.add(guildId)) {
+            return null;
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> exportToTempFileNow(guildId, format), executor)
+                    .whenComplete((export, throwable) -> exportingGuildIds.remove(guildId));
+        } catch (final RejectedExecutionException e) {
+            exportingGuildIds.remove(guildId);
+            return null;
+        }
+    }
+
+    @NotNull
+    private Export exportToTempFileNow(final long guildId, @NotNull final Format format) {
+        try {
+            Path file = Files.createTempFile("audit-log-", "." + format.getFileExtension());
+
+            try {
+                return new Export(file, export(guildId, format, file));
+            } catch (final IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes all entries of the given guild to the given file, replacing its content.
+     * <br/>
+     * This blocks until the whole export is written, and keeps a DB connection during that time.
+     *
+     * @param guildId the ID of the guild
+     * @param format the {@link Format} to write
+     * @param file the file to write to
+     *
+     * @return the amount of exported entries
+     *
+     * @throws IOException when the file couldn't be written
+     */
+    public long export(final long guildId, @NotNull final Format format, @NotNull final Path file) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE)) {
+            return switch (format) {
+                case CSV -> exportCsv(guildId, out);
+                case NDJSON -> exportNdjson(guildId, out);
+            };
+        }
+    }
+
+    private long exportCsv(final long guildId, @NotNull final OutputStream out) throws IOException {
+        ICSVWriter csvWriter = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csvWriter.writeNext(CSV_HEADER, false);
+
+        String[] columns = new String[CSV_HEADER.length];
+
+        long entries = auditLogDatabase.forEachByGuildId(guildId, entry -> {
+            columns[0] = Long.toString(entry.caseId());
+            columns[1] = Long.toString(entry.guildId());
+            columns[2] = Long.toString(entry.author());
+            columns[3] = Long.toString(entry.target());
+            columns[4] = entry.reason();
+            columns[5] = typeName(entry);
+            columns[6] = null == entry.expireTime() ? "" : entry.expireTime().toString();
+            columns[7] = entry.creationTime().toString();
+            columns[8] = String.join(" ", entry.attachmentUrls());
+
+            csvWriter.writeNext(columns);
+        });
+
+        csvWriter.flush();
+
+        if (csvWriter.checkError()) {
+            throw new IOException("Something went wrong while writing the CSV export", csvWriter.getException());
+        }
+
+        return entries;
+    }
+
+    private long exportNdjson(final long guildId, @NotNull final OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            // one object per line, instead of separating them with a space
+            generator.setRootValueSeparator(null);
+
+            return auditLogDatabase.forEachByGuildId(guildId, Errors.rethrow().wrap(entry -> {
+                generator.writeStartObject();
+                // IDs as strings, they don't fit in the numbers of most JSON readers
+                generator.writeStringField("case_id", Long.toString(entry.caseId()));
+                generator.writeStringField("guild_id", Long.toString(entry.guildId()));
+                generator.writeStringField("author", Long.toString(entry.author()));
+                generator.writeStringField("target", Long.toString(entry.target()));
+                generator.writeStringField("reason", entry.reason());
+                generator.writeStringField("type", typeName(entry));
+                generator.writeStringField("expire_time", null == entry.expireTime() ? null : entry.expireTime().toString());
+                generator.writeStringField("creation_time", entry.creationTime().toString());
+
+                generator.writeArrayFieldStart("attachment_urls");
+                for (final String attachmentUrl : entry.attachmentUrls()) {
+                    generator.writeString(attachmentUrl);
+                }
+                generator.writeEndArray();
+
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }));
+        }
+    }
+
+    @NonNls
+    @NotNull
+    private static String typeName(@NotNull final CustomAuditLogEntry entry) {
+        return entry.type().name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stops the running exports.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "AuditLogExporter{" +
+                "auditLogDatabase=" + auditLogDatabase +
+                ", exportingGuildIds=" + exportingGuildIds +
+                '}';
+    }
+
+    /**
+     * An export written to a temporary file.
+     *
+     * @param file the file
+     * @param entries the amount of exported entries
+     */
+    public record Export(@NotNull Path file, long entries) {}
+
+    /**
+     * The formats an export can be written in.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values with a header, attachment URLs are separated by spaces.
+         */
+        CSV("csv.gz"),
+
+        /**
+         * Newline-delimited JSON, one object per entry.
+         */
+        NDJSON("ndjson.gz");
+
+        private final String fileExtension;
+
+        @Contract(pure = true)
+        Format(@NonNls @NotNull final String fileExtension) {
+            this.fileExtension = fileExtension;
+        }
+
+        /**
+         * The extension of the exported file, like {@code csv.gz}.
+         *
+         * @return the extension, without leading dot
+         */
+        @NonNls
+        @NotNull
+        @Contract(pure = true)
+        public String getFileExtension() {
+            return fileExtension;
+        }
+    }
+}
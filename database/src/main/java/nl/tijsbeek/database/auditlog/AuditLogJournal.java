@@ -0,0 +1,285 @@
+package nl.tijsbeek.database.auditlog;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import com.opencsv.exceptions.CsvMalformedLineException;
+import com.opencsv.exceptions.CsvValidationException;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An append-only CSV file, which keeps {@link CustomAuditLogEntry CustomAuditLogEntries} while the DB can't be reached.
+ * <p>
+ * Every line is one entry: the guild ID, author, target, reason, type key, expire time and creation time (both in epoch millis),
+ * followed by the attachment URLs. Every append is synced to the disk before returning.
+ * <br/>
+ * On {@link #replay(Consumer)} the file is moved aside first, so entries appended during a replay end up in the next replay.
+ * The moved file is streamed in batches, after every written batch the amount of written records is stored in {@code <path>.replay.progress},
+ * so a failed replay continues after the last written batch, and neither memory nor transactions grow with the journal.
+ * When a replay gets interrupted by a crash right after writing a batch, that batch is written twice.
+ * <p>
+ * A crash while appending can leave a cut off line at the end, and such a line can't be parsed.
+ * Lines which can't be parsed are skipped, and once the other entries are replayed the file is moved to {@code <path>.corrupt-<epoch millis>}
+ * instead of being deleted, so it can be inspected by hand without blocking later replays.
+ */
+final class AuditLogJournal {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogJournal.class);
+    private static final int FIXED_COLUMNS = 7;
+
+    /**
+     * The maximum amount of entries written per transaction while replaying.
+     */
+    static final int REPLAY_BATCH_SIZE = 500;
+
+    private final Path path;
+    private final Path replayPath;
+    private final Path progressPath;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates an instance, the file is only created once something gets appended.
+     *
+     * @param path the path of the journal
+     */
+    AuditLogJournal(@NotNull final Path path) {
+        this.path = Objects.requireNonNull(path, "The given path cannot be null");
+        this.replayPath = path.resolveSibling(path.getFileName() + ".replay");
+        this.progressPath = path.resolveSibling(path.getFileName() + ".replay.progress");
+    }
+
+    /**
+     * Appends the given entries, and syncs them to the disk.
+     *
+     * @param entries the entries to append
+     *
+     * @throws IOException when the file couldn't be written
+     */
+    void append(@NotNull final Collection<CustomAuditLogEntry> entries) throws IOException {
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            ICSVWriter csvWriter = new CSVWriter(writer);
+
+            for (final CustomAuditLogEntry entry : entries) {
+                csvWriter.writeNext(toColumns(entry));
+            }
+
+            csvWriter.flush();
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whenever the journal has entries which aren't replayed yet.
+     *
+     * @return whenever the journal has entries
+     */
+    boolean hasEntries() {
+        return Files.exists(path) || Files.exists(replayPath);
+    }
+
+    /**
+     * Passes all journaled entries to the given writer in batches of {@link #REPLAY_BATCH_SIZE}, and deletes them once all batches are written.
+     * <br/>
+     * When the writer throws, the entries of that batch and the ones after it are kept for the next replay.
+     *
+     * @param writer writes a batch of entries to the DB, in a single transaction
+     *
+     * @return the amount of replayed entries
+     *
+     * @throws IOException when the file couldn't be read
+     */
+    int replay(@NotNull final Consumer<? super List<CustomAuditLogEntry>> writer) throws IOException {
+        lock.lock();
+        try {
+            // a replay file still exists when the previous replay failed
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(path)) {
+                    return 0;
+                }
+
+                Files.move(path, replayPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long writtenRecords = readProgress();
+        long records = 0;
+        int replayed = 0;
+        int skippedLines = 0;
+
+        List<CustomAuditLogEntry> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+
+        try (Reader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReader(reader)) {
+
+            while (true) {
+                String[] columns;
+
+                try {
+                    columns = csvReader.readNext();
+                } catch (final CsvMalformedLineException e) {
+                    // a quoted column cut off by a crash while appending, this can only be the end of the file
+                    skippedLines++;
+                    break;
+                } catch (final CsvValidationException e) {
+                    records++;
+                    skippedLines++;
+                    continue;
+                }
+
+                if (null == columns) {
+                    break;
+                }
+
+                records++;
+                if (records <= writtenRecords) {
+                    // written by a previous replay, which failed on a later batch
+                    continue;
+                }
+
+                try {
+                    batch.add(fromColumns(columns));
+                } catch (final RuntimeException e) {
+                    // a line cut off by a crash while appending, or with columns which don't parse
+                    skippedLines++;
+                }
+
+                if (REPLAY_BATCH_SIZE <= batch.size()) {
+                    replayed += writeBatch(writer, batch, records);
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            replayed += writeBatch(writer, batch, records);
+        }
+
+        if (0 == skippedLines) {
+            Files.delete(replayPath);
+        } else {
+            Path corruptPath = replayPath.resolveSibling(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+            Files.move(replayPath, corruptPath);
+
+            logger.warn("Skipped {} lines of the audit log journal which couldn't be parsed, moved it to {}.", skippedLines, corruptPath);
+        }
+        Files.deleteIfExists(progressPath);
+
+        return replayed;
+    }
+
+    /**
+     * Writes the batch, and stores how many records of the replay file are written.
+     *
+     * @param writer writes the batch to the DB
+     * @param batch the entries to write, cleared afterwards
+     * @param records the amount of records of the replay file up to and including this batch
+     *
+     * @return the amount of written entries
+     *
+     * @throws IOException when the progress couldn't be stored
+     */
+    private int writeBatch(@NotNull final Consumer<? super List<CustomAuditLogEntry>> writer, @NotNull final List<CustomAuditLogEntry> batch,
+                           final long records) throws IOException {
+        writer.accept(List.copyOf(batch));
+        int written = batch.size();
+        batch.clear();
+
+        Path temporaryPath = progressPath.resolveSibling(progressPath.getFileName() + ".tmp");
+        Files.writeString(temporaryPath, Long.toString(records), StandardCharsets.UTF_8);
+        Files.move(temporaryPath, progressPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return written;
+    }
+
+    /**
+     * Reads how many records of the replay file a previous replay wrote.
+     *
+     * @return the amount of written records, 0 when there's no progress
+     *
+     * @throws IOException when the progress couldn't be read
+     */
+    private long readProgress() throws IOException {
+        if (!Files.exists(progressPath)) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(Files.readString(progressPath, StandardCharsets.UTF_8).strip());
+        } catch (final NumberFormatException e) {
+            logger.warn("The audit log journal progress at {} is corrupt, replaying the whole journal.", progressPath, e);
+            return 0;
+        }
+    }
+
+    @NotNull
+    private static String[] toColumns(@NotNull final CustomAuditLogEntry entry) {
+        List<String> columns = new ArrayList<>(FIXED_COLUMNS + entry.attachmentUrls().size());
+
+        columns.add(Long.toString(entry.guildId()));
+        columns.add(Long.toString(entry.author()));
+        columns.add(Long.toString(entry.target()));
+        columns.add(null == entry.reason() ? "" : entry.reason());
+        columns.add(Integer.toString(entry.type().getKey()));
+        columns.add(null == entry.expireTime() ? "" : Long.toString(entry.expireTime().toEpochMilli()));
+        columns.add(Long.toString(entry.creationTime().toEpochMilli()));
+        columns.addAll(entry.attachmentUrls());
+
+        return columns.toArray(String[]::new);
+    }
+
+    @NotNull
+    private static CustomAuditLogEntry fromColumns(@NotNull final String[] columns) {
+        if (FIXED_COLUMNS > columns.length) {
+            throw new IllegalArgumentException("Expected at least " + FIXED_COLUMNS + " columns, got " + columns.length);
+        }
+
+        return new CustomAuditLogEntry.CustomAuditLogEntryBuilder()
+                .setGuildId(Long.parseLong(columns[0]))
+                .setAuthor(Long.parseLong(columns[1]))
+                .setTarget(Long.parseLong(columns[2]))
+                .setReason(columns[3])
+                .setType(CustomAuditLogEntry.Type.byKey(Integer.parseInt(columns[4])))
+                .setExpireTime(columns[5].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(columns[5])))
+                .setCreationTime(Instant.ofEpochMilli(Long.parseLong(columns[6])))
+                .setAttachmentUrls(List.copyOf(Arrays.asList(columns).subList(FIXED_COLUMNS, columns.length)))
+                .createAuditLogEntry();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "AuditLogJournal{" +
+                "path=" + path +
+                '}';
+    }
+}
@@ -0,0 +1,317 @@
+package nl.tijsbeek.database.auditlog;
+
+import io.prometheus.client.Histogram;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.databases.AuditLogDatabase;
+import nl.tijsbeek.database.metrics.DatabaseMetrics;
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Writes {@link CustomAuditLogEntry CustomAuditLogEntries} to the {@link AuditLogDatabase} in the background, so handlers never wait on the DB.
+ * <p>
+ * Entries are queued in a bounded ring buffer, a single writer thread takes them out in batches.
+ * A batch is written once it's full, or once its oldest entry waited for the flush interval, whichever comes first.
+ * <br/>
+ * When a batch fails, the entries are appended to an {@link AuditLogJournal} on disk instead.
+ * When the queue is full, entries are put in a bounded overflow queue, which the writer thread appends to the journal.
+ * Only when that one is full as well, the submitting thread appends the entry to the journal itself, so memory stays bounded while the DB hangs.
+ * The journal gets replayed as soon as a batch succeeds again, and on start-up.
+ * <p>
+ * {@link #close()} writes everything that's still queued, entries submitted after that go to the journal right away,
+ * as there's no writer thread left to hand them to.
+ */
+public final class AuditLogWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    /**
+     * The maximum amount of queued entries, more entries go to the overflow queue.
+     */
+    public static final int QUEUE_CAPACITY = 10_000;
+
+    /**
+     * The maximum amount of entries waiting for the writer thread to journal them, more entries are journaled by the submitting thread.
+     */
+    public static final int OVERFLOW_CAPACITY = 10_000;
+
+    /**
+     * The minimum time between 2 replays of the journal while the DB is unreachable.
+     */
+    private static final long REPLAY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Consumer<? super List<CustomAuditLogEntry>> inserter;
+    private final AuditLogJournal journal;
+    private final BlockingQueue<CustomAuditLogEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<CustomAuditLogEntry> overflow = new ArrayBlockingQueue<>(OVERFLOW_CAPACITY);
+    private final Thread writer;
+
+    /**
+     * Submitting takes the read lock, closing the write lock, so no entry gets queued after {@link #close()} drained the queues.
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private final long flushIntervalMillis;
+    private final int batchSize;
+
+    private volatile boolean running = true;
+    private long lastReplayAttempt;
+
+    /**
+     * Creates an instance, and starts the writer thread.
+     *
+     * @param auditLogDatabase the {@link AuditLogDatabase} to write to
+     * @param config the {@link Config} to take the flush interval, batch size and journal path from
+     */
+    public AuditLogWriter(@NotNull final AuditLogDatabase auditLogDatabase, @NotNull final Config config) {
+        this(Objects.requireNonNull(auditLogDatabase, "The given AuditLogDatabase cannot be null")::insertAll,
+                Path.of(config.getAuditLogJournalPath()), config.getAuditLogFlushIntervalMillis(), config.getAuditLogFlushBatchSize());
+    }
+
+    /**
+     * Creates an instance, and starts the writer thread.
+     *
+     * @param inserter writes a batch of entries to the DB, throws when it couldn't
+     * @param journalPath the path of the {@link AuditLogJournal}
+     * @param flushIntervalMillis the maximum time an entry waits before its batch is written
+     * @param batchSize the maximum amount of entries per batch
+     */
+    AuditLogWriter(@NotNull final Consumer<? super List<CustomAuditLogEntry>> inserter, @NotNull final Path journalPath,
+                   final long flushIntervalMillis, final int batchSize) {
+        this.inserter = Objects.requireNonNull(inserter, "The given inserter cannot be null");
+        this.journal = new AuditLogJournal(journalPath);
+
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+
+        lastReplayAttempt = System.nanoTime() - REPLAY_INTERVAL_NANOS;
+
+        writer = new Thread(this::run, "AuditLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the given entry, this never blocks on the DB.
+     * It only blocks on the disk when this writer is closed, or both the queue and the overflow queue are full.
+     * <br/>
+     * When the entry has no creation time, it gets the current time, so it keeps its time when it's journaled.
+     *
+     * @param customAuditLogEntry the entry to write, its case ID is ignored
+     */
+    public void submit(@NotNull final CustomAuditLogEntry customAuditLogEntry) {
+        CustomAuditLogEntry entry = withCreationTime(customAuditLogEntry);
+
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                logger.warn("The audit log writer is closed, journaling the entry instead.");
+            } else if (queue.offer(entry)) {
+                DatabaseMetrics.AUDIT_LOG_QUEUE_DEPTH.set(queue.size());
+                return;
+            } else if (overflow.offer(entry)) {
+                logger.warn("The audit log queue is full, the writer thread journals the entry instead.");
+                return;
+            } else {
+                logger.warn("The audit log queue and its overflow are full, journaling the entry instead.");
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        journal(List.of(entry));
+    }
+
+    private void run() {
+        List<CustomAuditLogEntry> batch = new ArrayList<>(batchSize);
+
+        replayJournal();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                takeBatch(batch);
+            } catch (final InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+
+            DatabaseMetrics.AUDIT_LOG_QUEUE_DEPTH.set(queue.size());
+            journalOverflow();
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if (journal.hasEntries() && REPLAY_INTERVAL_NANOS <= System.nanoTime() - lastReplayAttempt) {
+                replayJournal();
+            }
+        }
+
+        journalOverflow();
+    }
+
+    /**
+     * Waits for the first entry, and then for either a full batch, or the flush interval to pass.
+     *
+     * @param batch the list to add the entries to
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    private void takeBatch(@NotNull final List<CustomAuditLogEntry> batch) throws InterruptedException {
+        CustomAuditLogEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        if (null == first) {
+            return;
+        }
+
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || 0 >= remaining) {
+                return;
+            }
+
+            CustomAuditLogEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (null == next) {
+                return;
+            }
+
+            batch.add(next);
+        }
+    }
+
+    private void write(@NotNull final List<CustomAuditLogEntry> batch) {
+        Histogram.Timer timer = DatabaseMetrics.AUDIT_LOG_FLUSH_DURATION.startTimer();
+
+        try {
+            inserter.accept(batch);
+            DatabaseMetrics.AUDIT_LOG_ENTRIES.labels("written").inc(batch.size());
+        } catch (final RuntimeException e) {
+            logger.error("Something went wrong while writing {} audit log entries, journaling them instead.", batch.size(), e);
+            journal(batch);
+            return;
+        } finally {
+            timer.observeDuration();
+        }
+
+        // the DB is reachable again
+        if (journal.hasEntries()) {
+            replayJournal();
+        }
+    }
+
+    /**
+     * Journals the entries which didn't fit in the queue.
+     */
+    private void journalOverflow() {
+        List<CustomAuditLogEntry> entries = new ArrayList<>();
+        overflow.drainTo(entries);
+
+        if (!entries.isEmpty()) {
+            journal(entries);
+        }
+    }
+
+    private void journal(@NotNull final List<CustomAuditLogEntry> entries) {
+        try {
+            journal.append(entries);
+            DatabaseMetrics.AUDIT_LOG_ENTRIES.labels("journaled").inc(entries.size());
+        } catch (final IOException e) {
+            logger.error("Something went wrong while journaling audit log entries, these entries are lost: {}", entries, e);
+            DatabaseMetrics.AUDIT_LOG_ENTRIES.labels("dropped").inc(entries.size());
+        }
+    }
+
+    private void replayJournal() {
+        lastReplayAttempt = System.nanoTime();
+
+        try {
+            int replayed = journal.replay(inserter);
+
+            if (0 != replayed) {
+                DatabaseMetrics.AUDIT_LOG_ENTRIES.labels("replayed").inc(replayed);
+                logger.info("Replayed {} journaled audit log entries.", replayed);
+            }
+        } catch (final IOException | RuntimeException e) {
+            logger.warn("Couldn't replay the audit log journal yet, retrying later.", e);
+        }
+    }
+
+    @NotNull
+    private static CustomAuditLogEntry withCreationTime(@NotNull final CustomAuditLogEntry entry) {
+        if (null != entry.creationTime()) {
+            return entry;
+        }
+
+        return new CustomAuditLogEntry(entry.caseId(), entry.guildId(), entry.author(), entry.target(), entry.reason(), entry.type(),
+                entry.expireTime(), Instant.now(), entry.attachmentUrls());
+    }
+
+    /**
+     * Stops accepting entries, and waits until the queued entries are written or journaled.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        running = false;
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+
+            if (writer.isAlive()) {
+                logger.warn("The audit log writer didn't finish in time, interrupting it.");
+                writer.interrupt();
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // left behind when the writer thread didn't finish in time
+        List<CustomAuditLogEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        overflow.drainTo(remaining);
+
+        if (!remaining.isEmpty()) {
+            journal(remaining);
+        }
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "AuditLogWriter{" +
+                "journal=" + journal +
+                ", flushIntervalMillis=" + flushIntervalMillis +
+                ", batchSize=" + batchSize +
+                '}';
+    }
+}
@@ -0,0 +1,414 @@
+package nl.tijsbeek.database.cache;
+
+import nl.tijsbeek.database.databases.GuildSettingsDatabase;
+import nl.tijsbeek.database.databases.IDatabase;
+import nl.tijsbeek.database.metrics.DatabaseMetrics;
+import nl.tijsbeek.database.tables.GuildSettings;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * A read-through cache in front of the {@link GuildSettingsDatabase}.
+ * <p>
+ * Entries older than the refresh time are still returned, while they get reloaded in the background.
+ * Entries older than the expire time are seen as absent, and are loaded again before returning.
+ * <br/>
+ * Writes go to the DB first, after which the cache gets updated, so a failed write never ends up in the cache.
+ * Every write bumps a generation, and while loads run the generation of each written guild is kept.
+ * A load doesn't cache the settings of guilds written since it started reading,
+ * so a slow (background) load can't overwrite newer settings with the ones it read before the write, while the other guilds it read are still cached.
+ * <p>
+ * All returned {@link GuildSettings} are copies, changing them doesn't affect the cache until {@link #replace(GuildSettings)} is called.
+ */
+public final class GuildSettingsCache implements IDatabase<GuildSettings>, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GuildSettingsCache.class);
+    private static final String CACHE_NAME = "guild_settings";
+
+    /**
+     * The default maximum amount of cached guilds.
+     */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    /**
+     * The default age after which an entry gets reloaded in the background.
+     */
+    public static final Duration DEFAULT_REFRESH_AFTER = Duration.ofMinutes(5);
+
+    /**
+     * The default age after which an entry is no longer returned.
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER = Duration.ofHours(1);
+
+    private final GuildSettingsDatabase guildSettingsDatabase;
+    private final LongCache<GuildSettings> cache;
+    private final long refreshAfterNanos;
+    private final long expireAfterNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+    private int runningLoads;
+
+    /**
+     * The generation of the last write of every guild, only kept while loads run so it doesn't grow with every write.
+     */
+    private final Map<Long, Long> guildIdToWriteGeneration = new HashMap<>();
+
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GuildSettingsCache-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an instance with the default size and times.
+     *
+     * @param guildSettingsDatabase the {@link GuildSettingsDatabase} to load from and write to
+     */
+    public GuildSettingsCache(@NotNull final GuildSettingsDatabase guildSettingsDatabase) {
+        this(guildSettingsDatabase, DEFAULT_MAX_SIZE, DEFAULT_REFRESH_AFTER, DEFAULT_EXPIRE_AFTER);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param guildSettingsDatabase the {@link GuildSettingsDatabase} to load from and write to
+     * @param maxSize the maximum amount of cached guilds
+     * @param refreshAfter the age after which an entry gets reloaded in the background
+     * @param expireAfter the age after which an entry is no longer returned, should be longer than refreshAfter
+     */
+    public GuildSettingsCache(@NotNull final GuildSettingsDatabase guildSettingsDatabase, final int maxSize,
+                              @NotNull final Duration refreshAfter, @NotNull final Duration expireAfter) {
+        this.guildSettingsDatabase = Objects.requireNonNull(guildSettingsDatabase, "The given GuildSettingsDatabase cannot be null");
+        this.cache = new LongCache<>(maxSize);
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.expireAfterNanos = expireAfter.toNanos();
+    }
+
+    /**
+     * Retrieves the settings of the given guild.
+     * <br/>
+     * This only blocks on the DB when the guild isn't cached, or its entry expired.
+     *
+     * @param guildId the ID of the guild
+     *
+     * @return a copy of the settings, or null when the guild has no settings
+     */
+    @Override
+    public @Nullable GuildSettings retrieveById(final long guildId) {
+        LongCache.Entry<GuildSettings> entry = cache.get(guildId);
+
+        if (null != entry) {
+            long age = System.nanoTime() - entry.loadedAt();
+
+            if (age < refreshAfterNanos) {
+                DatabaseMetrics.CACHE_REQUESTS.labels(CACHE_NAME, "hit").inc();
+                return entry.value().copy();
+            }
+
+            if (age < expireAfterNanos) {
+                DatabaseMetrics.CACHE_REQUESTS.labels(CACHE_NAME, "stale").inc();
+                refreshAsync(guildId);
+                return entry.value().copy();
+            }
+
+            DatabaseMetrics.CACHE_EVICTIONS.labels(CACHE_NAME, "expired").inc();
+        }
+
+        DatabaseMetrics.CACHE_REQUESTS.labels(CACHE_NAME, "miss").inc();
+
+        GuildSettings guildSettings = load(guildId);
+        return null == guildSettings ? null : guildSettings.copy();
+    }
+
+    /**
+     * Deletes the settings of the given guild.
+     *
+     * @param guildId the ID of the guild
+     *
+     * @return the deleted settings
+     */
+    @Override
+    public @Nullable GuildSettings deleteById(final long guildId) {
+        GuildSettings guildSettings = guildSettingsDatabase.deleteById(guildId);
+
+        lock.lock();
+        try {
+            markWritten(guildId);
+            cache.remove(guildId);
+        } finally {
+            lock.unlock();
+        }
+        updateSizeMetric();
+
+        return guildSettings;
+    }
+
+    /**
+     * Inserts the given settings when the guild has none yet, and caches the settings the guild ends up with.
+     *
+     * @param guildSettings the settings
+     */
+    @Override
+    public void insert(@NotNull final GuildSettings guildSettings) {
+        guildSettingsDatabase.insert(guildSettings);
+
+        load(guildSettings.getGuildId());
+    }
+
+    /**
+     * Replaces the settings, and updates the cache in place.
+     *
+     * @param guildSettings the settings
+     */
+    @Override
+    public void replace(@NotNull final GuildSettings guildSettings) {
+        guildSettingsDatabase.replace(guildSettings);
+
+        lock.lock();
+        try {
+            markWritten(guildSettings.getGuildId());
+            put(guildSettings);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches the given settings, without writing them to the DB.
+     * <br/>
+     * Used to populate the cache with settings loaded elsewhere.
+     *
+     * @param guildSettings the settings as they are in the DB
+     */
+    public void put(@NotNull final GuildSettings guildSettings) {
+        if (cache.put(guildSettings.getGuildId(), guildSettings.copy(), System.nanoTime())) {
+            DatabaseMetrics.CACHE_EVICTIONS.labels(CACHE_NAME, "size").inc();
+        }
+
+        updateSizeMetric();
+    }
+
+    /**
+     * Makes sure all given guilds have settings, and caches them.
+     * <br/>
+     * Guilds which are already cached are skipped, the others are read with one statement per 1000 guilds.
+     * Guilds without settings get default settings, inserted with one multi-row {@code INSERT IGNORE} per 1000 guilds.
+     *
+     * @param guildIds the IDs of the guilds
+     */
+    public void bootstrap(@NotNull final Collection<Long> guildIds) {
+        List<Long> unknownGuildIds = guildIds.stream()
+                .distinct()
+                .filter(guildId -> !contains(guildId))
+                .toList();
+
+        if (unknownGuildIds.isEmpty()) {
+            return;
+        }
+
+        long generationBeforeRead = startLoad();
+        List<Long> missingGuildIds;
+
+        try {
+            List<GuildSettings> existingSettings = guildSettingsDatabase.retrieveAllByIds(unknownGuildIds);
+            existingSettings.forEach(guildSettings -> putIfUnchanged(guildSettings, generationBeforeRead));
+
+            Set<Long> existingGuildIds = existingSettings.stream()
+                    .map(GuildSettings::getGuildId)
+                    .collect(Collectors.toSet());
+
+            missingGuildIds = unknownGuildIds.stream()
+                    .filter(guildId -> !existingGuildIds.contains(guildId))
+                    .toList();
+
+            guildSettingsDatabase.insertAllIfAbsent(missingGuildIds);
+            missingGuildIds.forEach(guildId -> putIfUnchanged(new GuildSettings(guildId), generationBeforeRead));
+        } finally {
+            finishLoad();
+        }
+
+        logger.info("Bootstrapped the settings of {} guilds, {} of them were new.", unknownGuildIds.size(), missingGuildIds.size());
+    }
+
+    /**
+     * Whenever the given guild is cached, expired or not.
+     * <br/>
+     * Unlike a read, this doesn't mark the guild as recently used.
+     *
+     * @param guildId the ID of the guild
+     *
+     * @return whenever the guild is cached
+     */
+    public boolean contains(final long guildId) {
+        return cache.containsKey(guildId);
+    }
+
+    @Nullable
+    private GuildSettings load(final long guildId) {
+        long generationBeforeRead = startLoad();
+
+        try {
+            GuildSettings guildSettings = guildSettingsDatabase.retrieveById(guildId);
+
+            if (null == guildSettings) {
+                lock.lock();
+                try {
+                    if (!isWrittenSince(guildId, generationBeforeRead)) {
+                        cache.remove(guildId);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                updateSizeMetric();
+            } else {
+                putIfUnchanged(guildSettings, generationBeforeRead);
+            }
+
+            return guildSettings;
+        } finally {
+            finishLoad();
+        }
+    }
+
+    /**
+     * Caches the given settings, unless their guild got written since they were read.
+     *
+     * @param guildSettings the settings as they were read from the DB
+     * @param generationBeforeRead the generation before they were read
+     */
+    private void putIfUnchanged(@NotNull final GuildSettings guildSettings, final long generationBeforeRead) {
+        lock.lock();
+        try {
+            if (!isWrittenSince(guildSettings.getGuildId(), generationBeforeRead)) {
+                put(guildSettings);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bumps the generation, and keeps it as the guild's write generation while loads run.
+     * <br/>
+     * Has to be called while holding the lock.
+     *
+     * @param guildId the ID of the written guild
+     */
+    private void markWritten(final long guildId) {
+        generation++;
+
+        if (0 != runningLoads) {
+            guildIdToWriteGeneration.put(guildId, generation);
+        }
+    }
+
+    /**
+     * Whenever the guild got written after the given generation.
+     * <br/>
+     * Has to be called while holding the lock, by a load which started at that generation and didn't finish yet.
+     *
+     * @param guildId the ID of the guild
+     * @param generationBeforeRead the generation the load started at
+     *
+     * @return whenever the guild got written since
+     */
+    private boolean isWrittenSince(final long guildId, final long generationBeforeRead) {
+        Long writeGeneration = guildIdToWriteGeneration.get(guildId);
+
+        return null != writeGeneration && writeGeneration > generationBeforeRead;
+    }
+
+    /**
+     * Registers a running load, from now on writes are kept per guild.
+     *
+     * @return the generation the load starts at
+     */
+    private long startLoad() {
+        lock.lock();
+        try {
+            runningLoads++;
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unregisters a running load, once none are left the kept writes are forgotten.
+     */
+    private void finishLoad() {
+        lock.lock();
+        try {
+            runningLoads--;
+
+            if (0 == runningLoads) {
+                guildIdToWriteGeneration.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refreshAsync(final long guildId) {
+        if (!refreshing.add(guildId)) {
+            return;
+        }
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(guildId);
+                } catch (final RuntimeException e) {
+                    logger.warn("Failed to refresh the settings of guild {}, serving the stale settings.", guildId, e);
+                } finally {
+                    refreshing.remove(guildId);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            refreshing.remove(guildId);
+        }
+    }
+
+    private void updateSizeMetric() {
+        DatabaseMetrics.CACHE_SIZE.labels(CACHE_NAME).set(cache.size());
+    }
+
+    /**
+     * Stops the background refreshes.
+     */
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "GuildSettingsCache{" +
+                "cache=" + cache +
+                ", refreshAfterNanos=" + refreshAfterNanos +
+                ", expireAfterNanos=" + expireAfterNanos +
+                '}';
+    }
+}
@@ -0,0 +1,309 @@
+package nl.tijsbeek.database.cache;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache with primitive {@code long} keys, like guild IDs.
+ * <p>
+ * The keys are spread over segments, each segment is an open-addressing hash table with its own lock.
+ * This avoids boxing the key, and a node per entry, like a {@link java.util.HashMap} would.
+ * <br/>
+ * When a segment is full, an entry gets evicted using the CLOCK algorithm, so recently read entries survive longer.
+ *
+ * @param <V> the type of the values
+ */
+public final class LongCache<V> {
+    private static final int SEGMENT_COUNT = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final Segment<V>[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates an instance.
+     *
+     * @param maxSize the maximum amount of entries, rounded up to a multiple of the amount of segments
+     */
+    @SuppressWarnings("unchecked")
+    public LongCache(@Range(from = 1, to = Integer.MAX_VALUE / 2) final int maxSize) {
+        int maxPerSegment = Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(maxPerSegment, size);
+        }
+    }
+
+    /**
+     * Returns the entry of the given key, and marks it as recently used.
+     *
+     * @param key the key
+     *
+     * @return the entry, or null when absent
+     */
+    @Nullable
+    public Entry<V> get(final long key) {
+        long hash = key * GOLDEN_RATIO;
+
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Whenever the given key has an entry, without marking it as recently used.
+     *
+     * @param key the key
+     *
+     * @return whenever the key has an entry
+     */
+    public boolean containsKey(final long key) {
+        long hash = key * GOLDEN_RATIO;
+
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    /**
+     * Puts the given value, replacing the old entry.
+     *
+     * @param key the key
+     * @param value the value
+     * @param loadedAt the {@link System#nanoTime()} the value was loaded at
+     *
+     * @return whenever another entry got evicted to make space
+     */
+    public boolean put(final long key, @NotNull final V value, final long loadedAt) {
+        long hash = key * GOLDEN_RATIO;
+
+        return segmentFor(hash).put(key, hash, new Entry<>(value, loadedAt));
+    }
+
+    /**
+     * Removes the entry of the given key.
+     *
+     * @param key the key
+     *
+     * @return whenever an entry got removed
+     */
+    public boolean remove(final long key) {
+        long hash = key * GOLDEN_RATIO;
+
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * The amount of entries.
+     *
+     * @return the amount of entries
+     */
+    public int size() {
+        return size.get();
+    }
+
+    @NotNull
+    private Segment<V> segmentFor(final long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENT_COUNT - 1)];
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "LongCache{" +
+                "size=" + size +
+                '}';
+    }
+
+    /**
+     * A cached value.
+     *
+     * @param value the value
+     * @param loadedAt the {@link System#nanoTime()} the value was loaded at
+     *
+     * @param <V> the type of the value
+     */
+    public record Entry<V>(@NotNull V value, long loadedAt) {
+    }
+
+    private static final class Segment<V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicInteger totalSize;
+        private final int maxSize;
+        private final int mask;
+
+        private final long[] keys;
+        private final Entry<V>[] entries;
+        private final boolean[] referenced;
+
+        private int size;
+        private int clockHand;
+
+        @SuppressWarnings("unchecked")
+        private Segment(final int maxSize, @NotNull final AtomicInteger totalSize) {
+            this.maxSize = maxSize;
+            this.totalSize = totalSize;
+
+            // at most half full, keeps the probe sequences short
+            int capacity = Integer.highestOneBit(Math.max(2, maxSize * 2 - 1)) << 1;
+
+            mask = capacity - 1;
+            keys = new long[capacity];
+            entries = new Entry[capacity];
+            referenced = new boolean[capacity];
+        }
+
+        @Nullable
+        private Entry<V> get(final long key, final long hash) {
+            lock.lock();
+            try {
+                int index = indexOf(key, hash);
+
+                if (-1 == index) {
+                    return null;
+                }
+
+                referenced[index] = true;
+                return entries[index];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean containsKey(final long key, final long hash) {
+            lock.lock();
+            try {
+                return -1 != indexOf(key, hash);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean put(final long key, final long hash, @NotNull final Entry<V> entry) {
+            lock.lock();
+            try {
+                int index = indexOf(key, hash);
+
+                if (-1 != index) {
+                    entries[index] = entry;
+                    return false;
+                }
+
+                boolean evicted = false;
+                if (size >= maxSize) {
+                    evict();
+                    evicted = true;
+                }
+
+                index = slot(hash);
+                while (null != entries[index]) {
+                    index = (index + 1) & mask;
+                }
+
+                keys[index] = key;
+                entries[index] = entry;
+                referenced[index] = false;
+                size++;
+                totalSize.incrementAndGet();
+
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean remove(final long key, final long hash) {
+            lock.lock();
+            try {
+                int index = indexOf(key, hash);
+
+                if (-1 == index) {
+                    return false;
+                }
+
+                deleteAt(index);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int indexOf(final long key, final long hash) {
+            int index = slot(hash);
+
+            while (null != entries[index]) {
+                if (keys[index] == key) {
+                    return index;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private int slot(final long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        /**
+         * Evicts one entry, entries read since the clock hand last passed get a second chance.
+         */
+        private void evict() {
+            while (true) {
+                clockHand = (clockHand + 1) & mask;
+
+                if (null == entries[clockHand]) {
+                    continue;
+                }
+
+                if (referenced[clockHand]) {
+                    referenced[clockHand] = false;
+                } else {
+                    deleteAt(clockHand);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Deletes the entry at the given index, and shifts the following entries back so no probe sequence breaks.
+         *
+         * @param index the index to delete
+         */
+        private void deleteAt(final int index) {
+            int hole = index;
+            int next = index;
+
+            while (true) {
+                next = (next + 1) & mask;
+
+                if (null == entries[next]) {
+                    break;
+                }
+
+                int ideal = slot(keys[next] * GOLDEN_RATIO);
+                boolean staysPut = hole <= next
+                        ? hole < ideal && ideal <= next
+                        : hole < ideal || ideal <= next;
+
+                if (!staysPut) {
+                    keys[hole] = keys[next];
+                    entries[hole] = entries[next];
+                    referenced[hole] = referenced[next];
+                    hole = next;
+                }
+            }
+
+            entries[hole] = null;
+            referenced[hole] = false;
+            size--;
+            totalSize.decrementAndGet();
+        }
+    }
+}
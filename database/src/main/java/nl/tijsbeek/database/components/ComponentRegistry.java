@@ -0,0 +1,590 @@
+package nl.tijsbeek.database.components;
+
+import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.databases.IStringDatabase;
+import nl.tijsbeek.database.tables.ComponentEntity;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps live {@link ComponentEntity ComponentEntities} in memory, in front of the {@link ComponentDatabase}.
+ * <p>
+ * Reads are served from a bounded LRU cache, only a miss (like a component of before a restart) reads from the DB.
+ * <br/>
+ * Writes are write-behind, they're applied in memory right away and flushed to the DB in batches every {@value #FLUSH_INTERVAL_MILLIS} ms.
+ * IDs are taken from blocks reserved with {@link ComponentDatabase#reserveIdBlock()}, so creating a component costs no round-trip most of the time.
+ * <p>
+ * {@link #close()} flushes everything that's still pending, components created within the last flush interval are lost on a crash.
+ * <p>
+ * A miss is only cached when no delete or overwrite raced the DB read, so a deleted component can't end up back in the cache.
+ * <p>
+ * Small components can skip all of this using {@link #insertStatelessOrReturnId(ComponentEntity)}, see {@link StatelessComponentIdCodec}.
+ * Without a codec every component gets registered, and stateless ID's aren't accepted.
+ */
+public final class ComponentRegistry implements IStringDatabase<ComponentEntity>, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ComponentRegistry.class);
+
+    /**
+     * The interval between flushes of the pending writes.
+     */
+    public static final long FLUSH_INTERVAL_MILLIS = 250L;
+
+    /**
+     * The default maximum amount of cached components.
+     */
+    public static final int DEFAULT_MAX_CACHED_COMPONENTS = 50_000;
+
+    private final ComponentStore componentStore;
+    private final StatelessComponentIdCodec statelessCodec;
+    private final ScheduledExecutorService writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, ComponentEntity> cache;
+    private Map<Long, ComponentEntity> pendingInserts = new HashMap<>();
+    private Set<Long> pendingDeletes = new HashSet<>();
+    // the writes of the running flush, these might not be committed yet
+    private Map<Long, ComponentEntity> flushingInserts = Map.of();
+    private Set<Long> flushingDeletes = Set.of();
+    // bumped on every delete or overwrite of an existing ID, a DB read is only cached when it didn't change meanwhile
+    private long invalidations;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long idBlockEnd;
+
+    /**
+     * Creates an instance with a cache of {@value #DEFAULT_MAX_CACHED_COMPONENTS} components.
+     *
+     * @param componentStore the {@link ComponentStore} to persist to, like the {@link ComponentDatabase}
+     * @param statelessCodec the codec for stateless ID's, null disables them
+     */
+    public ComponentRegistry(@NotNull final ComponentStore componentStore, @Nullable final StatelessComponentIdCodec statelessCodec) {
+        this(componentStore, statelessCodec, DEFAULT_MAX_CACHED_COMPONENTS);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param componentStore the {@link ComponentStore} to persist to, like the {@link ComponentDatabase}
+     * @param statelessCodec the codec for stateless ID's, null disables them
+     * @param maxCachedComponents the maximum amount of components kept in memory, pending writes don't count towards this
+     */
+    public ComponentRegistry(@NotNull final ComponentStore componentStore, @Nullable final StatelessComponentIdCodec statelessCodec,
+                             @Range(from = 1, to = Integer.MAX_VALUE) final int maxCachedComponents) {
+        this.componentStore = Objects.requireNonNull(componentStore, "The given ComponentStore cannot be null");
+        this.statelessCodec = statelessCodec;
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, ComponentEntity> eldest) {
+                return size() > maxCachedComponents;
+            }
+        };
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ComponentRegistry-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retrieves the component, from memory when possible.
+     *
+     * @param id the ID of the component
+     *
+     * @return the component, or null when it doesn't exist
+     */
+    @Override
+    public @Nullable ComponentEntity retrieveById(final long id) {
+        long invalidationsBeforeRead;
+
+        lock.lock();
+        try {
+            ComponentEntity pending = pendingInserts.get(id);
+            if (null != pending) {
+                return pending;
+            }
+
+            if (pendingDeletes.contains(id)) {
+                return null;
+            }
+
+            // a flushing insert with a flushing delete of the same ID is a replace
+            ComponentEntity flushing = flushingInserts.get(id);
+            if (null != flushing) {
+                return flushing;
+            }
+
+            if (flushingDeletes.contains(id)) {
+                return null;
+            }
+
+            ComponentEntity cached = cache.get(id);
+            if (null != cached) {
+                return cached;
+            }
+
+            invalidationsBeforeRead = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        ComponentEntity componentEntity = componentStore.retrieveById(id);
+
+        if (null != componentEntity) {
+            lock.lock();
+            try {
+                // a delete or overwrite during the read can already be flushed, then the read row is outdated
+                if (invalidationsBeforeRead == invalidations) {
+                    cache.put(id, componentEntity);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return componentEntity;
+    }
+
+    /**
+     * Retrieves the component, stateless ID's are decoded without any lookup.
+     *
+     * @param id the ID of the component
+     *
+     * @return the component, or null when it doesn't exist or the stateless ID has been tampered with
+     */
+    @Override
+    public @Nullable ComponentEntity retrieveById(@NotNull final String id) {
+        if (StatelessComponentIdCodec.isStateless(id)) {
+            return decodeStateless(id);
+        }
+
+        return retrieveById(Long.parseLong(id));
+    }
+
+    /**
+     * Deletes the component, for stateless ID's there's nothing to delete.
+     *
+     * @param id the component to delete
+     *
+     * @return the deleted component, or null when it didn't exist
+     */
+    @Override
+    public @Nullable ComponentEntity deleteById(@NotNull final String id) {
+        if (StatelessComponentIdCodec.isStateless(id)) {
+            return decodeStateless(id);
+        }
+
+        return deleteById(Long.parseLong(id));
+    }
+
+    /**
+     * Decodes the stateless ID, these can't be verified without a codec.
+     */
+    @Nullable
+    private ComponentEntity decodeStateless(@NotNull final String id) {
+        return null == statelessCodec ? null : statelessCodec.decode(id);
+    }
+
+    /**
+     * Encodes the component into a stateless ID, never when there's no codec.
+     */
+    @Nullable
+    private String encodeStateless(@NotNull final ComponentEntity componentEntity) {
+        return null == statelessCodec ? null : statelessCodec.encode(componentEntity);
+    }
+
+    /**
+     * Deletes the component, the DB row gets deleted on the next flush.
+     *
+     * @param id the component to delete
+     *
+     * @return the deleted component, or null when it didn't exist
+     */
+    @Override
+    public @Nullable ComponentEntity deleteById(final long id) {
+        ComponentEntity componentEntity = retrieveById(id);
+
+        lock.lock();
+        try {
+            invalidations++;
+            cache.remove(id);
+
+            if (null == pendingInserts.remove(id)) {
+                pendingDeletes.add(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return componentEntity;
+    }
+
+    /**
+     * Inserts the given component, when it has no ID one gets generated.
+     *
+     * @param componentEntity the component
+     *
+     * @see #insertAndReturnId(ComponentEntity)
+     */
+    @Override
+    public void insert(@NotNull final ComponentEntity componentEntity) {
+        insertAndReturnId(componentEntity);
+    }
+
+    /**
+     * Replaces the given component, when it has no ID one gets generated.
+     *
+     * @param componentEntity the component
+     */
+    @Override
+    public void replace(@NotNull final ComponentEntity componentEntity) {
+        if (null != componentEntity.getId()) {
+            long id = Long.parseLong(componentEntity.getId());
+
+            lock.lock();
+            try {
+                invalidations++;
+
+                if (!pendingInserts.containsKey(id)) {
+                    pendingDeletes.add(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        insertAndReturnId(componentEntity);
+    }
+
+    /**
+     * Registers the given component, and returns its ID.
+     * <br/>
+     * The component can be retrieved right away, it gets persisted on the next flush.
+     *
+     * @param componentEntity the component, when it has no ID one gets generated
+     *
+     * @return the ID of the component
+     */
+    @NotNull
+    public String insertAndReturnId(@NotNull final ComponentEntity componentEntity) {
+        Objects.requireNonNull(componentEntity, "The given ComponentEntity cannot be null");
+
+        boolean generatedId = null == componentEntity.getId();
+        long id = generatedId ? nextId() : Long.parseLong(componentEntity.getId());
+        String stringId = Long.toString(id);
+
+        ComponentEntity withId = new ComponentEntity(stringId, componentEntity.getListenerId(),
+                componentEntity.getExpireDate(), componentEntity.getArguments());
+
+        lock.lock();
+        try {
+            // a generated ID can't be read from the DB yet, only an existing ID invalidates running reads
+            if (!generatedId) {
+                invalidations++;
+            }
+
+            // a pending delete of the same ID stays, as deletes are flushed first this makes it a replace
+            pendingInserts.put(id, withId);
+            cache.remove(id);
+        } finally {
+            lock.unlock();
+        }
+
+        return stringId;
+    }
+
+    /**
+     * Registers all given components at once, and returns their IDs in the same order.
+     * <br/>
+     * Unlike calling {@link #insertAndReturnId(ComponentEntity)} for every component, this takes the locks only once.
+     *
+     * @param componentEntities the components, their IDs are ignored
+     *
+     * @return the IDs of the components
+     */
+    @NotNull
+    public List<String> insertAllAndReturnIds(@NotNull final List<ComponentEntity> componentEntities) {
+        long[] ids = nextIds(componentEntities.size());
+        List<String> stringIds = new ArrayList<>(ids.length);
+
+        lock.lock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                ComponentEntity componentEntity = componentEntities.get(i);
+                String stringId = Long.toString(ids[i]);
+
+                pendingInserts.put(ids[i], new ComponentEntity(stringId, componentEntity.getListenerId(),
+                        componentEntity.getExpireDate(), componentEntity.getArguments()));
+                stringIds.add(stringId);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return stringIds;
+    }
+
+    /**
+     * Encodes the given component into a stateless ID when it fits, otherwise it gets registered like {@link #insertAndReturnId(ComponentEntity)}.
+     * <br/>
+     * Without a codec every component gets registered.
+     *
+     * @param componentEntity the component, its ID is ignored
+     *
+     * @return the ID of the component
+     *
+     * @see StatelessComponentIdCodec
+     */
+    @NotNull
+    public String insertStatelessOrReturnId(@NotNull final ComponentEntity componentEntity) {
+        Objects.requireNonNull(componentEntity, "The given ComponentEntity cannot be null");
+
+        String statelessId = encodeStateless(componentEntity);
+
+        if (null != statelessId) {
+            return statelessId;
+        }
+
+        return insertAndReturnId(new ComponentEntity(componentEntity.getListenerId(),
+                componentEntity.getExpireDate(), componentEntity.getArguments()));
+    }
+
+    /**
+     * See {@link #insertStatelessOrReturnId(ComponentEntity)}, but for all given components at once.
+     * <br/>
+     * The components that don't fit in a stateless ID are registered together using {@link #insertAllAndReturnIds(List)}.
+     *
+     * @param componentEntities the components, their IDs are ignored
+     *
+     * @return the IDs of the components, in the same order
+     */
+    @NotNull
+    public List<String> insertAllStatelessOrReturnIds(@NotNull final List<ComponentEntity> componentEntities) {
+        String[] ids = new String[componentEntities.size()];
+        List<Integer> fallbackIndexes = new ArrayList<>(0);
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = encodeStateless(componentEntities.get(i));
+
+            if (null == ids[i]) {
+                fallbackIndexes.add(i);
+            }
+        }
+
+        if (!fallbackIndexes.isEmpty()) {
+            List<String> fallbackIds = insertAllAndReturnIds(fallbackIndexes.stream()
+                    .map(componentEntities::get)
+                    .toList());
+
+            for (int i = 0; i < fallbackIndexes.size(); i++) {
+                ids[fallbackIndexes.get(i)] = fallbackIds.get(i);
+            }
+        }
+
+        return List.of(ids);
+    }
+
+    /**
+     * Removes the given components from memory, without deleting them from the DB.
+     * <br/>
+     * Used when rows got deleted in the DB directly.
+     *
+     * @param ids the IDs of the components to forget
+     */
+    public void evict(@NotNull final Iterable<Long> ids) {
+        lock.lock();
+        try {
+            invalidations++;
+
+            for (final Long id : ids) {
+                cache.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the next free ID, reserves a new block when the current one is used up.
+     *
+     * @return a new ID
+     */
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId >= idBlockEnd) {
+                nextId = componentStore.reserveIdBlock();
+                idBlockEnd = nextId + ComponentDatabase.ID_BLOCK_SIZE;
+            }
+
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the given amount of free IDs, reserves new blocks when needed.
+     *
+     * @param count the amount of IDs
+     *
+     * @return the new IDs
+     */
+    private long @NotNull [] nextIds(final int count) {
+        long[] ids = new long[count];
+
+        idLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                ids[i] = nextId();
+            }
+        } finally {
+            idLock.unlock();
+        }
+
+        return ids;
+    }
+
+    /**
+     * Writes all pending inserts and deletes to the DB, on failure they're retried on the next flush.
+     * <br/>
+     * The inserts only move to the cache once they're committed, so the cache can't evict a component before the DB has it.
+     * <br/>
+     * Only one flush runs at a time.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, ComponentEntity> inserts;
+            Set<Long> deletes;
+
+            lock.lock();
+            try {
+                if (pendingInserts.isEmpty() && pendingDeletes.isEmpty()) {
+                    return;
+                }
+
+                inserts = pendingInserts;
+                deletes = pendingDeletes;
+                pendingInserts = new HashMap<>();
+                pendingDeletes = new HashSet<>();
+
+                // keep the flushed components readable, and the flushed deletes unreadable, until they are in the DB
+                flushingInserts = inserts;
+                flushingDeletes = deletes;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean committed = false;
+
+            try {
+                // deletes first, a replace is a delete and an insert of the same ID
+                componentStore.applyChanges(deletes, inserts.values());
+                committed = true;
+            } catch (final RuntimeException e) {
+                logger.error("Something went wrong while flushing {} component inserts and {} deletes, retrying on the next flush.",
+                        inserts.size(), deletes.size(), e);
+
+                requeue(inserts, deletes);
+            } finally {
+                lock.lock();
+                try {
+                    if (committed) {
+                        // a write of the same ID during the flush is newer, the flushed component is outdated
+                        inserts.forEach((id, componentEntity) -> {
+                            if (!pendingInserts.containsKey(id) && !pendingDeletes.contains(id)) {
+                                cache.put(id, componentEntity);
+                            }
+                        });
+                    }
+
+                    flushingInserts = Map.of();
+                    flushingDeletes = Set.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Puts the failed writes back, unless a newer write for the same ID happened in the meantime.
+     *
+     * @param inserts the inserts that failed
+     * @param deletes the deletes that failed
+     */
+    private void requeue(@NotNull final Map<Long, ComponentEntity> inserts, @NotNull final Set<Long> deletes) {
+        lock.lock();
+        try {
+            Set<Long> newlyWritten = new HashSet<>(pendingInserts.keySet());
+            newlyWritten.addAll(pendingDeletes);
+
+            deletes.forEach(id -> {
+                if (!newlyWritten.contains(id)) {
+                    pendingDeletes.add(id);
+                }
+            });
+
+            inserts.forEach((id, componentEntity) -> {
+                if (!newlyWritten.contains(id)) {
+                    pendingInserts.put(id, componentEntity);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the writer, and flushes everything that's still pending.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("The component writer didn't stop in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "ComponentRegistry{" +
+                "componentStore=" + componentStore +
+                '}';
+    }
+}
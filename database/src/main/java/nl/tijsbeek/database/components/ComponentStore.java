@@ -0,0 +1,41 @@
+package nl.tijsbeek.database.components;
+
+import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.tables.ComponentEntity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * The persistent storage behind the {@link ComponentRegistry}, implemented by {@link ComponentDatabase}.
+ */
+public interface ComponentStore {
+
+    /**
+     * Retrieves the component with the given ID.
+     *
+     * @param id the ID of the component
+     *
+     * @return the component, or null when it doesn't exist
+     */
+    @Nullable
+    ComponentEntity retrieveById(long id);
+
+    /**
+     * Reserves a block of {@link ComponentDatabase#ID_BLOCK_SIZE} IDs.
+     *
+     * @return the first ID of the block
+     */
+    long reserveIdBlock();
+
+    /**
+     * Deletes and inserts the given components, either all changes are stored or none are.
+     * <br/>
+     * The deletes are applied before the inserts, so a delete and an insert of the same ID replaces the component.
+     *
+     * @param deletes the IDs of the components to delete
+     * @param inserts the components to insert, all of them need an ID
+     */
+    void applyChanges(@NotNull Collection<Long> deletes, @NotNull Collection<ComponentEntity> inserts);
+}
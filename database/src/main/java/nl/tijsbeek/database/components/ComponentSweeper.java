@@ -0,0 +1,167 @@
+package nl.tijsbeek.database.components;
+
+import io.prometheus.client.Histogram;
+import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.databases.ComponentDatabase;
+import nl.tijsbeek.database.databases.TableStatistics;
+import nl.tijsbeek.database.metrics.DatabaseMetrics;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Periodically deletes expired components, and components of listeners that no longer exist.
+ * <p>
+ * Rows are deleted in batches using the index on {@code expire_date}, with a pause between the batches.
+ * This keeps every statement short, so foreground queries never have to wait long on the locks of a sweep.
+ * <br/>
+ * Deleted components are evicted from the {@link ComponentRegistry} as well.
+ */
+public final class ComponentSweeper implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ComponentSweeper.class);
+
+    private final ComponentDatabase componentDatabase;
+    private final ComponentRegistry componentRegistry;
+    private final ScheduledExecutorService scheduler;
+
+    private final int intervalSeconds;
+    private final int batchSize;
+    private final int batchPauseMillis;
+
+    private volatile Set<String> knownListenerIds = Set.of();
+
+    /**
+     * Creates an instance, this doesn't start sweeping yet.
+     *
+     * @param componentDatabase the {@link ComponentDatabase} to delete from
+     * @param componentRegistry the {@link ComponentRegistry} to evict deleted components from
+     * @param config the {@link Config} to take the pacing from
+     *
+     * @see #start(Collection)
+     */
+    public ComponentSweeper(@NotNull final ComponentDatabase componentDatabase, @NotNull final ComponentRegistry componentRegistry,
+                            @NotNull final Config config) {
+        this.componentDatabase = Objects.requireNonNull(componentDatabase, "The given ComponentDatabase cannot be null");
+        this.componentRegistry = Objects.requireNonNull(componentRegistry, "The given ComponentRegistry cannot be null");
+
+        this.intervalSeconds = Math.max(1, config.getComponentSweepIntervalSeconds());
+        this.batchSize = Math.max(1, config.getComponentSweepBatchSize());
+        this.batchPauseMillis = Math.max(0, config.getComponentSweepBatchPauseMillis());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ComponentSweeper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts sweeping.
+     * <br/>
+     * Components with a listener ID not within the given IDs are seen as orphaned, when empty no orphans are deleted.
+     *
+     * @param knownListenerIds the listener IDs of all listeners, like {@code 1-coin-flip}
+     */
+    public void start(@NotNull final Collection<String> knownListenerIds) {
+        this.knownListenerIds = Set.copyOf(knownListenerIds);
+
+        scheduler.scheduleWithFixedDelay(this::sweep, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs a full sweep, this blocks until all expired and orphaned components are deleted.
+     */
+    public void sweep() {
+        Histogram.Timer timer = DatabaseMetrics.COMPONENT_SWEEP_DURATION.startTimer();
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+
+            long expired = sweepBatches("expired", limit -> componentDatabase.deleteExpired(now, limit));
+            long orphaned = 0;
+
+            if (!knownListenerIds.isEmpty()) {
+                orphaned = sweepBatches("orphaned", limit -> componentDatabase.deleteOrphaned(knownListenerIds, limit));
+            }
+
+            if (0 != expired || 0 != orphaned) {
+                logger.info("Swept {} expired and {} orphaned components.", expired, orphaned);
+            }
+
+            TableStatistics statistics = componentDatabase.retrieveTableStatistics();
+
+            if (null != statistics) {
+                DatabaseMetrics.TABLE_ROWS.labels("component").set(statistics.rows());
+                DatabaseMetrics.TABLE_SIZE_BYTES.labels("component").set(statistics.bytes());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final RuntimeException e) {
+            logger.error("Something went wrong while sweeping components, retrying next interval.", e);
+        } finally {
+            timer.observeDuration();
+        }
+    }
+
+    /**
+     * Deletes batches until a batch deletes less than the batch size.
+     *
+     * @param reason the reason for the metrics
+     * @param deleter deletes up to the given amount of components, and returns their IDs
+     *
+     * @return the total amount of deleted components
+     *
+     * @throws InterruptedException when interrupted while pausing between 2 batches
+     */
+    private long sweepBatches(@NonNls @NotNull final String reason, @NotNull final Function<Integer, List<Long>> deleter)
+            throws InterruptedException {
+        long total = 0;
+
+        while (true) {
+            List<Long> deletedIds = deleter.apply(batchSize);
+
+            componentRegistry.evict(deletedIds);
+            DatabaseMetrics.COMPONENTS_RECLAIMED.labels(reason).inc(deletedIds.size());
+            total += deletedIds.size();
+
+            if (deletedIds.size() < batchSize) {
+                return total;
+            }
+
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+
+    /**
+     * Stops sweeping, a running sweep stops after its current batch.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "ComponentSweeper{" +
+                "intervalSeconds=" + intervalSeconds +
+                ", batchSize=" + batchSize +
+                ", batchPauseMillis=" + batchPauseMillis +
+                '}';
+    }
+}
@@ -0,0 +1,188 @@
+package nl.tijsbeek.database.components;
+
+import nl.tijsbeek.database.tables.ComponentEntity;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Encodes a {@link ComponentEntity} into the custom ID of the component itself, so no DB row is needed.
+ * <p>
+ * The format is {@code ~<signature>listenerId|expiry|argument|argument...}, where the signature is a truncated HMAC-SHA256 of the rest.
+ * The expiry is the epoch second (in UTC) in base 36, or empty when the component never expires.
+ * <br/>
+ * Components that don't fit within {@value #MAX_ID_LENGTH} characters, or which have a {@code |} within an argument can't be encoded.
+ */
+public final class StatelessComponentIdCodec {
+
+    /**
+     * The maximum length of a custom ID, as set by Discord.
+     */
+    public static final int MAX_ID_LENGTH = 100;
+
+    /**
+     * The first character of every stateless ID, never used by the numeric ID's of the DB.
+     */
+    public static final char PREFIX = '~';
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 12;
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final char SEPARATOR = '|';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Creates an instance.
+     *
+     * @param secret the secret to sign ID's with
+     *
+     * @throws IllegalArgumentException when the secret is empty
+     */
+    public StatelessComponentIdCodec(@NotNull final String secret) {
+        Objects.requireNonNull(secret, "The given secret cannot be null");
+
+        if (secret.isEmpty()) {
+            throw new IllegalArgumentException("The secret cannot be empty");
+        }
+
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 should be supported by every JVM", e);
+            }
+        });
+    }
+
+    /**
+     * Whenever the given ID is a stateless ID, this doesn't validate the signature.
+     *
+     * @param id the custom ID
+     *
+     * @return whenever the ID is stateless
+     */
+    @Contract(pure = true)
+    public static boolean isStateless(@NotNull final String id) {
+        return !id.isEmpty() && PREFIX == id.charAt(0);
+    }
+
+    /**
+     * Encodes the given {@link ComponentEntity}, the ID of the entity is ignored.
+     *
+     * @param componentEntity the {@link ComponentEntity} to encode
+     *
+     * @return the custom ID, or null when the entity can't be encoded
+     */
+    @Nullable
+    public String encode(@NotNull final ComponentEntity componentEntity) {
+        String listenerId = componentEntity.getListenerId();
+
+        if (null == listenerId || -1 != listenerId.indexOf(SEPARATOR)) {
+            return null;
+        }
+
+        StringBuilder payload = new StringBuilder(MAX_ID_LENGTH)
+                .append(listenerId)
+                .append(SEPARATOR);
+
+        if (null != componentEntity.getExpireDate()) {
+            payload.append(Long.toString(componentEntity.getExpireDate().toEpochSecond(ZoneOffset.UTC), 36));
+        }
+
+        for (final String argument : componentEntity.getArguments()) {
+            if (-1 != argument.indexOf(SEPARATOR)) {
+                return null;
+            }
+
+            payload.append(SEPARATOR).append(argument);
+        }
+
+        if (payload.length() > MAX_ID_LENGTH - SIGNATURE_LENGTH - 1) {
+            return null;
+        }
+
+        return PREFIX + sign(payload.toString()) + payload;
+    }
+
+    /**
+     * Decodes the given stateless ID.
+     *
+     * @param id the custom ID
+     *
+     * @return the {@link ComponentEntity} with the ID as its ID, or null when the ID isn't stateless or the signature is invalid
+     */
+    @Nullable
+    public ComponentEntity decode(@NotNull final String id) {
+        if (!isStateless(id) || id.length() <= SIGNATURE_LENGTH + 1) {
+            return null;
+        }
+
+        String signature = id.substring(1, SIGNATURE_LENGTH + 1);
+        String payload = id.substring(SIGNATURE_LENGTH + 1);
+
+        byte[] expected = signBytes(payload);
+        byte[] actual;
+
+        try {
+            actual = DECODER.decode(signature);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        String[] parts = payload.split("\\|", -1);
+
+        if (2 > parts.length) {
+            return null;
+        }
+
+        LocalDateTime expireDate = parts[1].isEmpty() ? null
+                : LocalDateTime.ofEpochSecond(Long.parseLong(parts[1], 36), 0, ZoneOffset.UTC);
+        List<String> arguments = List.of(Arrays.copyOfRange(parts, 2, parts.length));
+
+        return new ComponentEntity(id, parts[0], expireDate, arguments);
+    }
+
+    @NotNull
+    private String sign(@NotNull final String payload) {
+        return ENCODER.encodeToString(signBytes(payload));
+    }
+
+    private byte @NotNull [] signBytes(@NotNull final String payload) {
+        byte[] hmac = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+
+        return Arrays.copyOf(hmac, SIGNATURE_BYTES);
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "StatelessComponentIdCodec{}";
+    }
+}
@@ -3,6 +3,7 @@ package nl.tijsbeek.database.databases;
 import com.diffplug.common.base.Errors;
 import nl.tijsbeek.database.tables.ComponentEntity;
 import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -11,6 +12,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -21,10 +25,18 @@ import java.util.function.Function;
  * @param <Entity>
  *
  * @see #withReturn(String, Consumer, Function)
+ * @see #withReturnList(String, Consumer, Function)
+ * @see #withStreamedRows(String, Consumer, Consumer)
  * @see #withoutReturn(String, Consumer)
+ * @see #withUnitOfWork(Consumer)
  */
 public abstract class AbstractDatabase<Entity> implements IDatabase<Entity> {
 
+    /**
+     * The amount of rows {@link #withStreamedRows(String, Consumer, Consumer)} fetches from the DB at once.
+     */
+    protected static final int STREAM_FETCH_SIZE = 256;
+
     private final DataSource dataSource;
 
     protected AbstractDatabase(final DataSource dataSource) {
@@ -72,6 +84,122 @@ public abstract class AbstractDatabase<Entity> implements IDatabase<Entity> {
         }
     }
 
+    /**
+     * See {@link #withReturn(String, Consumer, Function)}, but this maps every row instead of only the first.
+     *
+     * <p><b>The mapper should not move the {@link ResultSet}, it's set on the row to map!</b>
+     *
+     * @param sql the SQL to prepare
+     * @param argumentInserter consumer which adds arguments to the {@link PreparedStatement}
+     * @param rowMapper maps the current row of the given {@link ResultSet} to {@link T}
+     *
+     * @return a {@link List} with all rows mapped to {@link T}, empty when there are no rows
+     *
+     * @param <T> the return value, often equal to {@link Entity}
+     *
+     * @see #withReturn(String, Consumer, Function)
+     */
+    @NotNull
+    protected <T> List<T> withReturnList(@Language("SQL") final String sql, final @NotNull Consumer<? super PreparedStatement> argumentInserter,
+                                         final @NotNull Function<? super ResultSet, T> rowMapper) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            argumentInserter.accept(statement);
+
+            List<T> results = new ArrayList<>();
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    results.add(rowMapper.apply(resultSet));
+                }
+            }
+
+            return results;
+
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * See {@link #withReturnList(String, Consumer, Function)}, but this passes every row to the consumer instead of collecting them.
+     * <br/>
+     * The result set is forward-only and read-only, and only {@value #STREAM_FETCH_SIZE} rows are fetched at a time.
+     * This keeps the memory constant no matter how many rows there are, the connection is kept until all rows are consumed.
+     *
+     * <p><b>The consumer should not move the {@link ResultSet}, it's set on the row to consume!</b>
+     *
+     * @param sql the SQL to prepare
+     * @param argumentInserter consumer which adds arguments to the {@link PreparedStatement}
+     * @param rowConsumer consumes the current row of the given {@link ResultSet}
+     *
+     * @return the amount of consumed rows
+     *
+     * @see #withReturnList(String, Consumer, Function)
+     */
+    protected long withStreamedRows(@Language("SQL") final String sql, final @NotNull Consumer<? super PreparedStatement> argumentInserter,
+                                    final @NotNull Consumer<? super ResultSet> rowConsumer) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            argumentInserter.accept(statement);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+
+            long rows = 0;
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rowConsumer.accept(resultSet);
+                    rows++;
+                }
+            }
+
+            return rows;
+
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs the given work within a {@link UnitOfWork}, and commits it afterwards.
+     * <br/>
+     * Use this over calling {@link #withoutReturn(String, Consumer)} in a loop, it borrows one connection and sends the writes as batches.
+     *
+     * @param work adds the writes to the {@link UnitOfWork}
+     *
+     * @see UnitOfWork
+     */
+    protected void withUnitOfWork(@NotNull final Consumer<? super UnitOfWork> work) {
+        try (UnitOfWork unitOfWork = new UnitOfWork(dataSource)) {
+            work.accept(unitOfWork);
+
+            if (0 != unitOfWork.getQueuedRows()) {
+                unitOfWork.commit();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the estimated size of the given table in the {@code discordbot} schema.
+     *
+     * @param table the name of the table
+     *
+     * @return the {@link TableStatistics}, or null when the table doesn't exist
+     */
+    @Nullable
+    protected TableStatistics retrieveTableStatistics(@NotNull final String table) {
+        return withReturn("""
+                SELECT table_rows, data_length + index_length
+                FROM information_schema.tables
+                WHERE table_schema = 'discordbot' AND table_name = ?
+                """, Errors.rethrow().wrap(statement -> {
+                    statement.setString(1, table);
+                }),
+                Errors.rethrow().wrap((ResultSet resultSet) -> new TableStatistics(resultSet.getLong(1), resultSet.getLong(2))));
+    }
+
     /**
      * This is a try to work against all the duplications that existed in the old system.
      *
@@ -89,13 +217,29 @@ public abstract class AbstractDatabase<Entity> implements IDatabase<Entity> {
 
             argumentInserter.accept(statement);
 
-            statement.executeQuery();
+            statement.execute();
 
         } catch (final SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Creates the placeholders for a multi-row insert, like {@code (?, ?), (?, ?)}.
+     *
+     * @param rows the amount of rows
+     * @param columns the amount of columns per row
+     *
+     * @return the placeholders
+     */
+    @NotNull
+    @Contract(pure = true)
+    protected static String placeholders(final int rows, final int columns) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
     /**
      * Returns a consumer which set's the first parameter to the given ID as a Long.
      * <br>This method offers no customizable, purely because it's rarely needed differently.
@@ -112,6 +256,25 @@ public abstract class AbstractDatabase<Entity> implements IDatabase<Entity> {
         });
     }
 
+    /**
+     * Returns a consumer which sets the parameters, starting at the first, to the given values as Longs.
+     *
+     * @param values the values to set the parameters to, in order
+     *
+     * @return a consumer which sets the parameters to the given values
+     *
+     * @see #setIdLongConsumer(long)
+     */
+    public static Consumer<PreparedStatement> setLongsConsumer(@NotNull final Iterable<Long> values) {
+        return Errors.rethrow().wrap(statement -> {
+            int index = 1;
+
+            for (final Long value : values) {
+                statement.setLong(index++, value);
+            }
+        });
+    }
+
     /**
      * Returns a consumer which set's the first parameter to the given ID as a String.
      * <br>This method offers no customizable, purely because it's rarely needed differently.
@@ -0,0 +1,230 @@
+package nl.tijsbeek.database.databases;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Encodes a list of arguments into bytes, to be stored in a {@code VARBINARY} or {@code BLOB} column.
+ * <p>
+ * The format is the amount of arguments as a varint, followed by every argument as its UTF-8 length as a varint and its UTF-8 bytes.
+ * A varint is an unsigned number written 7 bits at a time, least significant first, with the highest bit set on all but the last byte.
+ * <br/>
+ * Unlike CSV nothing has to be escaped, so {@link #encode(Collection)} allocates only the returned array,
+ * and {@link #decode(byte[])} only the strings and the returned list.
+ *
+ * @see Database#argumentsToCsvString(Collection)
+ */
+public final class ArgumentCodec {
+    private static final int VARINT_DATA_BITS = 7;
+    private static final int VARINT_DATA_MASK = 0x7F;
+    private static final int VARINT_CONTINUE_BIT = 0x80;
+
+    private static final byte[] EMPTY = {0};
+
+    @Contract(pure = true)
+    private ArgumentCodec() {}
+
+    /**
+     * Encodes the given arguments.
+     *
+     * @param arguments the arguments, none of them may be null
+     *
+     * @return the encoded arguments
+     *
+     * @see #decode(byte[])
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static byte[] encode(@NotNull final Collection<String> arguments) {
+        if (arguments.isEmpty()) {
+            return EMPTY.clone();
+        }
+
+        int size = varintLength(arguments.size());
+        for (final String argument : arguments) {
+            int length = utf8Length(argument);
+            size += varintLength(length) + length;
+        }
+
+        byte[] bytes = new byte[size];
+        int position = writeVarint(bytes, 0, arguments.size());
+
+        for (final String argument : arguments) {
+            position = writeVarint(bytes, position, utf8Length(argument));
+            position = writeUtf8(bytes, position, argument);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Decodes arguments encoded by {@link #encode(Collection)}.
+     *
+     * @param bytes the encoded arguments, null is seen as no arguments
+     *
+     * @return an unmodifiable {@link List} of the arguments
+     *
+     * @throws IllegalArgumentException when the bytes aren't valid encoded arguments
+     */
+    @NotNull
+    @Unmodifiable
+    @Contract(pure = true)
+    public static List<String> decode(@Nullable final byte[] bytes) {
+        if (null == bytes || 0 == bytes.length) {
+            return List.of();
+        }
+
+        int[] position = {0};
+        int count = readVarint(bytes, position);
+
+        // every argument takes at least one byte, this stops a corrupt count from allocating a huge array
+        if (count > bytes.length - position[0]) {
+            throw new IllegalArgumentException("Invalid argument count " + count);
+        }
+
+        String[] arguments = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            int length = readVarint(bytes, position);
+
+            if (length > bytes.length - position[0]) {
+                throw new IllegalArgumentException("Argument " + i + " is longer than the remaining bytes");
+            }
+
+            arguments[i] = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+            position[0] += length;
+        }
+
+        if (position[0] != bytes.length) {
+            throw new IllegalArgumentException("Found " + (bytes.length - position[0]) + " bytes after the last argument");
+        }
+
+        return List.of(arguments);
+    }
+
+    @Contract(pure = true)
+    private static int varintLength(final int value) {
+        int length = 1;
+        int remaining = value >>> VARINT_DATA_BITS;
+
+        while (0 != remaining) {
+            length++;
+            remaining >>>= VARINT_DATA_BITS;
+        }
+
+        return length;
+    }
+
+    private static int writeVarint(@NotNull final byte[] bytes, final int position, final int value) {
+        int index = position;
+        int remaining = value;
+
+        while (0 != (remaining & ~VARINT_DATA_MASK)) {
+            bytes[index++] = (byte) ((remaining & VARINT_DATA_MASK) | VARINT_CONTINUE_BIT);
+            remaining >>>= VARINT_DATA_BITS;
+        }
+
+        bytes[index++] = (byte) remaining;
+        return index;
+    }
+
+    /**
+     * Reads a varint, and moves the position past it.
+     *
+     * @param bytes the bytes to read from
+     * @param position the position to read at, as an array so it can be moved
+     *
+     * @return the read value
+     */
+    private static int readVarint(@NotNull final byte[] bytes, @NotNull final int[] position) {
+        int value = 0;
+
+        for (int shift = 0; shift < Integer.SIZE; shift += VARINT_DATA_BITS) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Varint at " + position[0] + " ends early");
+            }
+
+            byte current = bytes[position[0]++];
+            value |= (current & VARINT_DATA_MASK) << shift;
+
+            if (0 == (current & VARINT_CONTINUE_BIT)) {
+                if (0 > value) {
+                    throw new IllegalArgumentException("Varint at " + position[0] + " is negative");
+                }
+
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Varint at " + position[0] + " is too long");
+    }
+
+    /**
+     * The amount of bytes {@link #writeUtf8(byte[], int, String)} writes, this matches {@link String#getBytes(java.nio.charset.Charset)}.
+     *
+     * @param string the string
+     *
+     * @return the UTF-8 length
+     */
+    @Contract(pure = true)
+    private static int utf8Length(@NotNull final String string) {
+        int stringLength = string.length();
+        int length = stringLength;
+
+        for (int i = 0; i < stringLength; i++) {
+            char c = string.charAt(i);
+
+            if (0x80 <= c) {
+                if (0x800 > c) {
+                    length += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < stringLength && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    // 2 chars become 4 bytes
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+                // an unpaired surrogate is written as a single '?', like String#getBytes does
+            }
+        }
+
+        return length;
+    }
+
+    private static int writeUtf8(@NotNull final byte[] bytes, final int position, @NotNull final String string) {
+        int index = position;
+        int stringLength = string.length();
+
+        for (int i = 0; i < stringLength; i++) {
+            char c = string.charAt(i);
+
+            if (0x80 > c) {
+                bytes[index++] = (byte) c;
+            } else if (0x800 > c) {
+                bytes[index++] = (byte) (0xC0 | (c >> 6));
+                bytes[index++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < stringLength && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+
+                bytes[index++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[index++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[index++] = '?';
+            } else {
+                bytes[index++] = (byte) (0xE0 | (c >> 12));
+                bytes[index++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[index++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return index;
+    }
+}
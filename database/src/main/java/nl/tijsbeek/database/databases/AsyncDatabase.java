@@ -0,0 +1,105 @@
+package nl.tijsbeek.database.databases;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the calls of a blocking {@link IDatabase} on the DB executor, see {@link Database#async(IDatabase)}.
+ * <br/>
+ * When the DB executor is saturated, the returned {@link CompletableFuture} fails with a {@link RejectedExecutionException}.
+ *
+ * @param <Entity> the DB's entity
+ * @param <D> the type of the wrapped {@link IDatabase}
+ */
+public final class AsyncDatabase<Entity, D extends IDatabase<Entity>> implements IAsyncDatabase<Entity> {
+    private final D database;
+    private final Executor executor;
+
+    /**
+     * Creates an instance.
+     *
+     * @param database the blocking {@link IDatabase} to wrap
+     * @param executor the {@link Executor} to run the calls on
+     */
+    @Contract(pure = true)
+    AsyncDatabase(@NotNull final D database, @NotNull final Executor executor) {
+        this.database = Objects.requireNonNull(database, "The given database cannot be null");
+        this.executor = Objects.requireNonNull(executor, "The given executor cannot be null");
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Entity> retrieveById(final long id) {
+        return supply(db -> db.retrieveById(id));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Entity> deleteById(final long id) {
+        return supply(db -> db.deleteById(id));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Void> insert(@NotNull final Entity entity) {
+        return run(db -> db.insert(entity));
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<Void> replace(@NotNull final Entity entity) {
+        return run(db -> db.replace(entity));
+    }
+
+    /**
+     * Runs any call on the wrapped database, for methods outside of {@link IDatabase}.
+     *
+     * @param call the call to run, like {@code db -> db.retrieveById("1")}
+     *
+     * @return a {@link CompletableFuture} with the result of the call
+     *
+     * @param <T> the result of the call
+     */
+    @NotNull
+    public <T> CompletableFuture<T> supply(@NotNull final Function<? super D, T> call) {
+        try {
+            return CompletableFuture.supplyAsync(() -> call.apply(database), executor);
+        } catch (final RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs any call on the wrapped database, for methods outside of {@link IDatabase}.
+     *
+     * @param call the call to run
+     *
+     * @return a {@link CompletableFuture} which completes once the call is done
+     */
+    @NotNull
+    public CompletableFuture<Void> run(@NotNull final Consumer<? super D> call) {
+        try {
+            return CompletableFuture.runAsync(() -> call.accept(database), executor);
+        } catch (final RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String toString() {
+        return "AsyncDatabase{" +
+                "database=" + database +
+                '}';
+    }
+}
@@ -4,6 +4,8 @@ import com.diffplug.common.base.Errors;
 import nl.tijsbeek.database.tables.CustomAuditLogEntry;
 import nl.tijsbeek.database.tables.CustomAuditLogEntry.CustomAuditLogEntryBuilder;
 import nl.tijsbeek.database.tables.CustomAuditLogEntry.Type;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -13,15 +15,26 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.function.Consumer;
 
 public class AuditLogDatabase extends AbstractDatabase<CustomAuditLogEntry> {
     private static final Logger logger = LoggerFactory.getLogger(AuditLogDatabase.class);
 
+    @Language("SQL")
+    private static final String INSERT_SQL = """
+            INSERT INTO discordbot.audit_log(guild_id, author, target, reason, type, expire_time, creation_time, attachment_urls)
+            VALUES (?,?,?,?,?,?,?,?)
+            """;
+
+    /**
+     * The maximum amount of entries per page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     protected AuditLogDatabase(@NotNull final Database database) {
         super(Objects.requireNonNull(database, "Database may not be null").getDataSource());
     }
@@ -35,39 +48,183 @@ public class AuditLogDatabase extends AbstractDatabase<CustomAuditLogEntry> {
                 """, AbstractDatabase.setIdLongConsumer(id), AuditLogDatabase::resultSetToAuditLogEntry);
     }
 
+    /**
+     * Retrieves all audit log entries with the given target, across all guilds.
+     * <br/>
+     * This loads every entry at once, use {@link #retrievePageByTargetId(long, long, AuditLogPage.Cursor, int)} for anything shown to users.
+     *
+     * @param id the target's ID
+     *
+     * @return the entries
+     */
     public @NotNull List<CustomAuditLogEntry> retrieveByTargetId(final long id) {
-        return Optional.ofNullable(withReturn("""
+        return withReturnList("""
                 SELECT *
                 FROM discordbot.audit_log
                 WHERE target = ?
-                """, AbstractDatabase.setIdLongConsumer(id), AuditLogDatabase::resultSetToAuditLogEntries)).orElse(List.of());
+                """, AbstractDatabase.setIdLongConsumer(id), AuditLogDatabase::resultSetToAuditLogEntry);
     }
 
+    /**
+     * Retrieves all audit log entries with the given target and type, across all guilds.
+     * <br/>
+     * This loads every entry at once, use {@link #retrievePageByTargetIdAndType(long, long, Type, AuditLogPage.Cursor, int)} for anything shown to users.
+     *
+     * @param id the target's ID
+     * @param type the type of the entries
+     *
+     * @return the entries
+     */
     public @NotNull List<CustomAuditLogEntry> retrieveByTargetIdAndType(final long id, final Type type) {
-        return Optional.ofNullable(withReturn("""
+        return withReturnList("""
                 SELECT *
                 FROM discordbot.audit_log
                 WHERE target = ? AND type = ?
                 """, Errors.rethrow().wrap(preparedStatement -> {
             AbstractDatabase.setIdLongConsumer(id).accept(preparedStatement);
             preparedStatement.setInt(2, type.getKey());
-        }) , AuditLogDatabase::resultSetToAuditLogEntries)).orElse(List.of());
+        }), AuditLogDatabase::resultSetToAuditLogEntry);
     }
 
 
     /**
-     * Retrieves all audit log entires based on the given author's ID
+     * Retrieves all audit log entries based on the given author's ID, across all guilds.
+     * <br/>
+     * This loads every entry at once, use {@link #retrievePageByAuthorId(long, long, AuditLogPage.Cursor, int)} for anything shown to users.
      *
-     * @param id
+     * @param id the author's ID
      *
-     * @return
+     * @return the entries
      */
     public @NotNull List<CustomAuditLogEntry> retrieveByAuthorId(final long id) {
-        return Optional.ofNullable(withReturn("""
+        return withReturnList("""
                 SELECT *
                 FROM discordbot.audit_log
                 WHERE author = ?
-                """, AbstractDatabase.setIdLongConsumer(id), AuditLogDatabase::resultSetToAuditLogEntries)).orElse(List.of());
+                """, AbstractDatabase.setIdLongConsumer(id), AuditLogDatabase::resultSetToAuditLogEntry);
+    }
+
+    /**
+     * Retrieves a page of the entries with the given target within the given guild, newest first.
+     *
+     * @param guildId the ID of the guild
+     * @param targetId the target's ID
+     * @param after the cursor of the previous page, null for the first page
+     * @param limit the maximum amount of entries, at most {@value #MAX_PAGE_SIZE}
+     *
+     * @return the page
+     */
+    public @NotNull AuditLogPage retrievePageByTargetId(final long guildId, final long targetId,
+                                                        @Nullable final AuditLogPage.Cursor after, final int limit) {
+        return retrievePage("target", guildId, targetId, null, after, limit);
+    }
+
+    /**
+     * Retrieves a page of the entries with the given target and type within the given guild, newest first.
+     *
+     * @param guildId the ID of the guild
+     * @param targetId the target's ID
+     * @param type the type of the entries
+     * @param after the cursor of the previous page, null for the first page
+     * @param limit the maximum amount of entries, at most {@value #MAX_PAGE_SIZE}
+     *
+     * @return the page
+     */
+    public @NotNull AuditLogPage retrievePageByTargetIdAndType(final long guildId, final long targetId, @NotNull final Type type,
+                                                               @Nullable final AuditLogPage.Cursor after, final int limit) {
+        return retrievePage("target", guildId, targetId, type, after, limit);
+    }
+
+    /**
+     * Retrieves a page of the entries with the given author within the given guild, newest first.
+     *
+     * @param guildId the ID of the guild
+     * @param authorId the author's ID
+     * @param after the cursor of the previous page, null for the first page
+     * @param limit the maximum amount of entries, at most {@value #MAX_PAGE_SIZE}
+     *
+     * @return the page
+     */
+    public @NotNull AuditLogPage retrievePageByAuthorId(final long guildId, final long authorId,
+                                                        @Nullable final AuditLogPage.Cursor after, final int limit) {
+        return retrievePage("author", guildId, authorId, null, after, limit);
+    }
+
+    /**
+     * Retrieves a page using keyset pagination, the page continues right after the cursor instead of skipping an offset.
+     * <br/>
+     * This walks the {@code (guild_id, target, creation_time, case_id)}, {@code (guild_id, target, type, creation_time, case_id)}
+     * or {@code (guild_id, author, creation_time, case_id)} index backwards,
+     * and reads one row more than the limit to know whenever there's a next page.
+     *
+     * @param userColumn either {@code target} or {@code author}, never user input
+     * @param guildId the ID of the guild
+     * @param userId the ID to look for in the user column
+     * @param type the type of the entries, null for all types
+     * @param after the cursor of the previous page, null for the first page
+     * @param limit the maximum amount of entries
+     *
+     * @return the page
+     */
+    @NotNull
+    private AuditLogPage retrievePage(@NonNls @NotNull final String userColumn, final long guildId, final long userId, @Nullable final Type type,
+                                      @Nullable final AuditLogPage.Cursor after, final int limit) {
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+
+        String typeFilter = null == type ? "" : "AND type = ?";
+        String cursorFilter = null == after ? "" : "AND (creation_time < ? OR (creation_time = ? AND case_id < ?))";
+
+        List<CustomAuditLogEntry> entries = withReturnList("""
+                SELECT *
+                FROM discordbot.audit_log
+                WHERE %s = ? AND guild_id = ? %s %s
+                ORDER BY creation_time DESC, case_id DESC
+                LIMIT ?
+                """.formatted(userColumn, typeFilter, cursorFilter), Errors.rethrow().wrap(preparedStatement -> {
+            int i = 1;
+            preparedStatement.setLong(i++, userId);
+            preparedStatement.setLong(i++, guildId);
+
+            if (null != type) {
+                preparedStatement.setInt(i++, type.getKey());
+            }
+
+            if (null != after) {
+                Timestamp creationTime = Timestamp.from(after.creationTime());
+                preparedStatement.setTimestamp(i++, creationTime);
+                preparedStatement.setTimestamp(i++, creationTime);
+                preparedStatement.setLong(i++, after.caseId());
+            }
+
+            preparedStatement.setInt(i, pageSize + 1);
+        }), AuditLogDatabase::resultSetToAuditLogEntry);
+
+        if (entries.size() <= pageSize) {
+            return new AuditLogPage(entries, null);
+        }
+
+        List<CustomAuditLogEntry> page = List.copyOf(entries.subList(0, pageSize));
+        return new AuditLogPage(page, AuditLogPage.Cursor.after(page.get(pageSize - 1)));
+    }
+
+
+    /**
+     * Passes every entry of the given guild to the consumer, in the order of their case IDs.
+     * <br/>
+     * The entries are streamed from the DB, so only a few are in memory at once, see {@link #withStreamedRows(String, Consumer, Consumer)}.
+     *
+     * @param guildId the ID of the guild
+     * @param consumer consumes the entries, one at a time
+     *
+     * @return the amount of entries
+     */
+    public long forEachByGuildId(final long guildId, @NotNull final Consumer<? super CustomAuditLogEntry> consumer) {
+        return withStreamedRows("""
+                SELECT *
+                FROM discordbot.audit_log
+                WHERE guild_id = ?
+                ORDER BY case_id
+                """, AbstractDatabase.setIdLongConsumer(guildId), resultSet -> consumer.accept(resultSetToAuditLogEntry(resultSet)));
     }
 
 
@@ -82,17 +239,27 @@ public class AuditLogDatabase extends AbstractDatabase<CustomAuditLogEntry> {
 
     @Override
     public void insert(@NotNull final CustomAuditLogEntry customAuditLogEntry) {
-        withoutReturn("""
-                INSERT INTO discordbot.audit_log(author, target, reason, type, expire_time, creation_time, attachment_urls)
-                VALUES (?,?,?,?,?,?,?)
-                """, statementSetter(customAuditLogEntry));
+        withoutReturn(INSERT_SQL, statementSetter(customAuditLogEntry));
+    }
+
+    /**
+     * Inserts all given entries as one JDBC batch, in a single transaction.
+     *
+     * @param customAuditLogEntries the entries to insert, their case IDs are ignored
+     */
+    public void insertAll(@NotNull final Collection<CustomAuditLogEntry> customAuditLogEntries) {
+        withUnitOfWork(unitOfWork -> {
+            for (final CustomAuditLogEntry customAuditLogEntry : customAuditLogEntries) {
+                unitOfWork.add(INSERT_SQL, statementSetter(customAuditLogEntry));
+            }
+        });
     }
 
     @Override
     public void replace(@NotNull final CustomAuditLogEntry customAuditLogEntry) {
         withoutReturn("""
-                REPLACE discordbot.audit_log(author, target, reason, type, expire_time, creation_time, attachment_urls)
-                VALUES (?,?,?,?,?,?,?)
+                REPLACE discordbot.audit_log(guild_id, author, target, reason, type, expire_time, creation_time, attachment_urls)
+                VALUES (?,?,?,?,?,?,?,?)
                 """, statementSetter(customAuditLogEntry));
     }
 
@@ -100,13 +267,14 @@ public class AuditLogDatabase extends AbstractDatabase<CustomAuditLogEntry> {
     private static Consumer<? super PreparedStatement> statementSetter(final CustomAuditLogEntry customAuditLogEntry) {
         return Errors.rethrow().wrap(preparedStatement -> {
             int i = 1;
+            preparedStatement.setLong(i++, customAuditLogEntry.guildId());
             preparedStatement.setLong(i++, customAuditLogEntry.author());
             preparedStatement.setLong(i++, customAuditLogEntry.target());
             preparedStatement.setString(i++, customAuditLogEntry.reason());
             preparedStatement.setInt(i++, customAuditLogEntry.type().getKey());
-            preparedStatement.setTimestamp(i++, Timestamp.from(customAuditLogEntry.expireTime()));
-            preparedStatement.setTimestamp(i++, Timestamp.from(customAuditLogEntry.creationTime()));
-            preparedStatement.setString(i++, Database.argumentsToCsvString(customAuditLogEntry.attachmentUrls()));
+            preparedStatement.setTimestamp(i++, null == customAuditLogEntry.expireTime() ? null : Timestamp.from(customAuditLogEntry.expireTime()));
+            preparedStatement.setTimestamp(i++, Timestamp.from(null == customAuditLogEntry.creationTime() ? Instant.now() : customAuditLogEntry.creationTime()));
+            preparedStatement.setBytes(i++, ArgumentCodec.encode(customAuditLogEntry.attachmentUrls()));
         });
     }
 
@@ -115,44 +283,18 @@ public class AuditLogDatabase extends AbstractDatabase<CustomAuditLogEntry> {
         try {
             return new CustomAuditLogEntryBuilder()
                     .setCaseId(resultSet.getLong("case_id"))
+                    .setGuildId(resultSet.getLong("guild_id"))
                     .setAuthor(resultSet.getLong("author"))
                     .setTarget(resultSet.getLong("target"))
                     .setReason(resultSet.getString("reason"))
                     .setType(Type.byKey(resultSet.getInt("type")))
                     .setExpireTime(resultSet.getTimestamp("expire_time"))
                     .setCreationTime(resultSet.getTimestamp("creation_time"))
-                    .setAttachmentUrls(Database.csvStringToArguments(resultSet.getString("attachment_urls")))
+                    .setAttachmentUrls(ArgumentCodec.decode(resultSet.getBytes("attachment_urls")))
                     .createAuditLogEntry();
 
         } catch (final SQLException e) {
             throw new RuntimeException(e);
         }
     }
-
-    @NotNull
-    private static List<CustomAuditLogEntry> resultSetToAuditLogEntries(@NotNull final ResultSet resultSet) {
-        List<CustomAuditLogEntry> auditLogEntries = new ArrayList<>(10);
-
-        try {
-            while (!resultSet.next()) {
-                auditLogEntries.add(
-                        new CustomAuditLogEntryBuilder()
-                                .setCaseId(resultSet.getLong("case_id"))
-                                .setAuthor(resultSet.getLong("author"))
-                                .setTarget(resultSet.getLong("target"))
-                                .setReason(resultSet.getString("reason"))
-                                .setType(Type.byKey(resultSet.getInt("type")))
-                                .setExpireTime(resultSet.getTimestamp("expire_time"))
-                                .setCreationTime(resultSet.getTimestamp("creation_time"))
-                                .setAttachmentUrls(Database.csvStringToArguments(resultSet.getString("attachment_urls")))
-                                .createAuditLogEntry()
-                );
-            }
-
-            return auditLogEntries;
-
-        } catch (final SQLException e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
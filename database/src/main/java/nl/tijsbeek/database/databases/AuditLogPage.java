@@ -0,0 +1,95 @@
+package nl.tijsbeek.database.databases;
+
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A page of {@link CustomAuditLogEntry CustomAuditLogEntries}, newest first.
+ *
+ * @param entries the entries of this page
+ * @param nextCursor the cursor to retrieve the next page with, null when this is the last page
+ *
+ * @see AuditLogDatabase#retrievePageByTargetId(long, long, Cursor, int)
+ */
+public record AuditLogPage(@NotNull List<CustomAuditLogEntry> entries, @Nullable Cursor nextCursor) {
+
+    /**
+     * Whenever there's a page after this one.
+     *
+     * @return whenever there's a next page
+     */
+    @Contract(pure = true)
+    public boolean hasNext() {
+        return null != nextCursor;
+    }
+
+    /**
+     * Points to the last entry of a page, the next page starts right after it.
+     * <br/>
+     * As pages are ordered on the creation time and case ID, entries inserted later never shift the following pages.
+     *
+     * @param creationTime the creation time of the last entry
+     * @param caseId the case ID of the last entry
+     */
+    public record Cursor(@NotNull Instant creationTime, long caseId) {
+
+        /**
+         * Creates the cursor pointing to the given entry.
+         *
+         * @param entry the last entry of a page
+         *
+         * @return the cursor
+         */
+        @NotNull
+        @Contract("_ -> new")
+        public static Cursor after(@NotNull final CustomAuditLogEntry entry) {
+            return new Cursor(entry.creationTime(), entry.caseId());
+        }
+
+        /**
+         * Writes this cursor as a short string, like {@code l2k8x1c0.2s}, to be used in component IDs.
+         *
+         * @return this cursor as a string
+         *
+         * @see #fromString(String)
+         */
+        @NonNls
+        @NotNull
+        @Contract(pure = true)
+        public String asString() {
+            return Long.toString(creationTime.toEpochMilli(), Character.MAX_RADIX) + "." + Long.toString(caseId, Character.MAX_RADIX);
+        }
+
+        /**
+         * Reads a cursor written by {@link #asString()}.
+         *
+         * @param cursor the cursor as a string
+         *
+         * @return the cursor, or null when the string isn't a valid cursor
+         */
+        @Nullable
+        @Contract(pure = true)
+        public static Cursor fromString(@NotNull final String cursor) {
+            int separator = cursor.indexOf('.');
+
+            if (-1 == separator) {
+                return null;
+            }
+
+            try {
+                long creationMillis = Long.parseLong(cursor, 0, separator, Character.MAX_RADIX);
+                long caseId = Long.parseLong(cursor, separator + 1, cursor.length(), Character.MAX_RADIX);
+
+                return new Cursor(Instant.ofEpochMilli(creationMillis), caseId);
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package nl.tijsbeek.database.databases;
 
 import com.diffplug.common.base.Errors;
+import nl.tijsbeek.database.components.ComponentRegistry;
+import nl.tijsbeek.database.components.ComponentStore;
 import nl.tijsbeek.database.tables.ComponentEntity;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -12,15 +14,28 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Objects;
 
 /**
  * The database handler for components.
  */
-public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> implements IStringDatabase<ComponentEntity> {
+public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> implements IStringDatabase<ComponentEntity>, ComponentStore {
     private static final Logger logger = LoggerFactory.getLogger(ComponentDatabase.class);
 
+    /**
+     * The amount of IDs {@link #reserveIdBlock()} reserves, this equals the increment of {@code component_id_sequence}.
+     */
+    public static final int ID_BLOCK_SIZE = 100;
+
+    /**
+     * The maximum amount of rows written by one statement of {@link #insertAllWithIds(Collection)} and {@link #deleteAllByIds(Collection)}.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
     @Contract(pure = true)
     ComponentDatabase(@NotNull final Database database) {
         super(database.getDataSource());
@@ -46,7 +61,7 @@ public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> i
 
     /**
      * Inserts the given {@link ComponentEntity} to the DB, returns nothing.
-     * Since the component's ID gets generated in this method, you might want to use {@link #insertAndReturnId(ComponentEntity)} instead.
+     * When the entity has no ID, a new block gets reserved for it, you might want to use {@link ComponentRegistry#insertAndReturnId(ComponentEntity)} instead.
      *
      * @param componentEntity the {@link ComponentEntity} to insert
      *
@@ -54,22 +69,33 @@ public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> i
      */
     @Override
     public void insert(final @NotNull ComponentEntity componentEntity) {
-        withoutReturn("""
-                INSERT INTO discordbot.component (listener_id, expire_date, arguments)
-                VALUES (?, ?, ?)
-                """, setComponentEntity(componentEntity));
+        if (null == componentEntity.getId()) {
+            insertAndReturnId(componentEntity);
+        } else {
+            insertAllWithIds(List.of(componentEntity));
+        }
     }
 
     @Override
     public void replace(@NotNull final ComponentEntity componentEntity) {
+        if (null == componentEntity.getId()) {
+            insertAndReturnId(componentEntity);
+            return;
+        }
+
         withoutReturn("""
-                REPLACE INTO discordbot.component (listener_id, expire_date, arguments)
-                VALUES (?, ?, ?)
-                """, setComponentEntity(componentEntity));
+                REPLACE INTO discordbot.component (id, listener_id, expire_date, arguments)
+                VALUES (?, ?, ?, ?)
+                """, Errors.rethrow().wrap(statement -> {
+            statement.setLong(1, Long.parseLong(componentEntity.getId()));
+            setComponentEntity(statement, 2, componentEntity);
+        }));
     }
 
     /**
      * See {@link #insert(ComponentEntity)}, but then it returns the ID of the entity.
+     * <br/>
+     * <b>This reserves a whole ID block for a single component</b>, use {@link ComponentRegistry#insertAndReturnId(ComponentEntity)} instead.
      *
      * @param componentEntity the {@link ComponentEntity} to insert
      *
@@ -77,13 +103,231 @@ public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> i
      */
     public @Nullable String insertAndReturnId(final ComponentEntity componentEntity) {
         return withReturn("""
-                INSERT INTO discordbot.component (listener_id, expire_date, arguments)
-                VALUES (?, ?, ?)
+                INSERT INTO discordbot.component (id, listener_id, expire_date, arguments)
+                VALUES (NEXTVAL(discordbot.component_id_sequence), ?, ?, ?)
                 RETURNING id
-                """, setComponentEntity(componentEntity),
+                """, Errors.rethrow().wrap(statement -> {
+                    setComponentEntity(statement, 1, componentEntity);
+                }),
                 Errors.rethrow().wrap((ResultSet resultSet) -> resultSet.getString(1)));
     }
 
+    /**
+     * Inserts all given {@link ComponentEntity ComponentEntities}, and returns their IDs in the same order.
+     * <br/>
+     * The IDs are taken from {@link #reserveIdBlock() reserved blocks}, so this costs one round-trip per {@value #ID_BLOCK_SIZE} components,
+     * followed by {@link #insertAllWithIds(Collection)}.
+     *
+     * @param componentEntities the {@link ComponentEntity ComponentEntities} to insert, their IDs are ignored
+     *
+     * @return the IDs of the components
+     *
+     * @see ComponentRegistry#insertAllAndReturnIds(List)
+     */
+    @NotNull
+    public List<String> insertAllAndReturnIds(@NotNull final List<ComponentEntity> componentEntities) {
+        List<ComponentEntity> withIds = new ArrayList<>(componentEntities.size());
+
+        long nextId = 0;
+        long blockEnd = 0;
+
+        for (final ComponentEntity componentEntity : componentEntities) {
+            if (nextId >= blockEnd) {
+                nextId = reserveIdBlock();
+                blockEnd = nextId + ID_BLOCK_SIZE;
+            }
+
+            withIds.add(new ComponentEntity(Long.toString(nextId++), componentEntity.getListenerId(),
+                    componentEntity.getExpireDate(), componentEntity.getArguments()));
+        }
+
+        insertAllWithIds(withIds);
+
+        return withIds.stream()
+                .map(ComponentEntity::getId)
+                .toList();
+    }
+
+    /**
+     * Reserves a block of {@link #ID_BLOCK_SIZE} IDs, the returned ID and the {@link #ID_BLOCK_SIZE} - 1 IDs after it won't be reserved again.
+     *
+     * @return the first ID of the block
+     */
+    @Override
+    public long reserveIdBlock() {
+        Long firstId = withReturn("""
+                SELECT NEXTVAL(discordbot.component_id_sequence)
+                """, statement -> {}, Errors.rethrow().wrap((ResultSet resultSet) -> resultSet.getLong(1)));
+
+        return Objects.requireNonNull(firstId, "The component ID sequence returned nothing");
+    }
+
+    /**
+     * Inserts all given {@link ComponentEntity ComponentEntities}, all of them need an ID.
+     * <br/>
+     * This writes up to {@value #MAX_ROWS_PER_STATEMENT} rows per statement.
+     *
+     * @param componentEntities the {@link ComponentEntity ComponentEntities} to insert
+     *
+     * @throws IllegalArgumentException when one of the entities has no ID
+     *
+     * @see #reserveIdBlock()
+     */
+    public void insertAllWithIds(@NotNull final Collection<ComponentEntity> componentEntities) {
+        List<ComponentEntity> entities = List.copyOf(componentEntities);
+
+        for (int from = 0; from < entities.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<ComponentEntity> chunk = entities.subList(from, Math.min(entities.size(), from + MAX_ROWS_PER_STATEMENT));
+
+            withoutReturn("""
+                    INSERT INTO discordbot.component (id, listener_id, expire_date, arguments)
+                    VALUES %s
+                    """.formatted(placeholders(chunk.size(), 4)), Errors.rethrow().wrap(statement -> {
+                int index = 1;
+
+                for (final ComponentEntity componentEntity : chunk) {
+                    if (null == componentEntity.getId()) {
+                        throw new IllegalArgumentException("All components need an ID, " + componentEntity + " has none");
+                    }
+
+                    statement.setLong(index, Long.parseLong(componentEntity.getId()));
+                    setComponentEntity(statement, index + 1, componentEntity);
+                    index += 4;
+                }
+            }));
+        }
+    }
+
+    /**
+     * Deletes all components with the given IDs.
+     * <br/>
+     * This deletes up to {@value #MAX_ROWS_PER_STATEMENT} rows per statement.
+     *
+     * @param ids the IDs of the components to delete
+     */
+    public void deleteAllByIds(@NotNull final Collection<Long> ids) {
+        List<Long> idList = List.copyOf(ids);
+
+        for (int from = 0; from < idList.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Long> chunk = idList.subList(from, Math.min(idList.size(), from + MAX_ROWS_PER_STATEMENT));
+
+            withoutReturn("""
+                    DELETE FROM discordbot.component
+                    WHERE id IN (%s)
+                    """.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))), Errors.rethrow().wrap(statement -> {
+                int index = 1;
+
+                for (final Long id : chunk) {
+                    statement.setLong(index++, id);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Deletes and inserts the given components in a single transaction, either all changes end up in the DB or none do.
+     * <br/>
+     * The deletes are applied before the inserts, so a delete and an insert of the same ID replaces the component.
+     * Both are sent as a JDBC batch, instead of a statement per component.
+     *
+     * @param deletes the IDs of the components to delete
+     * @param inserts the {@link ComponentEntity ComponentEntities} to insert, all of them need an ID
+     *
+     * @throws IllegalArgumentException when one of the entities has no ID
+     */
+    @Override
+    public void applyChanges(@NotNull final Collection<Long> deletes, @NotNull final Collection<ComponentEntity> inserts) {
+        withUnitOfWork(unitOfWork -> {
+            for (final Long id : deletes) {
+                unitOfWork.add("""
+                        DELETE FROM discordbot.component
+                        WHERE id = ?
+                        """, setIdLongConsumer(id));
+            }
+
+            for (final ComponentEntity componentEntity : inserts) {
+                if (null == componentEntity.getId()) {
+                    throw new IllegalArgumentException("All components need an ID, " + componentEntity + " has none");
+                }
+
+                unitOfWork.add("""
+                        INSERT INTO discordbot.component (id, listener_id, expire_date, arguments)
+                        VALUES (?, ?, ?, ?)
+                        """, Errors.rethrow().wrap(statement -> {
+                    statement.setLong(1, Long.parseLong(componentEntity.getId()));
+                    setComponentEntity(statement, 2, componentEntity);
+                }));
+            }
+        });
+    }
+
+    /**
+     * Deletes up to the given amount of components which expired before the given date.
+     *
+     * @param expiredBefore the date components need to be expired before
+     * @param limit the maximum amount of components to delete
+     *
+     * @return the IDs of the deleted components
+     */
+    @NotNull
+    public List<Long> deleteExpired(@NotNull final LocalDateTime expiredBefore, final int limit) {
+        return withReturnList("""
+                DELETE FROM discordbot.component
+                WHERE expire_date < ?
+                LIMIT ?
+                RETURNING id
+                """, Errors.rethrow().wrap(statement -> {
+                    statement.setObject(1, expiredBefore);
+                    statement.setInt(2, limit);
+                }),
+                Errors.rethrow().wrap((ResultSet resultSet) -> resultSet.getLong(1)));
+    }
+
+    /**
+     * Deletes up to the given amount of components with a listener ID not within the given listener IDs.
+     *
+     * @param knownListenerIds the listener IDs that still exist, cannot be empty
+     * @param limit the maximum amount of components to delete
+     *
+     * @return the IDs of the deleted components
+     *
+     * @throws IllegalArgumentException when no listener IDs are given, as this would delete every component
+     */
+    @NotNull
+    public List<Long> deleteOrphaned(@NotNull final Collection<String> knownListenerIds, final int limit) {
+        if (knownListenerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one known listener ID is required");
+        }
+
+        List<String> listenerIds = List.copyOf(knownListenerIds);
+
+        return withReturnList("""
+                DELETE FROM discordbot.component
+                WHERE listener_id IS NULL OR listener_id NOT IN (%s)
+                LIMIT ?
+                RETURNING id
+                """.formatted(String.join(", ", Collections.nCopies(listenerIds.size(), "?"))), Errors.rethrow().wrap(statement -> {
+                    int index = 1;
+
+                    for (final String listenerId : listenerIds) {
+                        statement.setString(index++, listenerId);
+                    }
+
+                    statement.setInt(index, limit);
+                }),
+                Errors.rethrow().wrap((ResultSet resultSet) -> resultSet.getLong(1)));
+    }
+
+    /**
+     * Retrieves the estimated size of the component table.
+     *
+     * @return the {@link TableStatistics} of the component table, or null when it doesn't exist
+     */
+    @Nullable
+    public TableStatistics retrieveTableStatistics() {
+        return retrieveTableStatistics("component");
+    }
+
     @NotNull
     @Contract("_ -> new")
     private static ComponentEntity resultSetToComponentEntity(@NotNull final ResultSet resultSet) {
@@ -93,7 +337,7 @@ public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> i
             String id = resultSet.getString(index++);
             String listenerId = resultSet.getString(index++);
             LocalDateTime expireDate = resultSet.getObject(index++, LocalDateTime.class);
-            List<String> arguments = Database.csvStringToArguments(resultSet.getString(index++));
+            List<String> arguments = ArgumentCodec.decode(resultSet.getBytes(index++));
 
             return new ComponentEntity(id, listenerId, expireDate, arguments);
 
@@ -102,11 +346,19 @@ public final class ComponentDatabase extends AbstractDatabase<ComponentEntity> i
         }
     }
 
-    private static Consumer<PreparedStatement> setComponentEntity(@NotNull final ComponentEntity componentEntity) {
-        return Errors.rethrow().wrap(statement -> {
-            statement.setString(1, componentEntity.getListenerId());
-            statement.setObject(2, componentEntity.getExpireDate());
-            statement.setString(3, Database.argumentsToCsvString(componentEntity.getArguments()));
-        });
+    /**
+     * Sets the listener ID, expire date and arguments of the given {@link ComponentEntity}, starting at the given index.
+     *
+     * @param statement the {@link PreparedStatement} to set the parameters on
+     * @param index the index of the first parameter
+     * @param componentEntity the {@link ComponentEntity}
+     *
+     * @throws SQLException if a parameter can't be set
+     */
+    private static void setComponentEntity(@NotNull final PreparedStatement statement, final int index,
+                                           @NotNull final ComponentEntity componentEntity) throws SQLException {
+        statement.setString(index, componentEntity.getListenerId());
+        statement.setObject(index + 1, componentEntity.getExpireDate());
+        statement.setBytes(index + 2, ArgumentCodec.encode(componentEntity.getArguments()));
     }
 }
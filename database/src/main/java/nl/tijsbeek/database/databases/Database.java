@@ -7,6 +7,12 @@ import com.opencsv.exceptions.CsvValidationException;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import nl.tijsbeek.config.Config;
+import nl.tijsbeek.database.auditlog.AuditLogExporter;
+import nl.tijsbeek.database.auditlog.AuditLogWriter;
+import nl.tijsbeek.database.cache.GuildSettingsCache;
+import nl.tijsbeek.database.components.ComponentRegistry;
+import nl.tijsbeek.database.components.ComponentSweeper;
+import nl.tijsbeek.database.components.StatelessComponentIdCodec;
 import org.flywaydb.core.Flyway;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NonNls;
@@ -22,21 +28,40 @@ import java.io.StringWriter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Contains all existing {@link IDatabase IDatabase's}, and the {@link javax.sql.DataSource}.
  *
  * This class is also responsible for DB migration at the moment of speaking, this will be moved to Gradle eventually.
+ * <br/>
+ * {@link #close()} should be called on shutdown, so pending writes get flushed.
  */
-public class Database {
+public class Database implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(Database.class);
     private static final String DB_SCHEMA_BOT = "discordbot";
 
+    /**
+     * The maximum amount of async calls waiting for a DB thread, more calls fail right away.
+     */
+    private static final int MAX_QUEUED_ASYNC_CALLS = 1_024;
+
     private final HikariDataSource dataSource;
+    private final ThreadPoolExecutor databaseExecutor;
 
     private final EmbedDatabase embedDatabase;
     private final ComponentDatabase componentDatabase;
+    private final ComponentRegistry componentRegistry;
+    private final ComponentSweeper componentSweeper;
     private final GuildSettingsDatabase guildSettingsDatabase;
+    private final GuildSettingsCache guildSettingsCache;
+    private final AuditLogDatabase auditLogDatabase;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditLogExporter auditLogExporter;
 
     public Database(@NotNull final Config config) {
         HikariConfig hikariConfig = new HikariConfig();
@@ -47,6 +72,17 @@ public class Database {
         hikariConfig.setSchema(DB_SCHEMA_BOT);
         dataSource = new HikariDataSource(hikariConfig);
 
+        // more threads than connections would only wait on the pool
+        int poolSize = dataSource.getMaximumPoolSize();
+        AtomicInteger threadCount = new AtomicInteger();
+        databaseExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_ASYNC_CALLS), runnable -> {
+            Thread thread = new Thread(runnable, "Database-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        databaseExecutor.allowCoreThreadTimeOut(true);
+
         Flyway flyway =
                 Flyway.configure()
                         .schemas(DB_SCHEMA_BOT)
@@ -57,11 +93,38 @@ public class Database {
 
         embedDatabase = new EmbedDatabase(this);
         componentDatabase = new ComponentDatabase(this);
+        componentRegistry = new ComponentRegistry(componentDatabase, createStatelessCodec(config));
+        componentSweeper = new ComponentSweeper(componentDatabase, componentRegistry, config);
         guildSettingsDatabase = new GuildSettingsDatabase(this);
+        guildSettingsCache = new GuildSettingsCache(guildSettingsDatabase);
+        auditLogDatabase = new AuditLogDatabase(this);
+        auditLogWriter = new AuditLogWriter(auditLogDatabase, config);
+        auditLogExporter = new AuditLogExporter(auditLogDatabase);
+    }
+
+    /**
+     * Creates the codec for stateless component ID's, these are disabled without a {@link Config#getComponentIdSecret() secret}.
+     *
+     * @param config the {@link Config} to take the secret from
+     *
+     * @return the codec, or null when no secret is set
+     */
+    @Nullable
+    private static StatelessComponentIdCodec createStatelessCodec(@NotNull final Config config) {
+        String secret = config.getComponentIdSecret();
+
+        if (null == secret) {
+            logger.warn("No component_id_secret is set, every component gets a row in the DB instead of a stateless ID.");
+            return null;
+        }
+
+        return new StatelessComponentIdCodec(secret);
     }
 
     /**
      * Writes an array of arguments to a CSV string.
+     * <br/>
+     * The DB stores arguments with the {@link ArgumentCodec} now, this is only kept to compare both in the benchmarks.
      *
      * @param arguments an array of arguments
      *
@@ -94,6 +157,8 @@ public class Database {
 
     /**
      * Writes a CSV string to a {@link List} of arguments
+     * <br/>
+     * The DB stores arguments with the {@link ArgumentCodec} now, this is only kept to compare both in the benchmarks.
      *
      * @param csv a CSV string
      *
@@ -118,6 +183,32 @@ public class Database {
         return dataSource;
     }
 
+    /**
+     * Returns the executor async DB calls run on, it has as many threads as the pool has connections.
+     *
+     * @return the DB executor
+     */
+    public ExecutorService getDatabaseExecutor() {
+        return databaseExecutor;
+    }
+
+    /**
+     * Wraps the given database, so its calls run on the {@link #getDatabaseExecutor() DB executor}.
+     * <br/>
+     * The blocking database stays usable, use this when the calling thread shouldn't wait on the DB.
+     *
+     * @param database the database to wrap, like {@link #getEmbedDatabase()}
+     *
+     * @return the {@link AsyncDatabase}
+     *
+     * @param <Entity> the DB's entity
+     * @param <D> the type of the database
+     */
+    @NotNull
+    public <Entity, D extends IDatabase<Entity>> AsyncDatabase<Entity, D> async(@NotNull final D database) {
+        return new AsyncDatabase<>(database, databaseExecutor);
+    }
+
 
     public EmbedDatabase getEmbedDatabase() {
         return embedDatabase;
@@ -127,10 +218,82 @@ public class Database {
         return componentDatabase;
     }
 
+    /**
+     * Returns the in-memory {@link ComponentRegistry}, which should be used over {@link #getComponentDatabase()} for live components.
+     *
+     * @return the {@link ComponentRegistry}
+     */
+    public ComponentRegistry getComponentRegistry() {
+        return componentRegistry;
+    }
+
+    /**
+     * Returns the {@link ComponentSweeper}, it has to be started once all listeners are known.
+     *
+     * @return the {@link ComponentSweeper}
+     */
+    public ComponentSweeper getComponentSweeper() {
+        return componentSweeper;
+    }
+
     public GuildSettingsDatabase getGuildSettingsDatabase() {
         return guildSettingsDatabase;
     }
 
+    /**
+     * Returns the {@link GuildSettingsCache}, which should be used over {@link #getGuildSettingsDatabase()}.
+     *
+     * @return the {@link GuildSettingsCache}
+     */
+    public GuildSettingsCache getGuildSettingsCache() {
+        return guildSettingsCache;
+    }
+
+    public AuditLogDatabase getAuditLogDatabase() {
+        return auditLogDatabase;
+    }
+
+    /**
+     * Returns the {@link AuditLogWriter}, which should be used over {@link #getAuditLogDatabase()} for new entries.
+     *
+     * @return the {@link AuditLogWriter}
+     */
+    public AuditLogWriter getAuditLogWriter() {
+        return auditLogWriter;
+    }
+
+    /**
+     * Returns the {@link AuditLogExporter}, which streams the audit log of a guild to a file.
+     *
+     * @return the {@link AuditLogExporter}
+     */
+    public AuditLogExporter getAuditLogExporter() {
+        return auditLogExporter;
+    }
+
+    /**
+     * Flushes all pending writes, and closes the {@link javax.sql.DataSource}.
+     */
+    @Override
+    public void close() {
+        componentSweeper.close();
+        componentRegistry.close();
+        guildSettingsCache.close();
+        auditLogWriter.close();
+        auditLogExporter.close();
+
+        databaseExecutor.shutdown();
+        try {
+            if (!databaseExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Not all async DB calls finished in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        dataSource.close();
+    }
+
     @NotNull
     @NonNls
     @Override
@@ -139,7 +302,13 @@ public class Database {
                 "dataSource=" + dataSource +
                 ", embedDatabase=" + embedDatabase +
                 ", componentDatabase=" + componentDatabase +
+                ", componentRegistry=" + componentRegistry +
+                ", componentSweeper=" + componentSweeper +
                 ", guildSettingsDatabase=" + guildSettingsDatabase +
+                ", guildSettingsCache=" + guildSettingsCache +
+                ", auditLogDatabase=" + auditLogDatabase +
+                ", auditLogWriter=" + auditLogWriter +
+                ", auditLogExporter=" + auditLogExporter +
                 '}';
     }
 }
@@ -3,6 +3,7 @@ package nl.tijsbeek.database.databases;
 import com.diffplug.common.base.Errors;
 import nl.tijsbeek.database.tables.EmbedTemplate;
 import nl.tijsbeek.database.tables.EmbedTemplate.EmbedTemplateBuilder;
+import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -11,11 +12,18 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.sql.*;
+import java.util.Collection;
 import java.util.function.Consumer;
 
 public class EmbedDatabase extends AbstractDatabase<EmbedTemplate> implements IStringDatabase<EmbedTemplate> {
     private static final Logger logger = LoggerFactory.getLogger(EmbedDatabase.class);
 
+    @Language("SQL")
+    private static final String INSERT_SQL = """
+            INSERT INTO discordbot.embeds(id, timestamp, author_name, author_url, author_icon_url, colour, footer_url, image_url, thumbnail_url, who_what_to_ping)
+            VALUES (?,?,?,?,?,?,?,?,?,?)
+            """;
+
     @Contract(pure = true)
     EmbedDatabase(@NotNull final Database database) {
         super(database.getDataSource());
@@ -41,10 +49,20 @@ public class EmbedDatabase extends AbstractDatabase<EmbedTemplate> implements IS
 
     @Override
     public void insert(final @NotNull EmbedTemplate embedTemplate) {
-        withoutReturn("""
-                INSERT INTO discordbot.embeds(id, timestamp, author_name, author_url, author_icon_url, colour, footer_url, image_url, thumbnail_url, who_what_to_ping)
-                VALUES (?,?,?,?,?,?,?,?,?,?)
-                """, statementSetter(embedTemplate));
+        withoutReturn(INSERT_SQL, statementSetter(embedTemplate));
+    }
+
+    /**
+     * Inserts all given templates as one JDBC batch, in a single transaction.
+     *
+     * @param embedTemplates the templates to insert
+     */
+    public void insertAll(@NotNull final Collection<EmbedTemplate> embedTemplates) {
+        withUnitOfWork(unitOfWork -> {
+            for (final EmbedTemplate embedTemplate : embedTemplates) {
+                unitOfWork.add(INSERT_SQL, statementSetter(embedTemplate));
+            }
+        });
     }
 
     @Override
@@ -67,7 +85,7 @@ public class EmbedDatabase extends AbstractDatabase<EmbedTemplate> implements IS
             statement.setString(7, embedTemplate.getFooterUrl());
             statement.setString(8, embedTemplate.getImageUrl());
             statement.setString(9, embedTemplate.getThumbnailUrl());
-            statement.setString(10, Database.argumentsToCsvString(embedTemplate.getMentions()));
+            statement.setBytes(10, ArgumentCodec.encode(embedTemplate.getMentions()));
         });
     }
 
@@ -85,7 +103,7 @@ public class EmbedDatabase extends AbstractDatabase<EmbedTemplate> implements IS
             builder.setFooterUrl(resultSet.getString(7));
             builder.setImageUrl(resultSet.getString(8));
             builder.setThumbnailUrl(resultSet.getString(9));
-            builder.setMentions(Database.csvStringToArguments(resultSet.getString(10)));
+            builder.setMentions(ArgumentCodec.decode(resultSet.getBytes(10)));
 
             return builder.createEmbedTemplate();
         } catch (final SQLException e) {
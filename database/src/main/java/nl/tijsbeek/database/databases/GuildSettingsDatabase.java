@@ -7,9 +7,17 @@ import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class GuildSettingsDatabase extends AbstractDatabase<GuildSettings> {
 
+    /**
+     * The maximum amount of guilds read or written by one statement of the bulk methods.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 1_000;
+
     GuildSettingsDatabase(final @NotNull Database database) {
         super(database.getDataSource());
     }
@@ -67,6 +75,53 @@ public class GuildSettingsDatabase extends AbstractDatabase<GuildSettings> {
         }));
     }
 
+    /**
+     * Retrieves the settings of all given guilds, guilds without settings are left out.
+     * <br/>
+     * This reads up to {@value #MAX_ROWS_PER_STATEMENT} guilds per statement.
+     *
+     * @param guildIds the IDs of the guilds
+     *
+     * @return the settings of the guilds
+     */
+    @NotNull
+    public List<GuildSettings> retrieveAllByIds(@NotNull final Collection<Long> guildIds) {
+        List<Long> ids = List.copyOf(guildIds);
+        List<GuildSettings> guildSettings = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_ROWS_PER_STATEMENT));
+
+            guildSettings.addAll(withReturnList("""
+                    SELECT *
+                    FROM discordbot.guild_settings
+                    WHERE guild_id IN %s
+                    """.formatted(placeholders(1, chunk.size())), setLongsConsumer(chunk), GuildSettingsDatabase::resultSetToGuildSettings));
+        }
+
+        return guildSettings;
+    }
+
+    /**
+     * Inserts default settings for all given guilds, guilds which already have settings are ignored.
+     * <br/>
+     * This writes up to {@value #MAX_ROWS_PER_STATEMENT} guilds per statement.
+     *
+     * @param guildIds the IDs of the guilds
+     */
+    public void insertAllIfAbsent(@NotNull final Collection<Long> guildIds) {
+        List<Long> ids = List.copyOf(guildIds);
+
+        for (int from = 0; from < ids.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_ROWS_PER_STATEMENT));
+
+            withoutReturn("""
+                    INSERT IGNORE INTO discordbot.guild_settings (guild_id)
+                    VALUES %s
+                    """.formatted(placeholders(chunk.size(), 1)), setLongsConsumer(chunk));
+        }
+    }
+
     private static @NotNull GuildSettings resultSetToGuildSettings(@NotNull final ResultSet resultSet) {
         try {
             GuildSettings guildSettings = new GuildSettings(resultSet.getLong("guild_id"));
@@ -0,0 +1,66 @@
+package nl.tijsbeek.database.databases;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The asynchronous counterpart of {@link IDatabase}, every method returns right away.
+ * <br/>
+ * The returned {@link CompletableFuture CompletableFutures} complete on a DB thread, so chained actions shouldn't block for long.
+ *
+ * @param <Entity> the DB's entity
+ *
+ * @see IDatabase
+ * @see AsyncDatabase
+ */
+public interface IAsyncDatabase<Entity> {
+
+    /**
+     * Retrieves the entity by the given ID.
+     *
+     * @param id the ID of the entity
+     *
+     * @return a {@link CompletableFuture} with the entity
+     *
+     * @see IDatabase#retrieveById(long)
+     */
+    @NotNull
+    CompletableFuture<Entity> retrieveById(long id);
+
+    /**
+     * Deletes the entity by the given ID, and returns the (deleted) entity.
+     *
+     * @param id the entity to delete
+     *
+     * @return a {@link CompletableFuture} with the deleted entity
+     *
+     * @see IDatabase#deleteById(long)
+     */
+    @NotNull
+    CompletableFuture<Entity> deleteById(long id);
+
+    /**
+     * Inserts the given entity, to the database.
+     *
+     * @param entity the entity
+     *
+     * @return a {@link CompletableFuture} which completes once inserted
+     *
+     * @see IDatabase#insert(Object)
+     */
+    @NotNull
+    CompletableFuture<Void> insert(@NotNull Entity entity);
+
+    /**
+     * Inserts updates the given entity, to the database.
+     *
+     * @param entity the entity
+     *
+     * @return a {@link CompletableFuture} which completes once replaced
+     *
+     * @see IDatabase#replace(Object)
+     */
+    @NotNull
+    CompletableFuture<Void> replace(@NotNull Entity entity);
+}
@@ -0,0 +1,12 @@
+package nl.tijsbeek.database.databases;
+
+/**
+ * Estimated statistics of a table, as reported by {@code information_schema}.
+ * <br/>
+ * These are estimates for InnoDB, they can be off by quite a bit.
+ *
+ * @param rows the estimated amount of rows
+ * @param bytes the estimated size in bytes, including indexes
+ */
+public record TableStatistics(long rows, long bytes) {
+}
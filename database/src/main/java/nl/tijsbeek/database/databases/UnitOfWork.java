@@ -0,0 +1,160 @@
+package nl.tijsbeek.database.databases;
+
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Queues many writes on a single connection, and commits them as JDBC batches in one transaction.
+ * <p>
+ * Every distinct SQL string is prepared only once, each {@link #add(String, Consumer)} adds a row to its batch.
+ * <b>On {@link #commit()} the batches run in the order their SQL was first added</b>, so all rows of one statement run before the rows of the next.
+ * <br/>
+ * When closed without committing, everything gets rolled back.
+ *
+ * @see AbstractDatabase#withUnitOfWork(Consumer)
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+    private int queuedRows;
+    private boolean committed;
+
+    /**
+     * Borrows a connection, and starts a transaction on it.
+     *
+     * @param dataSource the {@link DataSource} to borrow the connection from
+     */
+    UnitOfWork(@NotNull final DataSource dataSource) {
+        try {
+            connection = dataSource.getConnection();
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        try {
+            connection.setAutoCommit(false);
+        } catch (final SQLException e) {
+            // nobody gets this unit of work to close, so return the connection here
+            try {
+                connection.close();
+            } catch (final SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Adds a row to the batch of the given SQL.
+     *
+     * @param sql the SQL to prepare, only prepared the first time
+     * @param argumentInserter consumer which adds arguments to the {@link PreparedStatement}
+     *
+     * @return this unit of work
+     */
+    @NotNull
+    public UnitOfWork add(@Language("SQL") @NotNull final String sql, @NotNull final Consumer<? super PreparedStatement> argumentInserter) {
+        if (committed) {
+            throw new IllegalStateException("This unit of work has already been committed");
+        }
+
+        try {
+            PreparedStatement statement = statements.get(sql);
+
+            if (null == statement) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+
+            argumentInserter.accept(statement);
+            statement.addBatch();
+            queuedRows++;
+
+            return this;
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The amount of rows queued so far.
+     *
+     * @return the amount of queued rows
+     */
+    public int getQueuedRows() {
+        return queuedRows;
+    }
+
+    /**
+     * Executes all batches, and commits them in one transaction.
+     * <br/>
+     * When a batch fails, everything is rolled back.
+     */
+    public void commit() {
+        if (committed) {
+            throw new IllegalStateException("This unit of work has already been committed");
+        }
+
+        try {
+            for (final PreparedStatement statement : statements.values()) {
+                statement.executeBatch();
+            }
+
+            connection.commit();
+            committed = true;
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Closes all statements and returns the connection, rolling back when not committed.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+
+            for (final PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+
+            connection.setAutoCommit(true);
+        } catch (final SQLException e) {
+            logger.error("Something went wrong while closing a unit of work.", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                logger.error("Something went wrong while returning the connection of a unit of work.", e);
+            }
+        }
+    }
+
+    @NonNls
+    @NotNull
+    @Override
+    public String toString() {
+        return "UnitOfWork{" +
+                "statements=" + statements.size() +
+                ", queuedRows=" + queuedRows +
+                ", committed=" + committed +
+                '}';
+    }
+}
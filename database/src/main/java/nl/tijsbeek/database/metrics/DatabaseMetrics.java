@@ -0,0 +1,80 @@
+package nl.tijsbeek.database.metrics;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * The metrics of the database module, these are exported by the bot's Prometheus server.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class DatabaseMetrics {
+    public static final Counter COMPONENTS_RECLAIMED = Counter.build()
+            .name("components_reclaimed_total")
+            .help("Total components deleted by the sweeper")
+            .labelNames("reason")
+            .subsystem("database")
+            .register();
+
+    public static final Histogram COMPONENT_SWEEP_DURATION = Histogram.build()
+            .name("component_sweep_duration")
+            .help("Duration of a full component sweep, including the pauses between batches")
+            .subsystem("database")
+            .register();
+
+    public static final Gauge TABLE_ROWS = Gauge.build()
+            .name("table_rows")
+            .help("Estimated amount of rows in the table")
+            .labelNames("table")
+            .subsystem("database")
+            .register();
+
+    public static final Gauge TABLE_SIZE_BYTES = Gauge.build()
+            .name("table_size_bytes")
+            .help("Estimated size of the table, including indexes")
+            .labelNames("table")
+            .subsystem("database")
+            .register();
+
+    public static final Counter CACHE_REQUESTS = Counter.build()
+            .name("cache_requests_total")
+            .help("Total cache requests, by result (hit, stale or miss)")
+            .labelNames("cache", "result")
+            .subsystem("database")
+            .register();
+
+    public static final Counter CACHE_EVICTIONS = Counter.build()
+            .name("cache_evictions_total")
+            .help("Total entries evicted from the cache, by reason (size or expired)")
+            .labelNames("cache", "reason")
+            .subsystem("database")
+            .register();
+
+    public static final Gauge CACHE_SIZE = Gauge.build()
+            .name("cache_size")
+            .help("Amount of entries in the cache")
+            .labelNames("cache")
+            .subsystem("database")
+            .register();
+
+    public static final Gauge AUDIT_LOG_QUEUE_DEPTH = Gauge.build()
+            .name("audit_log_queue_depth")
+            .help("Amount of audit log entries waiting to be written")
+            .subsystem("database")
+            .register();
+
+    public static final Histogram AUDIT_LOG_FLUSH_DURATION = Histogram.build()
+            .name("audit_log_flush_duration")
+            .help("Duration of writing a batch of audit log entries")
+            .subsystem("database")
+            .register();
+
+    public static final Counter AUDIT_LOG_ENTRIES = Counter.build()
+            .name("audit_log_entries_total")
+            .help("Total audit log entries, by outcome (written, journaled, replayed or dropped)")
+            .labelNames("outcome")
+            .subsystem("database")
+            .register();
+
+    private DatabaseMetrics() {}
+}
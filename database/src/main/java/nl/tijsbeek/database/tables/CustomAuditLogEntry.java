@@ -1,5 +1,6 @@
 package nl.tijsbeek.database.tables;
 
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
 import nl.tijsbeek.database.databases.AuditLogDatabase;
 import org.jetbrains.annotations.*;
@@ -13,6 +14,8 @@ import java.util.Objects;
 
 /**
  * Contains an audit log entry, examples for types are "report", "warn" and more
+ * @param caseId the case's ID
+ * @param guildId the ID of the guild the action happened in, 0 for entries of before this was tracked
  * @param author the action taker / author's ID
  * @param target the target's ID
  * @param reason the reason for the action
@@ -21,12 +24,13 @@ import java.util.Objects;
  * @param creationTime the creation date of the
  * @param attachmentUrls the duration of the action, 01 for infinite and NULL for none
  */
-public record CustomAuditLogEntry(long caseId, long author, long target, String reason, Type type, Instant expireTime, Instant creationTime, List<String> attachmentUrls) {
+public record CustomAuditLogEntry(long caseId, long guildId, long author, long target, String reason, Type type, Instant expireTime, Instant creationTime, List<String> attachmentUrls) {
 
     /**
      * See {@link CustomAuditLogEntryBuilder} for building entries.
      *
      * @param caseId the case's ID (will be ignored when using {@link AuditLogDatabase#insert(CustomAuditLogEntry)}
+     * @param guildId the ID of the guild the action happened in
      * @param author the author's ID
      * @param target the target's ID
      * @param reason the reason for the action
@@ -35,9 +39,10 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
      * @param creationTime the creation time of this action, when {@code NULL} this will be set automatically.
      * @param attachmentUrls
      */
-    public CustomAuditLogEntry(final long caseId, final long author, final long target, final String reason, @NotNull final Type type,
+    public CustomAuditLogEntry(final long caseId, final long guildId, final long author, final long target, final String reason, @NotNull final Type type,
                                final Instant expireTime, final @Nullable Instant creationTime, @NotNull final List<String> attachmentUrls) {
         this.caseId = caseId;
+        this.guildId = guildId;
         this.author = author;
         this.target = target;
         this.reason = reason;
@@ -105,6 +110,7 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
 
     public static final class CustomAuditLogEntryBuilder {
         private long caseId;
+        private long guildId;
 
         private long author;
         private long target;
@@ -133,6 +139,19 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
             return this;
         }
 
+        @Contract(value = "_ -> this", mutates = "this")
+        public CustomAuditLogEntryBuilder setGuildId(@NotNull final Guild guild) {
+            this.guildId = guild.getIdLong();
+            return this;
+        }
+
+        @Contract(value = "_ -> this", mutates = "this")
+        public CustomAuditLogEntryBuilder setGuildId(final long guildId) {
+            this.guildId = guildId;
+            return this;
+        }
+
+
         @Contract(value = "_ -> this", mutates = "this")
         public CustomAuditLogEntryBuilder setAuthor(@NotNull final User author) {
             this.author = author.getIdLong();
@@ -216,7 +235,9 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
 
             Objects.requireNonNull(type, "Type may not be null!");
 
-            return new CustomAuditLogEntry(0L, author, target, reason, type, expireTime, creationTime, Collections.unmodifiableList(attachmentUrls));
+            List<String> urls = null == attachmentUrls ? List.of() : Collections.unmodifiableList(attachmentUrls);
+
+            return new CustomAuditLogEntry(caseId, guildId, author, target, reason, type, expireTime, creationTime, urls);
         }
 
 
@@ -227,6 +248,7 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
         public String toString() {
             return "CustomAuditLogEntryBuilder{" +
                     "caseId=" + caseId +
+                    ", guildId=" + guildId +
                     ", author=" + author +
                     ", target=" + target +
                     ", reason='" + reason + '\'' +
@@ -245,6 +267,7 @@ public record CustomAuditLogEntry(long caseId, long author, long target, String
     public String toString() {
         return "CustomAuditLogEntry{" +
                 "caseId=" + caseId +
+                ", guildId=" + guildId +
                 ", author=" + author +
                 ", target=" + target +
                 ", reason='" + reason + '\'' +
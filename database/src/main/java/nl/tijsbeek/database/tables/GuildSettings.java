@@ -2,6 +2,7 @@ package nl.tijsbeek.database.tables;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
 
 public class GuildSettings {
     private final long guildId;
@@ -30,6 +31,19 @@ public class GuildSettings {
         this.reportChannelId = reportChannelId;
     }
 
+    /**
+     * Creates a copy, changes to the copy don't affect this instance.
+     *
+     * @return a copy of these settings
+     */
+    @NotNull
+    @Contract(pure = true)
+    public GuildSettings copy() {
+        GuildSettings copy = new GuildSettings(guildId);
+        copy.reportChannelId = reportChannelId;
+        return copy;
+    }
+
     @NonNls
     @Override
     public String toString() {
@@ -0,0 +1,9 @@
+-- Used by AuditLogDatabase#retrievePage, which filters on the guild as well, with and without a type
+CREATE INDEX audit_log_guild_id_target_creation_time_index
+    ON audit_log (guild_id, target, creation_time, case_id);
+
+CREATE INDEX audit_log_guild_id_target_type_creation_time_index
+    ON audit_log (guild_id, target, type, creation_time, case_id);
+
+CREATE INDEX audit_log_guild_id_author_creation_time_index
+    ON audit_log (guild_id, author, creation_time, case_id);
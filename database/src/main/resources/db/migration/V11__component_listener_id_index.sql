@@ -0,0 +1,5 @@
+-- Used by the ComponentSweeper, which deletes components of listeners that no longer exist in batches.
+-- The range optimizer turns "listener_id IS NULL OR listener_id NOT IN (...)" into the ranges between the known listener IDs,
+-- so the delete only reads the index entries of unknown listeners, instead of every row.
+CREATE INDEX component_listener_id_index
+    ON component (listener_id);
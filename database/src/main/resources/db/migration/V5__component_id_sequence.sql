@@ -0,0 +1,15 @@
+ALTER TABLE component
+    MODIFY id BIGINT AUTO_INCREMENT;
+
+-- Component IDs are reserved in blocks of 100, see ComponentDatabase#reserveIdBlock
+CREATE SEQUENCE component_id_sequence
+    START WITH 1
+    INCREMENT BY 100
+    NOCACHE;
+
+SET @next_component_id = (SELECT COALESCE(MAX(id), 0) + 1 FROM component);
+SET @restart_component_id_sequence = CONCAT('ALTER SEQUENCE component_id_sequence RESTART WITH ', @next_component_id);
+
+PREPARE restart_component_id_sequence FROM @restart_component_id_sequence;
+EXECUTE restart_component_id_sequence;
+DEALLOCATE PREPARE restart_component_id_sequence;
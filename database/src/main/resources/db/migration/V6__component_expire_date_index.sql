@@ -0,0 +1,3 @@
+-- Used by the ComponentSweeper, which deletes expired components in batches
+CREATE INDEX component_expire_date_index
+    ON component (expire_date);
@@ -0,0 +1,9 @@
+ALTER TABLE audit_log
+    ADD COLUMN guild_id BIGINT NULL AFTER case_id;
+
+-- case_id breaks ties between entries created within the same second, see AuditLogDatabase#retrievePageByTargetId
+CREATE INDEX audit_log_target_type_creation_time_index
+    ON audit_log (target, type, creation_time, case_id);
+
+CREATE INDEX audit_log_author_creation_time_index
+    ON audit_log (author, creation_time, case_id);
@@ -0,0 +1,3 @@
+-- Used by AuditLogDatabase#forEachByGuildId, which streams a guild's cases in order of their case ID
+CREATE INDEX audit_log_guild_id_case_id_index
+    ON audit_log (guild_id, case_id);
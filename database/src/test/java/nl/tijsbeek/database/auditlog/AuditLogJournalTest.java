@@ -0,0 +1,136 @@
+package nl.tijsbeek.database.auditlog;
+
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Appended entries are replayed as they were, and deleted afterwards")
+    void roundTrip() throws IOException {
+        AuditLogJournal journal = new AuditLogJournal(directory.resolve("journal.csv"));
+        List<CustomAuditLogEntry> entries = List.of(
+                entry("a \"quoted\" reason,\nover 2 lines", null, List.of()),
+                entry("reason", Instant.ofEpochMilli(1_700_000_000_000L), List.of("https://example.com/1.png", "https://example.com/2.png")));
+
+        journal.append(entries);
+        assertTrue(journal.hasEntries());
+
+        List<CustomAuditLogEntry> replayed = new ArrayList<>();
+        assertEquals(2, journal.replay(replayed::addAll));
+
+        assertEquals(entries, replayed);
+        assertFalse(journal.hasEntries());
+    }
+
+    @Test
+    @DisplayName("When the writer throws, the entries are kept for the next replay")
+    void failedReplay() throws IOException {
+        AuditLogJournal journal = new AuditLogJournal(directory.resolve("journal.csv"));
+        journal.append(List.of(entry("first", null, List.of())));
+
+        assertThrows(IllegalStateException.class, () -> journal.replay(batch -> {
+            throw new IllegalStateException("Fake failure");
+        }));
+
+        // appended while the replay file exists, so it's replayed after that one
+        journal.append(List.of(entry("second", null, List.of())));
+
+        List<CustomAuditLogEntry> replayed = new ArrayList<>();
+        journal.replay(replayed::addAll);
+        journal.replay(replayed::addAll);
+
+        assertEquals(List.of("first", "second"), replayed.stream().map(CustomAuditLogEntry::reason).toList());
+        assertFalse(journal.hasEntries());
+    }
+
+    @Test
+    @DisplayName("Entries are replayed in batches, a failed replay continues after the last written batch")
+    void batches() throws IOException {
+        AuditLogJournal journal = new AuditLogJournal(directory.resolve("journal.csv"));
+        int entries = AuditLogJournal.REPLAY_BATCH_SIZE * 2 + 200;
+
+        List<CustomAuditLogEntry> appended = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            appended.add(entry("reason " + i, null, List.of()));
+        }
+        journal.append(appended);
+
+        List<CustomAuditLogEntry> replayed = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> journal.replay(batch -> {
+            if (1 == batchSizes.size()) {
+                throw new IllegalStateException("Fake failure");
+            }
+
+            batchSizes.add(batch.size());
+            replayed.addAll(batch);
+        }));
+        assertTrue(journal.hasEntries());
+
+        assertEquals(entries - AuditLogJournal.REPLAY_BATCH_SIZE, journal.replay(batch -> {
+            batchSizes.add(batch.size());
+            replayed.addAll(batch);
+        }));
+
+        assertEquals(List.of(AuditLogJournal.REPLAY_BATCH_SIZE, AuditLogJournal.REPLAY_BATCH_SIZE, 200), batchSizes);
+        assertEquals(appended, replayed);
+        assertFalse(journal.hasEntries());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("A line cut off by a crash is skipped, and the file is moved aside instead of blocking later replays")
+    void truncatedTail() throws IOException {
+        Path path = directory.resolve("journal.csv");
+        AuditLogJournal journal = new AuditLogJournal(path);
+
+        journal.append(List.of(entry("first", null, List.of()), entry("second", null, List.of())));
+        Files.writeString(path, "\"1\",\"2\",\"3\",\"cut off", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<CustomAuditLogEntry> replayed = new ArrayList<>();
+        assertEquals(2, journal.replay(replayed::addAll));
+
+        assertEquals(List.of("first", "second"), replayed.stream().map(CustomAuditLogEntry::reason).toList());
+        assertFalse(journal.hasEntries());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("journal.csv.corrupt-")).count());
+        }
+
+        journal.append(List.of(entry("third", null, List.of())));
+        replayed.clear();
+        journal.replay(replayed::addAll);
+
+        assertEquals(List.of("third"), replayed.stream().map(CustomAuditLogEntry::reason).toList());
+    }
+
+    @NotNull
+    static CustomAuditLogEntry entry(@NotNull final String reason, @Nullable final Instant expireTime, @NotNull final List<String> attachmentUrls) {
+        return new CustomAuditLogEntry(0, 1L, 2L, 3L, reason, CustomAuditLogEntry.Type.REPORT,
+                expireTime, Instant.ofEpochMilli(1_600_000_000_000L), attachmentUrls);
+    }
+}
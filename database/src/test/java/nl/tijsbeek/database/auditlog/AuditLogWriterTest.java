@@ -0,0 +1,154 @@
+package nl.tijsbeek.database.auditlog;
+
+import nl.tijsbeek.database.tables.CustomAuditLogEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static nl.tijsbeek.database.auditlog.AuditLogJournalTest.entry;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Submitted entries are written, at the latest on close")
+    void writes() {
+        List<CustomAuditLogEntry> inserted = Collections.synchronizedList(new ArrayList<>());
+        AuditLogWriter writer = new AuditLogWriter(inserted::addAll, directory.resolve("journal.csv"), 10, 100);
+
+        for (int i = 0; 3 > i; i++) {
+            writer.submit(entry("reason " + i, null, List.of()));
+        }
+        writer.close();
+
+        assertEquals(List.of("reason 0", "reason 1", "reason 2"), inserted.stream().map(CustomAuditLogEntry::reason).toList());
+    }
+
+    @Test
+    @DisplayName("Entries which couldn't be written are journaled, and replayed once the DB is back")
+    void journalsFailedBatches() {
+        Path path = directory.resolve("journal.csv");
+        AuditLogWriter failing = new AuditLogWriter(batch -> {
+            throw new IllegalStateException("Fake failure");
+        }, path, 10, 100);
+
+        failing.submit(entry("reason", null, List.of()));
+        failing.close();
+
+        assertTrue(Files.exists(path));
+
+        List<CustomAuditLogEntry> inserted = Collections.synchronizedList(new ArrayList<>());
+        new AuditLogWriter(inserted::addAll, path, 10, 100).close();
+
+        assertEquals(List.of("reason"), inserted.stream().map(CustomAuditLogEntry::reason).toList());
+    }
+
+    @Test
+    @DisplayName("Entries which don't fit in the queue are journaled by the writer thread, not by the submitter")
+    void overflow() throws InterruptedException, IOException {
+        Path path = directory.resolve("journal.csv");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CustomAuditLogEntry> inserted = Collections.synchronizedList(new ArrayList<>());
+
+        AuditLogWriter writer = new AuditLogWriter(batch -> {
+            writing.countDown();
+
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            inserted.addAll(batch);
+        }, path, 10, 1);
+
+        writer.submit(entry("blocked", null, List.of()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        int submitted = AuditLogWriter.QUEUE_CAPACITY + 3;
+        for (int i = 0; submitted > i; i++) {
+            writer.submit(entry("reason", null, List.of()));
+        }
+
+        // the writer thread is still busy with the first batch
+        assertFalse(Files.exists(path));
+
+        release.countDown();
+        writer.close();
+
+        List<CustomAuditLogEntry> journaled = new ArrayList<>();
+        new AuditLogJournal(path).replay(journaled::addAll);
+
+        assertEquals(submitted + 1, inserted.size() + journaled.size());
+    }
+
+    @Test
+    @DisplayName("Once the overflow is full as well, the submitter journals the entries itself")
+    void overflowFull() throws InterruptedException, IOException {
+        Path path = directory.resolve("journal.csv");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CustomAuditLogEntry> inserted = Collections.synchronizedList(new ArrayList<>());
+
+        AuditLogWriter writer = new AuditLogWriter(batch -> {
+            writing.countDown();
+
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            inserted.addAll(batch);
+        }, path, 10, 1);
+
+        writer.submit(entry("blocked", null, List.of()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        int submitted = AuditLogWriter.QUEUE_CAPACITY + AuditLogWriter.OVERFLOW_CAPACITY + 2;
+        for (int i = 0; submitted > i; i++) {
+            writer.submit(entry("reason", null, List.of()));
+        }
+
+        // the writer thread is still busy with the first batch, so these were journaled by the submitter
+        List<CustomAuditLogEntry> journaledBySubmitter = new ArrayList<>();
+        new AuditLogJournal(path).replay(journaledBySubmitter::addAll);
+        assertEquals(2, journaledBySubmitter.size());
+
+        release.countDown();
+        writer.close();
+
+        List<CustomAuditLogEntry> journaled = new ArrayList<>();
+        new AuditLogJournal(path).replay(journaled::addAll);
+
+        assertEquals(submitted + 1, inserted.size() + journaledBySubmitter.size() + journaled.size());
+    }
+
+    @Test
+    @DisplayName("Entries submitted after closing are journaled right away")
+    void submitAfterClose() throws IOException {
+        Path path = directory.resolve("journal.csv");
+        AuditLogWriter writer = new AuditLogWriter(batch -> {}, path, 10, 100);
+        writer.close();
+
+        writer.submit(entry("late", null, List.of()));
+
+        List<CustomAuditLogEntry> journaled = new ArrayList<>();
+        new AuditLogJournal(path).replay(journaled::addAll);
+
+        assertEquals(List.of("late"), journaled.stream().map(CustomAuditLogEntry::reason).toList());
+    }
+}